@@ -4,38 +4,71 @@
  */
  package com.softwareag.research.mini_api_gatway;
 
+import java.time.Instant;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.cloud.gateway.route.Route;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.GatewayFilterSpec;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder.Builder;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.UriComponents;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.softwareag.research.mini_api_gatway.configuration.Constants;
+import com.softwareag.research.mini_api_gatway.events.RoutesChangedEvent;
 import com.softwareag.research.mini_api_gatway.model.RouteEntity;
 import com.softwareag.research.mini_api_gatway.model.RouteRepository;
 import com.softwareag.research.mini_api_gatway.model.filters.GlobalFilterEntity;
 import com.softwareag.research.mini_api_gatway.model.filters.GlobalFilterRepository;
 import com.softwareag.research.mini_api_gatway.model.filters.RouteFilter;
 import com.softwareag.research.mini_api_gatway.model.filters.RoutePathValidatorFilter;
+import com.softwareag.research.mini_api_gatway.routing.CompiledFilterChain;
+import com.softwareag.research.mini_api_gatway.routing.CompiledRoute;
+import com.softwareag.research.mini_api_gatway.routing.RouteDispatchHandlerMapping;
+import com.softwareag.research.mini_api_gatway.routing.RouteSnapshot;
+import com.softwareag.research.mini_api_gatway.routing.RouteStatistics;
 
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.publisher.Sinks.EmitResult;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * Reads {@link RouteEntity RouteEntities} from database to create gateway
- * endpoints
+ * endpoints. Compiled routes are kept in an immutable {@link RouteSnapshot}
+ * that is rebuilt incrementally when routes change. Proxied routes are
+ * dispatched by {@link RouteDispatchHandlerMapping}, only the UI routes are
+ * exposed as {@link RouteLocator}.
  *
  * @author jonsch
  *
@@ -53,80 +86,332 @@ public class RouteService implements RouteLocator {
 	@Autowired
 	private RouteLocatorBuilder builder;
 
+	/**
+	 * Current generation of compiled routes. Replaced as a whole after a refresh
+	 * has been fully compiled.
+	 */
+	private final AtomicReference<RouteSnapshot> snapshot = new AtomicReference<>(RouteSnapshot.empty());
+
+	/**
+	 * Pending refreshes. They are processed one after another, each building on
+	 * the snapshot published by the previous one.
+	 */
+	private final Sinks.Many<RoutesChangedEvent> refreshRequests = Sinks.many().unicast().onBackpressureBuffer();
+
+	/**
+	 * Global filters of routes saved on this instance whose refresh has not been
+	 * published yet. Together with the snapshot it tells which global filters are
+	 * in use without reading all routes.
+	 */
+	private final Map<Long, Set<String>> savedRouteGlobalFilters = new ConcurrentHashMap<>();
+
+	/** Spring Cloud Gateway global filters, added to the chain of each route **/
+	@Autowired
+	private List<GlobalFilter> springGlobalFilters;
+
+	private List<GatewayFilter> gatewayGlobalFilters;
+
+	private final ObjectMapper hashMapper = new ObjectMapper().setVisibility(PropertyAccessor.ALL, Visibility.ANY)
+			.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
 	@Value("${gateway.public-url}")
 	private String publicGatewayUrl;
 
+	@Value("${gateway.validation.body-lookahead}")
+	private int bodyValidationLookahead;
+
 	@Override
 	public Flux<Route> getRoutes() {
-		Builder routeBuilder = builder.routes();
-		return gFilterRepository.findAll().collectMap(fE -> fE.getName())
-				.flatMapMany(filterMap -> buildRoutes(routeBuilder, filterMap));
-	}
-
-	private Flux<Route> buildRoutes(Builder routeBuilder, Map<String, GlobalFilterEntity> globalFilters) {
-		log.info("Refreshing route cache");
-		return routeRepository.findAll()
-				.filter(rE -> rE.isActive())
-				.reduce(routeBuilder, (rB, routeEntity) -> {
-					try {
-					log.info("Loading route: {}",routeEntity);
-					UriComponents uri = UriComponentsBuilder.fromHttpUrl(routeEntity.getEndpoint()).build();
-					return rB.route(routeEntity.getId().toString(), r ->
-			    		r.
-						path(Constants.GATEWAY_PROXY_PATH_FORMAT.formatted(routeEntity.getName(),
-								routeEntity.getVersion()))
-			    			.filters(f -> {
-			    				GatewayFilterSpec filters = f.stripPrefix(Constants.GATEWAY_PROXY_PATH_PREFIX_LENGTH);
-			    				if(uri.getPath() != null && !uri.getPath().isEmpty()) {
-			    					filters = filters.prefixPath(uri.getPath());
-			    				}
-			    				if(uri.getQuery() != null) {
-			    					for(Entry<String, List<String>> entry : uri.getQueryParams().entrySet()) {
-			    						for(String value : entry.getValue()) {
-			    							filters = filters.addRequestParameter(entry.getKey(), value);
-			    						}
-			    					}
-			    				}
-								if (routeEntity.getPaths() != null && routeEntity.getPaths().length > 0) {
-									filters = filters.filter(new RoutePathValidatorFilter(routeEntity));
-								}
-			    				List<RouteFilter> specificFilters = new ArrayList<>(
-			    						(routeEntity.getGlobalFilters() == null ? 0 : routeEntity.getGlobalFilters().length) +
-			    						(routeEntity.getFilters() == null ? 0 : routeEntity.getFilters().length));
-								if (routeEntity.getGlobalFilters() != null) {
-									specificFilters.addAll(Arrays.stream(routeEntity.getGlobalFilters())
-											.map(name -> globalFilters.get(name))
-											.map(gFilter -> gFilter.getFilter())
-											.toList());
-								}
-			    				if(routeEntity.getFilters() != null) {
-			    					for(RouteFilter filter : routeEntity.getFilters()) {
-			    						specificFilters.add(filter);
-			    					}
-			    				}
-			    				if(!specificFilters.isEmpty()) {
-				    				specificFilters.sort(stageComparator);
-				    				int i = 0;
-				    				for(RouteFilter filter : specificFilters) {
-				    					filters = filters.filter(filter, i++);
-				    				}
-			    				}
-			    				return filters;
-			    			})
-						.uri(uri.toUriString())
-			    	);
-					} catch (RuntimeException e) {
-						log.error("Could not load route {}", routeEntity, e);
-						routeEntity.setActive(false);
-						routeRepository.save(routeEntity).subscribe();
-						return rB;
+		return generateUIRoutes(builder.routes()).build().getRoutes();
+	}
+
+	/**
+	 *
+	 * @return the current generation of proxied routes
+	 */
+	public RouteSnapshot getSnapshot() {
+		return snapshot.get();
+	}
+
+	@PostConstruct
+	private void initialize() {
+		gatewayGlobalFilters = CompiledFilterChain.adapt(springGlobalFilters);
+		refreshRequests.asFlux()
+				.concatMap(event -> Mono.defer(() -> refresh(event)).onErrorResume(error -> {
+					log.error("Failed to refresh routes", error);
+					return Mono.empty();
+				})).subscribe();
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadRoutes() {
+		handleRoutesChanged(new RoutesChangedEvent(this));
+	}
+
+	/**
+	 * Queues a refresh of the changed routes
+	 *
+	 * @param event
+	 */
+	@EventListener
+	public void handleRoutesChanged(RoutesChangedEvent event) {
+		EmitResult result;
+		synchronized (refreshRequests) {
+			result = refreshRequests.tryEmitNext(event);
+		}
+		if (result.isFailure()) {
+			log.error("Could not queue route refresh: {}", result);
+		}
+	}
+
+	/**
+	 * Builds the next snapshot from a copy of the current one, recompiling only
+	 * the changed routes, and publishes it. Routes that fail to compile are
+	 * deactivated afterwards.
+	 *
+	 * @param event
+	 * @return
+	 */
+	private Mono<Void> refresh(RoutesChangedEvent event) {
+		Instant buildStart = Instant.now();
+		RouteSnapshot current = snapshot.get();
+		// Captured before the routes are read, later saves stay until their own refresh
+		Map<Long, Set<String>> savedGlobalFilters = Map.copyOf(savedRouteGlobalFilters);
+		Set<Long> refreshedRouteIds;
+		Map<Long, CompiledRoute> routes = new HashMap<>();
+		Set<Long> failedRouteIds = new HashSet<>();
+		Map<Long, Set<String>> routeGlobalFilters = new HashMap<>();
+		Flux<RouteEntity> changedRoutes;
+		if (event.isFullRefresh()) {
+			log.info("Refreshing all routes");
+			changedRoutes = routeRepository.findAll();
+			refreshedRouteIds = savedGlobalFilters.keySet();
+		} else {
+			Set<Long> routeIds = resolveChangedRoutes(event, current);
+			if (routeIds.isEmpty()) {
+				log.info("No routes affected by changed global filters {}", event.getGlobalFilterNames());
+				return Mono.empty();
+			}
+			log.info("Refreshing routes {}", routeIds);
+			refreshedRouteIds = routeIds;
+			routes.putAll(current.getRoutes());
+			routes.keySet().removeAll(routeIds);
+			failedRouteIds.addAll(current.getFailedRouteIds());
+			failedRouteIds.removeAll(routeIds);
+			routeGlobalFilters.putAll(current.getRouteGlobalFilters());
+			// Deleted routes are not returned and thereby dropped from the index
+			routeGlobalFilters.keySet().removeAll(routeIds);
+			changedRoutes = routeRepository.findAllById(routeIds);
+		}
+		return changedRoutes.doOnNext(routeEntity -> {
+					if (routeEntity.getGlobalFilters() != null && routeEntity.getGlobalFilters().length > 0) {
+						routeGlobalFilters.put(routeEntity.getId(),
+								Set.copyOf(Arrays.asList(routeEntity.getGlobalFilters())));
 					}
-				}).flatMapMany(builder -> {
-					builder = generateUIRoutes(builder);
-					return builder.build().getRoutes();
+				}).filter(RouteEntity::isActive).collectList()
+				.flatMap(routeEntities -> gFilterRepository.findAllById(getGlobalFilterNames(routeEntities))
+						.collectMap(GlobalFilterEntity::getName)
+						// Keep compilation away from the database and request threads
+						.publishOn(Schedulers.boundedElastic())
+						.flatMapMany(globalFilters -> Flux.fromIterable(routeEntities)
+								.concatMap(routeEntity -> reuseOrCompileRoute(routeEntity, globalFilters, current)
+										.doOnNext(route -> routes.put(route.getId(), route))
+										.then(Mono.<RouteEntity>empty())
+										.onErrorResume(error -> {
+											log.error("Could not load route {}", routeEntity, error);
+											failedRouteIds.add(routeEntity.getId());
+											return Mono.just(routeEntity);
+										})))
+						.collectList())
+				.flatMap(failedRoutes -> {
+					RouteSnapshot next = current.next(routes, failedRouteIds, routeGlobalFilters, buildStart);
+					snapshot.set(next);
+					savedGlobalFilters.forEach((routeId, globalFilters) -> {
+						if (refreshedRouteIds.contains(routeId)) {
+							savedRouteGlobalFilters.remove(routeId, globalFilters);
+						}
+					});
+					log.info("Published route generation {} with {} routes in {} ms", next.getGeneration(),
+							routes.size(), next.getBuildDuration().toMillis());
+					return deactivateRoutes(failedRoutes);
 				});
 	}
 
+	/**
+	 * Collects the changed routes and the routes depending on changed global
+	 * filters
+	 */
+	private static Set<Long> resolveChangedRoutes(RoutesChangedEvent event, RouteSnapshot current) {
+		Set<Long> routeIds = new HashSet<>();
+		if (event.getRouteIds() != null) {
+			routeIds.addAll(event.getRouteIds());
+		}
+		if (event.getGlobalFilterNames() != null) {
+			for (String name : event.getGlobalFilterNames()) {
+				routeIds.addAll(current.getRoutesUsingGlobalFilter(name));
+			}
+		}
+		return routeIds;
+	}
+
+	/**
+	 * Records the global filters of a route saved on this instance until its
+	 * refresh is published, so that {@link #isGlobalFilterInUse(String)} knows
+	 * them right away. Routes saved on other instances are known once their
+	 * replicated refresh is published.
+	 *
+	 * @param routeEntity the saved route
+	 */
+	public void routeSaved(RouteEntity routeEntity) {
+		savedRouteGlobalFilters.put(routeEntity.getId(), routeEntity.getGlobalFilters() == null ? Set.of()
+				: Set.copyOf(Arrays.asList(routeEntity.getGlobalFilters())));
+	}
+
+	/**
+	 * Answers from the index of the current snapshot and the routes saved since
+	 * it was published. Until a change of a route is published, both its old and
+	 * its new global filters count as in use.
+	 *
+	 * @param globalFilterName
+	 * @return whether any route, active or not, applies the global filter
+	 */
+	public boolean isGlobalFilterInUse(String globalFilterName) {
+		if (!snapshot.get().getRoutesUsingGlobalFilter(globalFilterName).isEmpty()) {
+			return true;
+		}
+		for (Set<String> globalFilters : savedRouteGlobalFilters.values()) {
+			if (globalFilters.contains(globalFilterName)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private Mono<Void> deactivateRoutes(List<RouteEntity> routeEntities) {
+		if (routeEntities.isEmpty()) {
+			return Mono.empty();
+		}
+		routeEntities.forEach(routeEntity -> routeEntity.setActive(false));
+		return routeRepository.saveAll(routeEntities).then().onErrorResume(error -> {
+			log.error("Could not deactivate failed routes", error);
+			return Mono.empty();
+		});
+	}
+
+	/**
+	 * Reuses the route of the current snapshot if its definition did not change,
+	 * otherwise compiles it
+	 */
+	private Mono<CompiledRoute> reuseOrCompileRoute(RouteEntity routeEntity,
+			Map<String, GlobalFilterEntity> globalFilters, RouteSnapshot current) {
+		return Mono.defer(() -> {
+			String contentHash = contentHash(routeEntity, globalFilters);
+			CompiledRoute previous = current.getRoutes().get(routeEntity.getId());
+			if (previous != null && contentHash != null && contentHash.equals(previous.getContentHash())) {
+				log.debug("Route {} is unchanged", routeEntity.getId());
+				return Mono.just(previous);
+			}
+			return compileRoute(routeEntity, globalFilters, contentHash,
+					previous != null ? previous.getStatistics() : new RouteStatistics());
+		});
+	}
+
+	/**
+	 * Hashes the definition of a route together with the global filters it
+	 * references.
+	 *
+	 * @return the hash or null if the route could not be serialized
+	 */
+	private String contentHash(RouteEntity routeEntity, Map<String, GlobalFilterEntity> globalFilters) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(hashMapper.writeValueAsBytes(routeEntity));
+			if (routeEntity.getGlobalFilters() != null) {
+				for (String name : routeEntity.getGlobalFilters()) {
+					digest.update(hashMapper.writeValueAsBytes(globalFilters.get(name)));
+				}
+			}
+			return HexFormat.of().formatHex(digest.digest());
+		} catch (JsonProcessingException | NoSuchAlgorithmException e) {
+			log.warn("Could not hash route {}, it will always be recompiled", routeEntity.getId(), e);
+			return null;
+		}
+	}
+
+	private Mono<CompiledRoute> compileRoute(RouteEntity routeEntity, Map<String, GlobalFilterEntity> globalFilters,
+			String contentHash, RouteStatistics statistics) {
+		return Mono.defer(() -> {
+			log.info("Loading route: {}", routeEntity);
+			if (routeEntity.getGlobalFilters() != null) {
+				for (String name : routeEntity.getGlobalFilters()) {
+					if (globalFilters.get(name) == null) {
+						return Mono.error(new IllegalStateException(
+								"Route %s references the unknown global filter %s".formatted(routeEntity.getId(),
+										name)));
+					}
+				}
+			}
+			UriComponents uri = UriComponentsBuilder.fromHttpUrl(routeEntity.getEndpoint()).build();
+			return builder.routes().route(routeEntity.getId().toString(), r ->
+				r.
+				path(Constants.GATEWAY_PROXY_PATH_FORMAT.formatted(routeEntity.getName(),
+						routeEntity.getVersion()))
+					.filters(f -> {
+						GatewayFilterSpec filters = f.stripPrefix(Constants.GATEWAY_PROXY_PATH_PREFIX_LENGTH);
+						if(uri.getPath() != null && !uri.getPath().isEmpty()) {
+							filters = filters.prefixPath(uri.getPath());
+						}
+						if(uri.getQuery() != null) {
+							for(Entry<String, List<String>> entry : uri.getQueryParams().entrySet()) {
+								for(String value : entry.getValue()) {
+									filters = filters.addRequestParameter(entry.getKey(), value);
+								}
+							}
+						}
+						if (routeEntity.getPaths() != null && routeEntity.getPaths().length > 0) {
+							filters = filters.filter(new RoutePathValidatorFilter(routeEntity, statistics,
+									bodyValidationLookahead));
+						}
+						List<RouteFilter> specificFilters = new ArrayList<>(
+								(routeEntity.getGlobalFilters() == null ? 0 : routeEntity.getGlobalFilters().length) +
+								(routeEntity.getFilters() == null ? 0 : routeEntity.getFilters().length));
+						if (routeEntity.getGlobalFilters() != null) {
+							specificFilters.addAll(Arrays.stream(routeEntity.getGlobalFilters())
+									.map(name -> globalFilters.get(name).getFilter())
+									.toList());
+						}
+						if(routeEntity.getFilters() != null) {
+							for(RouteFilter filter : routeEntity.getFilters()) {
+								specificFilters.add(filter);
+							}
+						}
+						if(!specificFilters.isEmpty()) {
+							specificFilters.sort(stageComparator);
+							int i = 0;
+							for(RouteFilter filter : specificFilters) {
+								filters = filters.filter(filter, i++);
+							}
+						}
+						return filters;
+					})
+				.uri(uri.toUriString())
+			).build().getRoutes().next()
+					.map(route -> new CompiledRoute(routeEntity.getId(), routeEntity.getName(),
+							routeEntity.getVersion(), contentHash, route,
+							CompiledFilterChain.compile(gatewayGlobalFilters, route.getFilters()), statistics));
+		});
+	}
+
+	private static Set<String> getGlobalFilterNames(Collection<RouteEntity> routeEntities) {
+		Set<String> names = new HashSet<>();
+		for (RouteEntity routeEntity : routeEntities) {
+			if (routeEntity.getGlobalFilters() != null) {
+				names.addAll(Arrays.asList(routeEntity.getGlobalFilters()));
+			}
+		}
+		return names;
+	}
+
 	public String buildEndpoint(RouteEntity route) {
 		return UriComponentsBuilder.fromHttpUrl(publicGatewayUrl).path(
 				Constants.GATEWAY_PROXY_ENDPOINT_FORMAT.formatted(route.getName(),
@@ -0,0 +1,79 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.api;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.softwareag.research.mini_api_gatway.RouteService;
+import com.softwareag.research.mini_api_gatway.api.response.CacheStatusResponse;
+import com.softwareag.research.mini_api_gatway.api.response.CryptoStatusResponse;
+import com.softwareag.research.mini_api_gatway.api.response.RouteStatusResponse;
+import com.softwareag.research.mini_api_gatway.api.response.SideCallStatusResponse;
+import com.softwareag.research.mini_api_gatway.security.CryptoScheduler;
+import com.softwareag.research.mini_api_gatway.security.JwtIntrospector;
+import com.softwareag.research.mini_api_gatway.security.VerifiedJwtCache;
+import com.softwareag.research.mini_api_gatway.utils.SideCallClient;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reports the runtime state of the gateway instance that handles the request.
+ *
+ * @author jonsch
+ *
+ */
+@RestController
+@RequestMapping("/status")
+@Tag(name = "Gateway status", description = "Reports the runtime state of this gateway instance.")
+public class GatewayStatusAPI {
+
+	@Autowired
+	private RouteService routeService;
+
+	@Autowired
+	private VerifiedJwtCache verifiedJwtCache;
+
+	@Autowired
+	private JwtIntrospector jwtIntrospector;
+
+	@Autowired
+	private CryptoScheduler cryptoScheduler;
+
+	@Operation(description = "Reports the route generation that is currently used to dispatch requests and the request counters of each route")
+	@GetMapping("/routes")
+	public Mono<RouteStatusResponse> getRouteStatus() {
+		return Mono.just(new RouteStatusResponse(routeService.getSnapshot()));
+	}
+
+	@Operation(description = "Reports the connection pools used for side calls of route filters, one per remote host")
+	@GetMapping("/side-calls")
+	public Mono<SideCallStatusResponse> getSideCallStatus() {
+		return Mono.just(new SideCallStatusResponse(SideCallClient.getPools()));
+	}
+
+	@Operation(description = "Reports the cache of verified tokens used in signature validation mode")
+	@GetMapping("/token-cache")
+	public Mono<CacheStatusResponse> getTokenCacheStatus() {
+		return Mono.just(new CacheStatusResponse(verifiedJwtCache.getCache()));
+	}
+
+	@Operation(description = "Reports the cache of introspection results used in introspection validation mode")
+	@GetMapping("/introspection-cache")
+	public Mono<CacheStatusResponse> getIntrospectionCacheStatus() {
+		return Mono.just(new CacheStatusResponse(jwtIntrospector.getResultCache()));
+	}
+
+	@Operation(description = "Reports the thread pool that verifies token signatures, its queue depth and wait times")
+	@GetMapping("/crypto")
+	public Mono<CryptoStatusResponse> getCryptoStatus() {
+		return Mono.just(new CryptoStatusResponse(cryptoScheduler));
+	}
+
+}
@@ -4,8 +4,6 @@
  */
  package com.softwareag.research.mini_api_gatway.api;
 
-import java.util.Arrays;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -19,8 +17,8 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.softwareag.research.mini_api_gatway.RouteService;
 import com.softwareag.research.mini_api_gatway.events.EventService;
-import com.softwareag.research.mini_api_gatway.model.RouteRepository;
 import com.softwareag.research.mini_api_gatway.model.filters.GlobalFilterEntity;
 import com.softwareag.research.mini_api_gatway.model.filters.GlobalFilterRepository;
 import com.softwareag.research.mini_api_gatway.model.filters.RouteFilter;
@@ -38,7 +36,7 @@ import reactor.core.publisher.Mono;
 public class GlobalFilterAPI {
 
 	@Autowired
-	private RouteRepository routeRepository;
+	private RouteService routeService;
 
 	@Autowired
 	private EventService eventService;
@@ -84,22 +82,18 @@ public class GlobalFilterAPI {
 				.flatMap(filterEntity -> {
 					filterEntity.setFilter(filter);
 					return gFilterRepository.save(filterEntity);
-				}).doOnNext(fE -> eventService.publishRouteRefresh());
+				}).doOnNext(fE -> eventService.publishGlobalFilterRefresh(fE.getName()));
 	}
 
 	@DeleteMapping("/{name}")
 	@ResponseStatus(HttpStatus.NO_CONTENT)
 	@Operation(description = "Removes a global filter from the gateway")
 	public Mono<Void> deleteGlobalFilter(@PathVariable String name) {
-		return routeRepository.findAll().any(rE -> Arrays.stream(rE.getGlobalFilters()).anyMatch(f -> f.equals(name)))
-				.flatMap(isUsed -> {
-					if (isUsed) {
-						throw new ResponseStatusException(HttpStatus.CONFLICT,
-								"Global Filter is applied to a route and cannot be deleted.");
-					} else {
-						return gFilterRepository.deleteById(name);
-					}
-				});
+		if (routeService.isGlobalFilterInUse(name)) {
+			return Mono.error(new ResponseStatusException(HttpStatus.CONFLICT,
+					"Global Filter is applied to a route and cannot be deleted."));
+		}
+		return gFilterRepository.deleteById(name);
 	}
 
 }
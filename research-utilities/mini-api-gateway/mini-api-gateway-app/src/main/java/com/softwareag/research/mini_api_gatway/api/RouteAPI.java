@@ -103,7 +103,10 @@ public class RouteAPI {
 				throw new ResponseStatusException(HttpStatus.CONFLICT,
 						"This combination of Route name and version already exists.");
 			} else {
-				return routeRepository.save(newRoute).doOnNext(rE -> eventService.publishRouteRefresh());
+				return routeRepository.save(newRoute).doOnNext(rE -> {
+					routeService.routeSaved(rE);
+					eventService.publishRouteRefresh(rE.getId());
+				});
 			}
 		}).map(mapRouteEntityToResponse);
 	}
@@ -159,14 +162,17 @@ public class RouteAPI {
 						return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e));
 					}
 					return routeRepository.save(routeEntity);
-				}).doOnNext(rE -> eventService.publishRouteRefresh()).map(mapRouteEntityToResponse);
+				}).doOnNext(rE -> {
+					routeService.routeSaved(rE);
+					eventService.publishRouteRefresh(rE.getId());
+				}).map(mapRouteEntityToResponse);
 	}
 
 	@DeleteMapping("/{id}")
 	@ResponseStatus(HttpStatus.NO_CONTENT)
 	@Operation(description = "Removes a route from the gateway")
 	public Mono<Void> deleteRoute(@PathVariable long id) {
-		return routeRepository.deleteById(id);
+		return routeRepository.deleteById(id).doOnSuccess(v -> eventService.publishRouteRefresh(id));
 	}
 
 	private OpenAPI parseSpecification(RouteRequest request) throws ResponseStatusException {
@@ -0,0 +1,40 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.api.response;
+
+import com.softwareag.research.mini_api_gatway.utils.ExpiringCache;
+
+import lombok.Data;
+
+@Data
+public class CacheStatusResponse {
+
+	/** Cached entries, including expired ones that were not removed yet **/
+	private int size;
+
+	private int maxEntries;
+
+	/** Requests answered from the cache **/
+	private long hits;
+
+	/** Requests that loaded the value **/
+	private long misses;
+
+	/** Requests that joined a load of another request **/
+	private long coalesced;
+
+	/** Entries removed because they expired or to admit new entries **/
+	private long evictions;
+
+	public CacheStatusResponse(ExpiringCache<?, ?> cache) {
+		setSize(cache.size());
+		setMaxEntries(cache.getMaxEntries());
+		setHits(cache.getHits());
+		setMisses(cache.getMisses());
+		setCoalesced(cache.getCoalesced());
+		setEvictions(cache.getEvictions());
+	}
+
+}
@@ -0,0 +1,52 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.api.response;
+
+import com.softwareag.research.mini_api_gatway.security.CryptoScheduler;
+
+import lombok.Data;
+
+@Data
+public class CryptoStatusResponse {
+
+	private int threads;
+
+	/** Tasks waiting for a thread **/
+	private int queueDepth;
+
+	private int queueSize;
+
+	/** Tasks queued or running in the pool **/
+	private int inFlight;
+
+	/** Tasks that ran inline because the pool was idle **/
+	private long inline;
+
+	/** Tasks that were queued for the pool **/
+	private long offloaded;
+
+	/** Tasks that failed because the queue was full **/
+	private long rejected;
+
+	/** Average microseconds offloaded tasks waited for a thread **/
+	private long averageWaitMicros;
+
+	/** Longest microseconds an offloaded task waited for a thread **/
+	private long maxWaitMicros;
+
+	public CryptoStatusResponse(CryptoScheduler scheduler) {
+		setThreads(scheduler.getThreads());
+		setQueueDepth(scheduler.getQueueDepth());
+		setQueueSize(scheduler.getQueueSize());
+		setInFlight(scheduler.getInFlight());
+		setInline(scheduler.getInline());
+		setOffloaded(scheduler.getOffloaded());
+		setRejected(scheduler.getRejected());
+		long offloaded = scheduler.getOffloaded();
+		setAverageWaitMicros(offloaded == 0 ? 0 : scheduler.getTotalWaitNanos() / offloaded / 1000);
+		setMaxWaitMicros(scheduler.getMaxWaitNanos() / 1000);
+	}
+
+}
@@ -0,0 +1,81 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.api.response;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import com.softwareag.research.mini_api_gatway.routing.CompiledPathValidator;
+import com.softwareag.research.mini_api_gatway.routing.CompiledRoute;
+import com.softwareag.research.mini_api_gatway.routing.RouteSnapshot;
+
+import lombok.Data;
+
+@Data
+public class RouteStatusResponse {
+
+	private long generation;
+
+	private Instant builtAt;
+
+	private long buildDurationMillis;
+
+	private int activeRoutes;
+
+	private Set<Long> failedRoutes;
+
+	/** Number of distinct path validators shared by the routes **/
+	private int pathValidators;
+
+	private List<RouteCounters> routes;
+
+	public RouteStatusResponse(RouteSnapshot snapshot) {
+		setGeneration(snapshot.getGeneration());
+		setBuiltAt(snapshot.getBuiltAt());
+		setBuildDurationMillis(snapshot.getBuildDuration().toMillis());
+		setActiveRoutes(snapshot.getRoutes().size());
+		setFailedRoutes(snapshot.getFailedRouteIds());
+		setPathValidators(CompiledPathValidator.getInternedCount());
+		setRoutes(snapshot.getRoutes().values().stream()
+				.sorted(Comparator.comparingLong(CompiledRoute::getId))
+				.map(RouteCounters::new)
+				.toList());
+	}
+
+	@Data
+	public static class RouteCounters {
+
+		private long id;
+
+		private String name;
+
+		private String version;
+
+		/** Requests rejected because the path is not in the specification **/
+		private long rejectedNotFound;
+
+		/** Requests rejected because the method is not allowed for the path **/
+		private long rejectedMethodNotAllowed;
+
+		/** Requests rejected because a parameter does not match the specification **/
+		private long rejectedInvalidParameters;
+
+		/** Requests rejected because the body does not match the specification **/
+		private long rejectedInvalidBody;
+
+		public RouteCounters(CompiledRoute route) {
+			setId(route.getId());
+			setName(route.getName());
+			setVersion(route.getVersion());
+			setRejectedNotFound(route.getStatistics().getRejectedNotFound());
+			setRejectedMethodNotAllowed(route.getStatistics().getRejectedMethodNotAllowed());
+			setRejectedInvalidParameters(route.getStatistics().getRejectedInvalidParameters());
+			setRejectedInvalidBody(route.getStatistics().getRejectedInvalidBody());
+		}
+	}
+
+}
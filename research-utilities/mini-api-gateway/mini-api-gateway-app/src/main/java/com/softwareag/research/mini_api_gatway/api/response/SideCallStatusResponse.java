@@ -0,0 +1,57 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.api.response;
+
+import java.net.SocketAddress;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import lombok.Data;
+import reactor.netty.resources.ConnectionPoolMetrics;
+
+@Data
+public class SideCallStatusResponse {
+
+	private List<PoolStatus> pools;
+
+	public SideCallStatusResponse(Map<SocketAddress, ConnectionPoolMetrics> pools) {
+		setPools(pools.entrySet().stream()
+				.map(PoolStatus::new)
+				.sorted(Comparator.comparing(PoolStatus::getRemoteAddress))
+				.toList());
+	}
+
+	@Data
+	public static class PoolStatus {
+
+		private String remoteAddress;
+
+		/** Connections currently used by side calls **/
+		private int acquired;
+
+		/** Open connections that are not used **/
+		private int idle;
+
+		/** Side calls waiting for a connection **/
+		private int pendingAcquire;
+
+		private int maxConnections;
+
+		private int maxPendingAcquire;
+
+		public PoolStatus(Entry<SocketAddress, ConnectionPoolMetrics> pool) {
+			ConnectionPoolMetrics metrics = pool.getValue();
+			setRemoteAddress(pool.getKey().toString());
+			setAcquired(metrics.acquiredSize());
+			setIdle(metrics.idleSize());
+			setPendingAcquire(metrics.pendingAcquireSize());
+			setMaxConnections(metrics.maxAllocatedSize());
+			setMaxPendingAcquire(metrics.maxPendingAcquireSize());
+		}
+	}
+
+}
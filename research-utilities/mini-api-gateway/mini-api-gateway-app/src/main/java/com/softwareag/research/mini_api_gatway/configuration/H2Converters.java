@@ -22,6 +22,7 @@ import com.softwareag.research.mini_api_gatway.model.RoutePath;
 import com.softwareag.research.mini_api_gatway.model.RouteSettings;
 import com.softwareag.research.mini_api_gatway.model.filters.ExternalCallFilter;
 import com.softwareag.research.mini_api_gatway.model.filters.OAuth2ClientCredentialsFilter;
+import com.softwareag.research.mini_api_gatway.model.filters.ParallelExternalCallFilter;
 import com.softwareag.research.mini_api_gatway.model.filters.RouteFilter;
 import com.softwareag.research.mini_api_gatway.model.filters.SetHeadersFilter;
 
@@ -59,6 +60,7 @@ public class H2Converters {
 			return Set.of(
 					new ConvertiblePair(RouteFilter.class, String.class),
 					new ConvertiblePair(ExternalCallFilter.class, String.class),
+					new ConvertiblePair(ParallelExternalCallFilter.class, String.class),
 					new ConvertiblePair(SetHeadersFilter.class, String.class),
 					new ConvertiblePair(OAuth2ClientCredentialsFilter.class, String.class),
 					new ConvertiblePair(RouteFilter[].class, String.class),
@@ -22,6 +22,7 @@ import com.softwareag.research.mini_api_gatway.model.RoutePath;
 import com.softwareag.research.mini_api_gatway.model.RouteSettings;
 import com.softwareag.research.mini_api_gatway.model.filters.ExternalCallFilter;
 import com.softwareag.research.mini_api_gatway.model.filters.OAuth2ClientCredentialsFilter;
+import com.softwareag.research.mini_api_gatway.model.filters.ParallelExternalCallFilter;
 import com.softwareag.research.mini_api_gatway.model.filters.RouteFilter;
 import com.softwareag.research.mini_api_gatway.model.filters.SetHeadersFilter;
 
@@ -78,6 +79,7 @@ public class PostgresConverters {
 			return Set.of(
 					new ConvertiblePair(RouteFilter.class, Json.class),
 					new ConvertiblePair(ExternalCallFilter.class, Json.class),
+					new ConvertiblePair(ParallelExternalCallFilter.class, Json.class),
 					new ConvertiblePair(SetHeadersFilter.class, Json.class),
 					new ConvertiblePair(OAuth2ClientCredentialsFilter.class, Json.class),
 					new ConvertiblePair(RouteFilter[].class, Json.class),
@@ -85,6 +87,7 @@ public class PostgresConverters {
 					new ConvertiblePair(Json.class, RouteFilter[].class),
 					new ConvertiblePair(String.class, RouteFilter.class),
 					new ConvertiblePair(String.class, ExternalCallFilter.class),
+					new ConvertiblePair(String.class, ParallelExternalCallFilter.class),
 					new ConvertiblePair(Json.class, String[].class),
 					new ConvertiblePair(String[].class, Json.class),
 					new ConvertiblePair(RoutePath[].class, Json.class),
@@ -4,19 +4,41 @@
  */
  package com.softwareag.research.mini_api_gatway.events;
 
+import java.util.List;
+
 import org.springframework.cloud.bus.event.Destination;
 import org.springframework.cloud.bus.event.RemoteApplicationEvent;
 
+import lombok.Getter;
+import lombok.Setter;
+
 public class DistributedRoutesChangedEvent extends RemoteApplicationEvent {
 
 	private static final long serialVersionUID = -4713670930853221789L;
 
+	/** IDs of the changed routes. Null if all routes should be reloaded **/
+	@Getter
+	@Setter
+	private List<Long> routeIds;
+
+	/** Names of the changed global filters. Null if no global filter changed **/
+	@Getter
+	@Setter
+	private List<String> globalFilterNames;
+
 	public DistributedRoutesChangedEvent() {
 		super();
 	}
 
 	public DistributedRoutesChangedEvent(Object source, String originService, Destination destinationService) {
+		this(source, originService, destinationService, null, null);
+	}
+
+	public DistributedRoutesChangedEvent(Object source, String originService, Destination destinationService,
+			List<Long> routeIds, List<String> globalFilterNames) {
 		super(source, originService, destinationService);
+		this.routeIds = routeIds;
+		this.globalFilterNames = globalFilterNames;
 	}
 
 }
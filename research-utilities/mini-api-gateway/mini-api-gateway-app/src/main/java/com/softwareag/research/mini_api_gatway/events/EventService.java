@@ -4,11 +4,12 @@
  */
  package com.softwareag.research.mini_api_gatway.events;
 
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.bus.event.Destination;
 import org.springframework.cloud.bus.jackson.RemoteApplicationEventScan;
-import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.event.EventListener;
@@ -32,14 +33,41 @@ public class EventService {
 	public void handleRouteChangedEvent(DistributedRoutesChangedEvent event) {
 		if (!event.getOriginService().equals(cloudInstanceId)) {
 			log.info("Received RoutesChanged Event from other instance");
-			applicationEventPublisher.publishEvent(new RefreshRoutesEvent(this));
+			applicationEventPublisher.publishEvent(new RoutesChangedEvent(this, event.getRouteIds(),
+					event.getGlobalFilterNames()));
 		}
 	}
 
+	/**
+	 * Reloads all routes on all instances
+	 */
 	public void publishRouteRefresh() {
-		applicationEventPublisher.publishEvent(new RefreshRoutesEvent(this));
-		applicationEventPublisher
-				.publishEvent(new DistributedRoutesChangedEvent(this, cloudInstanceId, clusterDestination));
+		publishRouteRefresh(null, null);
+	}
+
+	/**
+	 * Recompiles a single changed (created, updated or deleted) route on all
+	 * instances
+	 *
+	 * @param routeId
+	 */
+	public void publishRouteRefresh(long routeId) {
+		publishRouteRefresh(List.of(routeId), null);
+	}
+
+	/**
+	 * Recompiles the routes that apply a changed global filter on all instances
+	 *
+	 * @param globalFilterName
+	 */
+	public void publishGlobalFilterRefresh(String globalFilterName) {
+		publishRouteRefresh(null, List.of(globalFilterName));
+	}
+
+	private void publishRouteRefresh(List<Long> routeIds, List<String> globalFilterNames) {
+		applicationEventPublisher.publishEvent(new RoutesChangedEvent(this, routeIds, globalFilterNames));
+		applicationEventPublisher.publishEvent(new DistributedRoutesChangedEvent(this, cloudInstanceId,
+				clusterDestination, routeIds, globalFilterNames));
 	}
 
 	public void publishIssuerRefresh() {
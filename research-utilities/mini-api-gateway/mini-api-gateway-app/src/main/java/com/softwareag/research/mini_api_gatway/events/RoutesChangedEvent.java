@@ -0,0 +1,60 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.events;
+
+import java.util.Collection;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Local event signaling that routes of this instance have to be recompiled.
+ * Carries the IDs of the changed routes and/or the names of changed global
+ * filters, whose dependent routes are resolved by the receiving instance. If
+ * neither is given, all routes should be reloaded.
+ *
+ * @author jonsch
+ *
+ */
+public class RoutesChangedEvent extends ApplicationEvent {
+
+	private static final long serialVersionUID = 5310951335532370264L;
+
+	private final Collection<Long> routeIds;
+
+	private final Collection<String> globalFilterNames;
+
+	public RoutesChangedEvent(Object source) {
+		this(source, null, null);
+	}
+
+	public RoutesChangedEvent(Object source, Collection<Long> routeIds) {
+		this(source, routeIds, null);
+	}
+
+	public RoutesChangedEvent(Object source, Collection<Long> routeIds, Collection<String> globalFilterNames) {
+		super(source);
+		this.routeIds = routeIds;
+		this.globalFilterNames = globalFilterNames;
+	}
+
+	/**
+	 * @return IDs of the changed routes, may be null
+	 */
+	public Collection<Long> getRouteIds() {
+		return routeIds;
+	}
+
+	/**
+	 * @return names of the changed global filters, may be null
+	 */
+	public Collection<String> getGlobalFilterNames() {
+		return globalFilterNames;
+	}
+
+	public boolean isFullRefresh() {
+		return routeIds == null && globalFilterNames == null;
+	}
+
+}
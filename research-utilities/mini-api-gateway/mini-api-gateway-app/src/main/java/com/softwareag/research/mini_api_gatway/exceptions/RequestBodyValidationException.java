@@ -0,0 +1,33 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exception that results in HTTP Status 400 when thrown because the request
+ * body is malformed or does not match the schema of the API specification.
+ *
+ * @author jonsch
+ *
+ */
+public class RequestBodyValidationException extends ResponseStatusException {
+
+	private static final long serialVersionUID = -2071564326781032174L;
+
+	public RequestBodyValidationException(String message) {
+		super(HttpStatus.BAD_REQUEST, message);
+	}
+
+	/**
+	 * Thrown for every invalid request, the stack trace would only cost time
+	 */
+	@Override
+	public synchronized Throwable fillInStackTrace() {
+		return this;
+	}
+
+}
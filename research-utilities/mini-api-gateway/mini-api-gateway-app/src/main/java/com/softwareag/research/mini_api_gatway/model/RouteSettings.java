@@ -15,5 +15,9 @@ public class RouteSettings {
 
 	private boolean alwaysAllowHEAD = true;
 	private boolean alwaysAllowOPTIONS = true;
+	/** Validate path, query and header parameters against the specification **/
+	private boolean validateParameters = false;
+	/** Validate JSON request bodies against the specification **/
+	private boolean validateRequestBody = false;
 
 }
@@ -4,35 +4,33 @@
  */
  package com.softwareag.research.mini_api_gatway.model.filters;
 
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 
-import org.checkerframework.checker.nullness.qual.Nullable;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
-import org.springframework.http.HttpMethod;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.server.ServerWebExchange;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
 import com.softwareag.research.mini_api_gatway.utils.VariableExpressionResolver;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import reactor.core.publisher.Mono;
 
 /**
  * The ExternalCallFilter is a {@link RouteFilter} that allows calling an
  * HTTP(S) service <b>before</b> the main request is made. Information from the
  * response's headers or payload can be mapped to headers or query parameters of
- * the main request as well as custom variables.
+ * the main request as well as custom variables. Optionally, responses are
+ * cached for identical calls and concurrent identical calls share one request.
  *
  * @author jonsch
  *
@@ -49,20 +47,12 @@ public class ExternalCallFilter implements RouteFilter {
 
 	private final RouteFilterType type = RouteFilterType.EXTERNAL_CALL;
 	private final RouteFilterStage stage = RouteFilterStage.PRE_REQUEST;
-	private static final String HEADERS_EXPR = "request.headers.";
+	static final String RESPONSE_VARIABLE = "externalCallResponse";
 
-	/** HTTP(S) URL to be requested **/
+	/** The call, its properties are part of the filter's properties **/
 	@NonNull
-	private String uri;
-	/** HTTP Method for the request, e.g. GET, POST **/
-	@NonNull
-	private String method;
-	/** Request payload **/
-	@Nullable
-	private String body;
-	/** Request HTTP headers **/
-	@JsonDeserialize(as = LinkedMultiValueMap.class)
-	private MultiValueMap<String, String> headers;
+	@JsonUnwrapped
+	private SideCall call;
 	/**
 	 * Mapping from response expression to variable expression. Key: variable
 	 * expression (target), Value: response extraction expression (source)
@@ -71,52 +61,38 @@ public class ExternalCallFilter implements RouteFilter {
 
 	@JsonIgnore
 	private VariableExpressionResolver expressionResolver = new VariableExpressionResolver();
+
+	/** Response mappings compiled on first use **/
 	@JsonIgnore
-	private WebClient client = WebClient.create();
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private ResponseMappings compiledMappings;
+
+	public void setResponseMappings(Map<String, String> responseMappings) {
+		this.responseMappings = responseMappings;
+		this.compiledMappings = null;
+	}
 
 	@Override
 	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-		return client
-			.method(HttpMethod.valueOf(method))
-			.uri(uri, exchange.getAttributes())
-			.headers((headers) -> headers.addAll(this.headers))
-			.bodyValue(body)
-			.exchangeToMono(response -> {
-				if(response.statusCode().is2xxSuccessful()) {
-						return response.bodyToMono(String.class)
-								.flatMap(body -> chain.filter(exchange.mutate().request(request -> {
-									// Put response body and headers in variable externalCallResponse
-									exchange.getAttributes().put("externalCallResponse",
-											new CustomExtensionResponseContainer(body,
-													response.headers().asHttpHeaders().toSingleValueMap()));
-
-									for (Entry<String, String> responseMapping : responseMappings.entrySet()) {
-										String value = expressionResolver.format(responseMapping.getValue(),
-												exchange.getAttributes());
-										String targetExpression = responseMapping.getKey();
-										if (targetExpression.startsWith(HEADERS_EXPR)) {
-											targetExpression = targetExpression.replace(HEADERS_EXPR, "");
-											request.header(targetExpression, value);
-										} else {
-											exchange.getAttributes().put(targetExpression, value);
-										}
-									}
-								}).build())); // Forward mutated request to next filter in chain
-				}else {
-					return response.createError();
-				}
-			});
+		ResponseMappings mappings = compiledMappings();
+		return call.execute(exchange, mappings.getPayloadExtractor(RESPONSE_VARIABLE)).flatMap(response -> {
+			// Put response body and headers in variable externalCallResponse
+			exchange.getAttributes().put(RESPONSE_VARIABLE, response);
+			// Forward mutated request to next filter in chain
+			return chain.filter(exchange.mutate()
+					.request(request -> mappings.apply(exchange, request))
+					.build());
+		});
 	}
 
-	@SuppressWarnings("unused")
-	private static class CustomExtensionResponseContainer {
-		public String payload;
-		public Map<String, String> headers;
-
-		public CustomExtensionResponseContainer(String payload, Map<String, String> headers) {
-			this.payload = payload;
-			this.headers = headers;
+	private ResponseMappings compiledMappings() {
+		ResponseMappings mappings = compiledMappings;
+		if (mappings == null) {
+			compiledMappings = mappings = ResponseMappings.compile(responseMappings, expressionResolver,
+					List.of(RESPONSE_VARIABLE));
 		}
+		return mappings;
 	}
 
 }
@@ -5,125 +5,64 @@
  package com.softwareag.research.mini_api_gatway.model.filters;
 
 
-import java.util.Collection;
-import java.util.Collections;
+import java.util.List;
 
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.oauth2.client.OAuth2AuthorizationContext;
-import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
-import org.springframework.security.oauth2.client.ReactiveOAuth2AuthorizedClientProvider;
-import org.springframework.security.oauth2.client.ReactiveOAuth2AuthorizedClientProviderBuilder;
-import org.springframework.security.oauth2.client.registration.ClientRegistration;
-import org.springframework.security.oauth2.client.registration.ClientRegistrations;
-import org.springframework.security.oauth2.core.AuthorizationGrantType;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.server.ServerWebExchange;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.softwareag.research.mini_api_gatway.security.ClientCredentialsTokenManager;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AccessLevel;
 import lombok.Data;
-import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
 
-//TODO: Finish and test
+/**
+ * {@link RouteFilter} that authorizes route requests with an access token of
+ * grant type client_credentials. Tokens are shared with all filters of the same
+ * issuer, client and scopes and refreshed before they expire, see
+ * {@link ClientCredentialsTokenManager}.
+ *
+ * @author jonsch
+ *
+ */
 @Schema(description = "Authorize outgoing route request with an OAuth 2 token of grant type \"client_credentials\"."
 		+ " The token will be acquired prior to the outgoing request using the supplied credentials and set as the"
 		+ " Authorization header of the outgoing request using Bearer scheme.")
 @Data
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Slf4j
 public class OAuth2ClientCredentialsFilter implements RouteFilter {
 
 	private final RouteFilterType type = RouteFilterType.OAUTH2_CLIENT;
 	private final RouteFilterStage stage = RouteFilterStage.PRE_REQUEST;
 
+	/** OAuth 2 Client ID **/
 	private String clientId;
-
+	/** OAuth 2 Client Secret **/
 	private String clientSecret;
-
+	/** OpenID Connect issuer whose token endpoint issues the tokens **/
 	private String issuerUrl;
-
-	@JsonIgnore
-	@Getter(value = AccessLevel.NONE)
-	private OAuth2AuthorizationContext context;
-	@JsonIgnore
-	@Getter(value = AccessLevel.NONE)
-	private OAuth2AuthorizedClient client;
-
-	@JsonIgnore
-	@Getter(value = AccessLevel.NONE)
-	private final ReactiveOAuth2AuthorizedClientProvider clientProvider = ReactiveOAuth2AuthorizedClientProviderBuilder
-			.builder().clientCredentials().build();
-
-	private void initialize() {
-		try {
-			ClientRegistration clientRegistration = ClientRegistrations.fromIssuerLocation(issuerUrl).clientId(clientId)
-					.clientSecret(clientSecret).authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
-					.build();
-			context = OAuth2AuthorizationContext.withClientRegistration(clientRegistration)
-					.principal(new NoopAuthentication()).build();
-		} catch (RuntimeException ex) {
-			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
-					"Authorization with downstream server failed.");
-		}
-	}
+	/** Requested scopes, optional **/
+	private List<String> scopes;
 
 	@Override
 	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-		if (context == null) {
-			initialize();
-		}
-		return clientProvider.authorize(context).switchIfEmpty(Mono.justOrEmpty(client)).flatMap(authorizedClient -> {
-			this.client = authorizedClient;
-			return chain.filter(exchange.mutate().request(request -> {
-				request.header("Authorization", "Bearer " + authorizedClient.getAccessToken().getTokenValue());
-			}).build());
-		});
+		return ClientCredentialsTokenManager.get()
+				.getToken(issuerUrl, clientId, clientSecret, scopes)
+				.onErrorMap(error -> {
+					log.warn("Acquiring token for client {} at {} failed: {}", clientId, issuerUrl, error.getMessage());
+					return new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+							"Authorization with downstream server failed.");
+				})
+				.flatMap(token -> chain.filter(exchange.mutate().request(request -> {
+					request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+				}).build()));
 	}
 
-	private static class NoopAuthentication implements Authentication {
-
-		private static final long serialVersionUID = 9035345460428428266L;
-
-		@Override
-		public String getName() {
-			return "Noop";
-		}
-
-		@Override
-		public Collection<? extends GrantedAuthority> getAuthorities() {
-			return Collections.emptyList();
-		}
-
-		@Override
-		public Object getCredentials() {
-			return null;
-		}
-
-		@Override
-		public Object getDetails() {
-			return null;
-		}
-
-		@Override
-		public Object getPrincipal() {
-			return null;
-		}
-
-		@Override
-		public boolean isAuthenticated() {
-			return false;
-		}
-
-		@Override
-		public void setAuthenticated(boolean isAuthenticated) throws IllegalArgumentException {
-			// Noop
-		}
-
-	}
 }
@@ -0,0 +1,129 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.model.filters;
+
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.regex.Pattern;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.softwareag.research.mini_api_gatway.utils.VariableExpressionResolver;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.Setter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The ParallelExternalCallFilter is a {@link RouteFilter} that calls several
+ * HTTP(S) services concurrently <b>before</b> the main request is made, so the
+ * latency is the one of the slowest call instead of the sum of all calls. The
+ * response of each call is available under the name of the call, e.g.
+ * <code>${user.payload.id}</code>, and can be mapped like the response of an
+ * {@link ExternalCallFilter}. If any call fails, the request fails. Call names
+ * must be simple variable names (letters, digits, '_' and '-'), so a response
+ * can not overwrite an attribute of the gateway, whose names are qualified, or
+ * the response of an {@link ExternalCallFilter}.
+ *
+ * @author jonsch
+ *
+ */
+@Schema(description = "Allows calling several"
+		+ " HTTP(S) services concurrently <b>before</b> the main request is made. The response of each call"
+		+ " is available as variable with the name of the call and can be mapped to headers or query"
+		+ " parameters of the main request as well as custom variables. Call names may contain letters,"
+		+ " digits, '_' and '-' only.")
+@Data
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ParallelExternalCallFilter implements RouteFilter {
+
+	private final RouteFilterType type = RouteFilterType.PARALLEL_EXTERNAL_CALL;
+	private final RouteFilterStage stage = RouteFilterStage.PRE_REQUEST;
+	private static final Pattern CALL_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_-]*");
+
+	/** Calls by variable name of their response **/
+	@NonNull
+	private Map<String, SideCall> calls;
+	/**
+	 * Mapping from response expression to variable expression. Key: variable
+	 * expression (target), Value: response extraction expression (source)
+	 **/
+	private Map<String, String> responseMappings;
+
+	@JsonIgnore
+	private VariableExpressionResolver expressionResolver = new VariableExpressionResolver();
+
+	/** Compiled on first use, so templates are parsed once per filter **/
+	@JsonIgnore
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private ResponseMappings compiledMappings;
+
+	public ParallelExternalCallFilter(@NonNull Map<String, SideCall> calls) {
+		setCalls(calls);
+	}
+
+	/**
+	 *
+	 * Runs at setup (low time-critical)
+	 *
+	 * @param calls calls by variable name of their response
+	 * @throws IllegalArgumentException if a name is not a simple variable name or
+	 *                                  clashes with the response of an
+	 *                                  {@link ExternalCallFilter}
+	 */
+	public void setCalls(@NonNull Map<String, SideCall> calls) {
+		for (String name : calls.keySet()) {
+			if (!CALL_NAME.matcher(name).matches() || name.equals(ExternalCallFilter.RESPONSE_VARIABLE)) {
+				throw new IllegalArgumentException("Invalid call name '" + name
+						+ "', names may contain letters, digits, '_' and '-' only and must not be "
+						+ ExternalCallFilter.RESPONSE_VARIABLE);
+			}
+		}
+		this.calls = calls;
+		this.compiledMappings = null;
+	}
+
+	public void setResponseMappings(Map<String, String> responseMappings) {
+		this.responseMappings = responseMappings;
+		this.compiledMappings = null;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		ResponseMappings mappings = compiledMappings();
+		return Flux.fromIterable(calls.entrySet())
+				// Subscribe to all calls at once
+				.flatMap(call -> call.getValue().execute(exchange, mappings.getPayloadExtractor(call.getKey()))
+						.map(response -> Map.entry(call.getKey(), response)), Math.max(1, calls.size()))
+				.collectList()
+				.flatMap(responses -> {
+					for (Entry<String, SideCallResponse> response : responses) {
+						exchange.getAttributes().put(response.getKey(), response.getValue());
+					}
+					return chain.filter(exchange.mutate()
+							.request(request -> mappings.apply(exchange, request))
+							.build());
+				});
+	}
+
+	private ResponseMappings compiledMappings() {
+		ResponseMappings mappings = compiledMappings;
+		if (mappings == null) {
+			compiledMappings = mappings = ResponseMappings.compile(responseMappings, expressionResolver,
+					calls.keySet());
+		}
+		return mappings;
+	}
+
+}
@@ -0,0 +1,136 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.model.filters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.softwareag.research.mini_api_gatway.utils.JsonPointerExtractor;
+import com.softwareag.research.mini_api_gatway.utils.VariableExpressionResolver;
+
+/**
+ * Response mappings of a filter, compiled once. Each mapping resolves a
+ * template with the attributes of the exchange and sets the result as request
+ * header (target <code>request.headers.*</code>) or exchange attribute. The
+ * payload values used of each side call response are extracted while the
+ * response is streamed, so responses are available to the mappings of their
+ * own filter only.
+ *
+ * @author jonsch
+ *
+ */
+final class ResponseMappings {
+
+	private static final String HEADERS_EXPR = "request.headers.";
+	private static final String PAYLOAD = "payload";
+
+	/** Header or attribute name by mapping **/
+	private final String[] targets;
+
+	private final boolean[] headers;
+
+	private final VariableExpressionResolver.Template[] sources;
+
+	/** Extractor of the used payload values by response variable, null for whole payloads **/
+	private final Map<String, JsonPointerExtractor> payloadExtractors = new HashMap<>();
+
+	private ResponseMappings(String[] targets, boolean[] headers, VariableExpressionResolver.Template[] sources,
+			Collection<String> responseVariables) {
+		this.targets = targets;
+		this.headers = headers;
+		this.sources = sources;
+		for (String responseVariable : responseVariables) {
+			payloadExtractors.put(responseVariable, createPayloadExtractor(responseVariable));
+		}
+	}
+
+	private JsonPointerExtractor createPayloadExtractor(String responseVariable) {
+		List<String[]> paths = new ArrayList<>();
+		for (VariableExpressionResolver.Template source : sources) {
+			for (String[] path : source.getPaths(responseVariable)) {
+				if (path.length > 0 && path[0].equals(PAYLOAD)) {
+					if (path.length == 1) {
+						// Whole payload used
+						return null;
+					}
+					paths.add(Arrays.copyOfRange(path, 1, path.length));
+				}
+			}
+		}
+		return new JsonPointerExtractor(paths);
+	}
+
+	/**
+	 *
+	 * Runs at setup (low time-critical)
+	 *
+	 * @param responseMappings   key: variable expression (target), value:
+	 *                           response extraction expression (source), may be
+	 *                           null
+	 * @param expressionResolver resolver of the extraction expressions
+	 * @param responseVariables  names of the side call responses
+	 * @return the compiled mappings
+	 */
+	static ResponseMappings compile(Map<String, String> responseMappings,
+			VariableExpressionResolver expressionResolver, Collection<String> responseVariables) {
+		if (responseMappings == null) {
+			responseMappings = Map.of();
+		}
+		int size = responseMappings.size();
+		String[] targets = new String[size];
+		boolean[] headers = new boolean[size];
+		VariableExpressionResolver.Template[] sources = new VariableExpressionResolver.Template[size];
+		int i = 0;
+		for (Entry<String, String> responseMapping : responseMappings.entrySet()) {
+			String targetExpression = responseMapping.getKey();
+			headers[i] = targetExpression.startsWith(HEADERS_EXPR);
+			targets[i] = headers[i] ? targetExpression.replace(HEADERS_EXPR, "") : targetExpression;
+			sources[i] = expressionResolver.compile(responseMapping.getValue());
+			i++;
+		}
+		return new ResponseMappings(targets, headers, sources, responseVariables);
+	}
+
+	/**
+	 * Runs on request (high time-critical)
+	 *
+	 * @param responseVariable name of a side call response
+	 * @return extractor of the payload values used by the mappings, null if the
+	 *         whole payload is used
+	 */
+	JsonPointerExtractor getPayloadExtractor(String responseVariable) {
+		return payloadExtractors.get(responseVariable);
+	}
+
+	/**
+	 * Resolves the mappings in order, so later mappings can refer to attributes
+	 * set by earlier ones.
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param exchange the exchange, e.g. with the responses of side calls
+	 * @param request  builder of the mutated request
+	 */
+	void apply(ServerWebExchange exchange, ServerHttpRequest.Builder request) {
+		Map<String, Object> attributes = exchange.getAttributes();
+		for (int i = 0; i < targets.length; i++) {
+			String value = sources[i].format(attributes);
+			if (headers[i]) {
+				request.header(targets[i], value);
+			} else {
+				attributes.put(targets[i], value);
+			}
+		}
+	}
+
+}
@@ -25,6 +25,7 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
 )
 @JsonSubTypes({
     @Type(value = ExternalCallFilter.class, name = "EXTERNAL_CALL"),
+    @Type(value = ParallelExternalCallFilter.class, name = "PARALLEL_EXTERNAL_CALL"),
 	@Type(value = SetHeadersFilter.class, name = "SET_HEADERS"),
 	@Type(value = OAuth2ClientCredentialsFilter.class, name = "OAUTH2_CLIENT"),
     @Type(value = RemoveRequestHeadersFilter.class, name = "REMOVE_REQUEST_HEADERS")
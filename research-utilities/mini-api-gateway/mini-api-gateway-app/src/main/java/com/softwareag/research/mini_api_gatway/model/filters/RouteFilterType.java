@@ -9,5 +9,5 @@ import com.fasterxml.jackson.annotation.JsonFormat.Shape;
 
 @JsonFormat(shape = Shape.STRING)
 public enum RouteFilterType {
-	EXTERNAL_CALL, SET_HEADERS, OAUTH2_CLIENT, REMOVE_REQUEST_HEADERS
+	EXTERNAL_CALL, PARALLEL_EXTERNAL_CALL, SET_HEADERS, OAUTH2_CLIENT, REMOVE_REQUEST_HEADERS
 }
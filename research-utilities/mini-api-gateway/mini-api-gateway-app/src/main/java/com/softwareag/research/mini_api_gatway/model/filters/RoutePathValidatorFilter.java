@@ -6,42 +6,63 @@
 
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.web.server.ResponseStatusException;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.server.ServerWebExchange;
 
+import com.softwareag.research.mini_api_gatway.exceptions.RequestBodyValidationException;
 import com.softwareag.research.mini_api_gatway.model.RouteEntity;
-
-import io.swagger.v3.oas.models.PathItem.HttpMethod;
-import lombok.extern.log4j.Log4j2;
+import com.softwareag.research.mini_api_gatway.routing.CompiledPathTree;
+import com.softwareag.research.mini_api_gatway.routing.CompiledPathValidator;
+import com.softwareag.research.mini_api_gatway.routing.JsonBodyValidator;
+import com.softwareag.research.mini_api_gatway.routing.RequestBodyValidator;
+import com.softwareag.research.mini_api_gatway.routing.RequestParameterValidator;
+import com.softwareag.research.mini_api_gatway.routing.RouteStatistics;
+
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-@Log4j2
+/**
+ * Rejects requests to paths and methods that are not (active) in the API
+ * specification of a route and, if enabled, requests with invalid path, query
+ * or header parameters and JSON bodies. Rejections are written directly to the
+ * response (404 for unknown paths, 405 with Allow header for unknown methods,
+ * 400 for invalid parameters or bodies) and counted in the
+ * {@link RouteStatistics} of the route.
+ *
+ * Request bodies are validated while they are streamed. The first buffers, up
+ * to the body lookahead, are validated before the request is passed on, so
+ * invalid bodies of that size never reach the upstream. Larger bodies are
+ * passed on after the lookahead and the upstream request is aborted if the
+ * rest of the body turns out to be invalid.
+ *
+ * @author jonsch
+ *
+ */
 public class RoutePathValidatorFilter implements GatewayFilter {
 
-	// Bit-Flags for allowed HTTP methods
-	private static final int METHOD_DELETE = 1;
-	private static final int METHOD_GET = 2;
-	private static final int METHOD_HEAD = 4;
-	private static final int METHOD_OPTIONS = 8;
-	private static final int METHOD_PATCH = 16;
-	private static final int METHOD_POST = 32;
-	private static final int METHOD_PUT = 64;
-	private static final int METHOD_TRACE = 128;
-
-	// Special Strings for path tree maps
-	private static final String ROOT_PLACEHOLDER = "<root>";
-	private static final String WILDCARD_PLACEHOLDER = "<*>";
-
-	private Map<String, Object> pathMap = new HashMap<>();
+	/** Shared with other routes of the same specification **/
+	private final CompiledPathValidator validator;
+	private final CompiledPathTree pathTree;
+	/** Null if parameters are not validated **/
+	private final RequestParameterValidator parameterValidator;
+	/** Null if request bodies are not validated **/
+	private final RequestBodyValidator bodyValidator;
+	private final int bodyLookahead;
+	private final RouteStatistics statistics;
 	private final int basePathLength;
 	private final boolean allowHEAD;
 	private final boolean allowOPTIONS;
@@ -51,8 +72,12 @@ public class RoutePathValidatorFilter implements GatewayFilter {
 	 * Runs at setup (low time-critical)
 	 *
 	 * @param route
+	 * @param statistics    counters for rejected requests
+	 * @param bodyLookahead bytes of the request body that are validated before
+	 *                      the request is passed on, also the maximum length of
+	 *                      a single token of the body
 	 */
-	public RoutePathValidatorFilter(RouteEntity route) {
+	public RoutePathValidatorFilter(RouteEntity route, RouteStatistics statistics, int bodyLookahead) {
 
 		if (route.getPaths() == null) {
 			throw new IllegalArgumentException("Route must have paths defined to be validated");
@@ -64,252 +89,150 @@ public class RoutePathValidatorFilter implements GatewayFilter {
 			throw new IllegalArgumentException(e);
 		}
 
-		allowHEAD = route.getSettings().isAlwaysAllowHEAD();
-		allowOPTIONS = route.getSettings().isAlwaysAllowOPTIONS();
-
-		for (var path : route.getPaths()) {
-			if (path.isActive()) {
-				String[] pathSegments = path.getPath().split("/");
-				insertPath(pathSegments, 0, pathMap, path.getMethod());
-
-			}
-		}
+		validator = CompiledPathValidator.intern(route.getPaths(), route.getSettings(), route.getSpecification());
+		pathTree = validator.getPathTree();
+		parameterValidator = validator.getParameterValidator();
+		bodyValidator = validator.getBodyValidator();
+		this.bodyLookahead = bodyLookahead;
+		allowHEAD = validator.isAllowHEAD();
+		allowOPTIONS = validator.isAllowOPTIONS();
+		this.statistics = statistics;
 	}
 
 	/**
 	 *
-	 * Runs at setup (low time-critical)
-	 *
-	 * @param pathSegments
-	 * @param index
-	 * @param map
-	 * @param method
+	 * Runs on request (high time-critical)
 	 */
-	@SuppressWarnings("unchecked")
-	private void insertPath(String[] pathSegments, int index, Map<String, Object> map, HttpMethod method) {
-		if (index == pathSegments.length) {
-			int flags = (int) map.getOrDefault(ROOT_PLACEHOLDER, 0);
-			map.put(ROOT_PLACEHOLDER, flags | mapMethod(method));
-//		} else if(index == pathSegments.length-1) {
-//			int flags = (int) map.getOrDefault(pathSegments[index], 0);
-//			map.put(pathSegments[index], addMethod(flags, method));
-		} else {
-			if (index == 0 && pathSegments[index].length() == 0) {
-				insertPath(pathSegments, index + 1, map, method);
-			} else {
-				Map<String, Object> nMap;
-				if (pathSegments[index].charAt(0) == '{') {
-					nMap = (Map<String, Object>) map.getOrDefault(WILDCARD_PLACEHOLDER, new HashMap<String, Object>());
-					map.put(WILDCARD_PLACEHOLDER, nMap);
-				} else {
-					nMap = (Map<String, Object>) map.getOrDefault(pathSegments[index], new HashMap<String, Object>());
-					map.put(pathSegments[index], nMap);
-				}
-				insertPath(pathSegments, index + 1, nMap, method);
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		HttpMethod method = exchange.getRequest().getMethod();
+		if ((method == HttpMethod.HEAD && allowHEAD) || (method == HttpMethod.OPTIONS && allowOPTIONS)) {
+			return chain.filter(exchange);
+		}
+		int node = pathTree.find(exchange.getRequest().getPath().value(), basePathLength);
+		if (node == -1) {
+			statistics.recordNotFound();
+			return reject(exchange, HttpStatus.NOT_FOUND, null);
+		}
+		int methodFlag = CompiledPathTree.methodFlag(method);
+		if ((pathTree.getMethodFlags(node) & methodFlag) == 0) {
+			statistics.recordMethodNotAllowed();
+			return reject(exchange, HttpStatus.METHOD_NOT_ALLOWED, validator.getAllowHeader(node));
+		}
+		if (parameterValidator != null) {
+			byte[] violation = parameterValidator.validate(exchange.getRequest(), node, methodFlag, basePathLength);
+			if (violation != null) {
+				statistics.recordInvalidParameters();
+				return rejectBadRequest(exchange, violation);
+			}
+		}
+		if (bodyValidator != null && RequestBodyValidator.isJson(exchange.getRequest().getHeaders().getContentType())) {
+			JsonBodyValidator bodyValidation = bodyValidator.start(node, methodFlag, bodyLookahead);
+			if (bodyValidation != null) {
+				return filterValidatingBody(exchange, chain, bodyValidation);
 			}
 		}
+		return chain.filter(exchange);
 	}
 
 	/**
+	 * Holds back the buffers of the body until the lookahead is validated, then
+	 * passes the request on with a body that is validated as it is consumed.
 	 *
-	 * Runs at setup (low time-critical)
-	 *
-	 * @param method
-	 * @return
+	 * Runs on request (high time-critical)
 	 */
-	private int mapMethod(HttpMethod method) {
-		switch (method) {
-		case DELETE:
-			return METHOD_DELETE;
-		case GET:
-			return METHOD_GET;
-		case HEAD:
-			return METHOD_HEAD;
-		case OPTIONS:
-			return METHOD_OPTIONS;
-		case PATCH:
-			return METHOD_PATCH;
-		case POST:
-			return METHOD_POST;
-		case PUT:
-			return METHOD_PUT;
-		case TRACE:
-			return METHOD_TRACE;
-		default:
-			log.warn("Unsupported HTTP Method");
-			return 0;
-		}
+	private Mono<Void> filterValidatingBody(ServerWebExchange exchange, GatewayFilterChain chain,
+			JsonBodyValidator bodyValidation) {
+		ServerHttpRequest request = exchange.getRequest();
+		Flux<DataBuffer> validatedBody = request.getBody()
+				.doOnNext(buffer -> {
+					try {
+						bodyValidation.feed(buffer);
+					} catch (RequestBodyValidationException e) {
+						DataBufferUtils.release(buffer);
+						throw e;
+					}
+				})
+				.concatWith(Mono.fromRunnable(bodyValidation::finish));
+		return validatedBody.bufferUntil(new Lookahead(bodyLookahead))
+				.doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+				.switchOnFirst((first, buffers) -> {
+					if (first.hasError()) {
+						return Mono.error(first.getThrowable());
+					}
+					ServerHttpRequest validatedRequest = new ServerHttpRequestDecorator(request) {
+						@Override
+						public Flux<DataBuffer> getBody() {
+							return buffers.concatMapIterable(Function.identity());
+						}
+					};
+					return chain.filter(exchange.mutate().request(validatedRequest).build());
+				})
+				.then()
+				.onErrorResume(error -> validationError(error) != null && !exchange.getResponse().isCommitted(),
+						error -> {
+							statistics.recordInvalidBody();
+							return rejectBadRequest(exchange, validationError(error).getReason()
+									.getBytes(StandardCharsets.UTF_8));
+						});
 	}
 
 	/**
-	 *
-	 * Runs on request (high time-critical)
-	 *
-	 * @param method
-	 * @return
+	 * @return the validation error that caused the error (e.g. an aborted upstream
+	 *         request), or null
 	 */
-	private int mapMethod(org.springframework.http.HttpMethod method) {
-		switch (method.toString()) {
-		case "GET":
-			return METHOD_GET;
-		case "HEAD":
-			return METHOD_HEAD;
-		case "POST":
-			return METHOD_POST;
-		case "PUT":
-			return METHOD_PUT;
-		case "PATCH":
-			return METHOD_PATCH;
-		case "DELETE":
-			return METHOD_DELETE;
-		case "OPTIONS":
-			return METHOD_OPTIONS;
-		case "TRACE":
-			return METHOD_TRACE;
-		default:
-			log.warn("Unsupported HTTP Method");
-			return 0;
+	private static RequestBodyValidationException validationError(Throwable error) {
+		for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+			if (cause instanceof RequestBodyValidationException validationError) {
+				return validationError;
+			}
 		}
+		return null;
 	}
 
 	/**
 	 *
 	 * Runs on request (high time-critical)
-	 *
-	 * @param pathSegments
-	 * @param index
-	 * @param map
-	 * @param methodFlag
-	 * @return
 	 */
-	@SuppressWarnings("unchecked")
-	private boolean isAllowed(String[] pathSegments, int index, Map<String, Object> map, int methodFlag) {
-		if (index == pathSegments.length) {
-			int flags = (int) map.getOrDefault(ROOT_PLACEHOLDER, 0);
-			// log.info("<root>, flags = %d , method = %d".formatted(flags, methodFlag));
-			return (flags & methodFlag) != 0;
-		} else {
-			if (index == 0 && pathSegments[index].length() == 0) {
-				return isAllowed(pathSegments, index + 1, map, methodFlag);
-			} else {
-				Map<String, Object> nMap = (Map<String, Object>) map.get(pathSegments[index]);
-				if (nMap == null) {
-					nMap = (Map<String, Object>) map.get(WILDCARD_PLACEHOLDER);
-					if (nMap == null) {
-						return false;
-					} else {
-						return isAllowed(pathSegments, index + 1, nMap, methodFlag);
-					}
-				} else {
-					return isAllowed(pathSegments, index + 1, nMap, methodFlag);
-				}
-			}
+	private static Mono<Void> reject(ServerWebExchange exchange, HttpStatus status, String allowHeader) {
+		ServerHttpResponse response = exchange.getResponse();
+		response.setStatusCode(status);
+		if (allowHeader != null) {
+			response.getHeaders().set(HttpHeaders.ALLOW, allowHeader);
 		}
+		return response.setComplete();
 	}
 
 	/**
 	 *
 	 * Runs on request (high time-critical)
 	 */
-	@Override
-	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-		String[] pathSegments = exchange.getRequest().getPath().value().substring(basePathLength).split("/");
-		var method = exchange.getRequest().getMethod();
-		if ((method.equals(org.springframework.http.HttpMethod.HEAD) && allowHEAD)
-				|| (method.equals(org.springframework.http.HttpMethod.OPTIONS) && allowOPTIONS)
-				|| isAllowed(pathSegments, 0, pathMap, mapMethod(method))) {
-			return chain.filter(exchange);
-		} else {
-			throw new ResponseStatusException(HttpStatus.METHOD_NOT_ALLOWED);
-		}
-
+	private static Mono<Void> rejectBadRequest(ServerWebExchange exchange, byte[] message) {
+		ServerHttpResponse response = exchange.getResponse();
+		response.setStatusCode(HttpStatus.BAD_REQUEST);
+		response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+		response.getHeaders().setContentLength(message.length);
+		return response.writeWith(Mono.just(response.bufferFactory().wrap(message)));
 	}
 
-	private static class WilcardMap<K, V> implements Map<K, V> {
-
-		private V rootValue;
-		private V subValue;
-
-		@Override
-		public int size() {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public boolean isEmpty() {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public boolean containsKey(Object key) {
-			if (key.equals(ROOT_PLACEHOLDER)) {
-				return rootValue != null;
-			} else {
-				return subValue != null;
-			}
-		}
-
-		@Override
-		public boolean containsValue(Object value) {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public V get(Object key) {
-			if (key.equals(ROOT_PLACEHOLDER)) {
-				return rootValue;
-			} else {
-				return subValue;
-			}
-		}
-
-		@Override
-		public V put(K key, V value) {
-			V previousValue;
-			if (key.equals(ROOT_PLACEHOLDER)) {
-				previousValue = rootValue;
-				rootValue = value;
-			} else {
-				previousValue = subValue;
-				subValue = value;
-			}
-			return previousValue;
-		}
-
-		@Override
-		public V remove(Object key) {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public void putAll(Map<? extends K, ? extends V> m) {
-			throw new UnsupportedOperationException();
-		}
+	/**
+	 * Closes the first group of buffers once the lookahead is reached, every
+	 * following buffer forms its own group
+	 */
+	private static class Lookahead implements Predicate<DataBuffer> {
 
-		@Override
-		public void clear() {
-			this.rootValue = null;
-			this.subValue = null;
-		}
+		private final int limit;
+		private long received;
 
-		@Override
-		public Set<K> keySet() {
-			return Set.of();
+		private Lookahead(int limit) {
+			this.limit = limit;
 		}
 
 		@Override
-		public Collection<V> values() {
-			ArrayList<V> list = new ArrayList<>();
-			list.add(rootValue);
-			list.add(subValue);
-			return list;
+		public boolean test(DataBuffer buffer) {
+			received += buffer.readableByteCount();
+			return received >= limit;
 		}
-
-		@Override
-		public Set<Entry<K, V>> entrySet() {
-			throw new UnsupportedOperationException();
-		}
-
 	}
 
 }
@@ -0,0 +1,163 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.model.filters;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.softwareag.research.mini_api_gatway.utils.ExpiringCache;
+import com.softwareag.research.mini_api_gatway.utils.JsonPointerExtractor;
+import com.softwareag.research.mini_api_gatway.utils.SideCallClient;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import reactor.core.publisher.Mono;
+
+/**
+ * HTTP(S) request made by a filter before the main request, e.g. by the
+ * {@link ExternalCallFilter}. The URL may contain variables of the exchange,
+ * e.g. <code>{userId}</code>. Optionally, responses are cached for identical
+ * calls and concurrent identical calls share one request.
+ *
+ * @author jonsch
+ *
+ */
+@Schema(description = "HTTP(S) request made before the main request.")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SideCall {
+
+	private static final int MAX_CACHE_ENTRIES = 1024;
+	private static final DefaultUriBuilderFactory uriBuilderFactory = new DefaultUriBuilderFactory();
+
+	/** HTTP(S) URL to be requested **/
+	@NonNull
+	private String uri;
+	/** HTTP Method for the request, e.g. GET, POST **/
+	@NonNull
+	private String method;
+	/** Request payload **/
+	@Nullable
+	private String body;
+	/** Request HTTP headers **/
+	@JsonDeserialize(as = LinkedMultiValueMap.class)
+	private MultiValueMap<String, String> headers;
+	/**
+	 * Seconds for which responses are reused for identical calls (same method and
+	 * resolved URL), 0 to call the service for every request. A shorter max-age
+	 * or no-store of the Cache-Control response header takes precedence.
+	 **/
+	private int cacheTtl;
+
+	/** Cached responses by method and resolved URL **/
+	@JsonIgnore
+	private final ExpiringCache<String, SideCallResponse> responseCache = new ExpiringCache<>(MAX_CACHE_ENTRIES);
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param exchange         the exchange whose attributes resolve the URL
+	 *                         variables
+	 * @param payloadExtractor extracts the values of the payload that are used,
+	 *                         null to keep the whole payload
+	 * @return the successful response, otherwise an error
+	 */
+	Mono<SideCallResponse> execute(ServerWebExchange exchange, JsonPointerExtractor payloadExtractor) {
+		URI resolvedUri = uriBuilderFactory.expand(uri, exchange.getAttributes());
+		if (cacheTtl > 0) {
+			return responseCache.get(method + ' ' + resolvedUri, () -> call(resolvedUri, payloadExtractor),
+					SideCallResponse::maxAge);
+		}
+		return call(resolvedUri, payloadExtractor);
+	}
+
+	private Mono<SideCallResponse> call(URI resolvedUri, JsonPointerExtractor payloadExtractor) {
+		WebClient.RequestBodySpec request = SideCallClient.get()
+			.method(HttpMethod.valueOf(method))
+			.uri(resolvedUri);
+		if (headers != null) {
+			request.headers(requestHeaders -> requestHeaders.addAll(headers));
+		}
+		if (body != null) {
+			request.bodyValue(body);
+		}
+		return request.exchangeToMono(response -> {
+			if (response.statusCode().is2xxSuccessful()) {
+				HttpHeaders responseHeaders = response.headers().asHttpHeaders();
+				Map<String, String> headers = Collections.unmodifiableMap(responseHeaders.toSingleValueMap());
+				Duration maxAge = maxAge(responseHeaders.getCacheControl());
+				if (payloadExtractor == null) {
+					return response.bodyToMono(String.class)
+							.defaultIfEmpty("")
+							.map(payload -> new SideCallResponse(payload, headers, maxAge));
+				} else if (payloadExtractor.isEmpty()) {
+					return response.releaseBody().thenReturn(new SideCallResponse(null, headers, maxAge));
+				}
+				// Keep only the used values instead of the whole payload
+				JsonPointerExtractor.Extraction extraction = payloadExtractor.start();
+				return response.bodyToFlux(DataBuffer.class)
+						.doOnNext(buffer -> {
+							try {
+								extraction.feed(buffer);
+							} finally {
+								DataBufferUtils.release(buffer);
+							}
+						})
+						.doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+						.then(Mono.fromSupplier(() -> new SideCallResponse(extraction.finish(), headers, maxAge)));
+			} else {
+				return response.createError();
+			}
+		});
+	}
+
+	/**
+	 * Runs on request (high time-critical)
+	 *
+	 * @param cacheControl Cache-Control header of the response, may be null
+	 * @return how long the response may be reused, zero if it must not be cached
+	 */
+	private Duration maxAge(String cacheControl) {
+		long seconds = cacheTtl;
+		if (cacheControl != null) {
+			for (String directive : cacheControl.split(",")) {
+				directive = directive.trim().toLowerCase(Locale.ROOT);
+				if (directive.equals("no-store") || directive.equals("no-cache") || directive.equals("private")) {
+					return Duration.ZERO;
+				}
+				if (directive.startsWith("max-age=") || directive.startsWith("s-maxage=")) {
+					try {
+						seconds = Math.min(seconds, Long.parseLong(directive.substring(directive.indexOf('=') + 1)));
+					} catch (NumberFormatException e) {
+						return Duration.ZERO;
+					}
+				}
+			}
+		}
+		return Duration.ofSeconds(seconds);
+	}
+
+}
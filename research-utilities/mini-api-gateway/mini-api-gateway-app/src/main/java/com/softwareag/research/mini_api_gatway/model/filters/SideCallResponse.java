@@ -0,0 +1,38 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.model.filters;
+
+import java.time.Duration;
+import java.util.Map;
+
+import com.softwareag.research.mini_api_gatway.utils.JsonPointerExtractor;
+
+/**
+ * Response of a {@link SideCall}, exposed to variable expressions as
+ * <code>payload</code> and <code>headers</code>. The payload is either the
+ * whole body or only the values extracted by a {@link JsonPointerExtractor}.
+ * Immutable, as it may be shared by requests when cached.
+ *
+ * @author jonsch
+ *
+ */
+@SuppressWarnings("unused")
+class SideCallResponse {
+	public final Object payload;
+	public final Map<String, String> headers;
+	/** Not serialized, only used for caching **/
+	private final Duration maxAge;
+
+	SideCallResponse(Object payload, Map<String, String> headers, Duration maxAge) {
+		this.payload = payload;
+		this.headers = headers;
+		this.maxAge = maxAge;
+	}
+
+	Duration maxAge() {
+		return maxAge;
+	}
+
+}
@@ -0,0 +1,96 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs a filter chain that has been merged and ordered when the route was
+ * compiled. Replaces the per-request merging and sorting of
+ * {@link org.springframework.cloud.gateway.handler.FilteringWebHandler}.
+ *
+ * @author jonsch
+ *
+ */
+public class CompiledFilterChain implements GatewayFilterChain {
+
+	private final GatewayFilter[] filters;
+
+	private final int index;
+
+	public CompiledFilterChain(GatewayFilter[] filters) {
+		this(filters, 0);
+	}
+
+	private CompiledFilterChain(GatewayFilter[] filters, int index) {
+		this.filters = filters;
+		this.index = index;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange) {
+		return Mono.defer(() -> {
+			if (index < filters.length) {
+				return filters[index].filter(exchange, new CompiledFilterChain(filters, index + 1));
+			}
+			return Mono.empty();
+		});
+	}
+
+	/**
+	 * Merges the Spring Cloud Gateway global filters with the filters of a route
+	 * in the same order as
+	 * {@link org.springframework.cloud.gateway.handler.FilteringWebHandler}
+	 *
+	 * @param globalFilters global filters adapted with {@link #adapt(List)}
+	 * @param routeFilters  filters of the route
+	 * @return the ordered filter chain
+	 */
+	public static GatewayFilter[] compile(List<GatewayFilter> globalFilters, List<GatewayFilter> routeFilters) {
+		List<GatewayFilter> combined = new ArrayList<>(globalFilters.size() + routeFilters.size());
+		combined.addAll(globalFilters);
+		combined.addAll(routeFilters);
+		AnnotationAwareOrderComparator.sort(combined);
+		return combined.toArray(new GatewayFilter[combined.size()]);
+	}
+
+	/**
+	 * Adapts Spring Cloud Gateway global filters to {@link GatewayFilter}s, keeping
+	 * their order
+	 *
+	 * @param globalFilters
+	 * @return
+	 */
+	public static List<GatewayFilter> adapt(List<GlobalFilter> globalFilters) {
+		List<GatewayFilter> filters = new ArrayList<>(globalFilters.size());
+		for (GlobalFilter globalFilter : globalFilters) {
+			GatewayFilter filter = globalFilter::filter;
+			if (globalFilter instanceof Ordered ordered) {
+				filter = new OrderedGatewayFilter(filter, ordered.getOrder());
+			} else {
+				Order order = AnnotationUtils.findAnnotation(globalFilter.getClass(), Order.class);
+				if (order != null) {
+					filter = new OrderedGatewayFilter(filter, order.value());
+				}
+			}
+			filters.add(filter);
+		}
+		return filters;
+	}
+
+}
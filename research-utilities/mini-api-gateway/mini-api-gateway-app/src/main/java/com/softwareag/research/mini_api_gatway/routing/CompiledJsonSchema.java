@@ -0,0 +1,191 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.routing;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import io.swagger.v3.oas.models.Components;
+import io.swagger.v3.oas.models.media.Schema;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * JSON schema of a request body, compiled for validation on a token stream.
+ * Supports type, nullable, enum, pattern, string length, properties, required,
+ * additionalProperties (false) and items. Composed schemas (allOf, oneOf,
+ * anyOf) are not validated and accept any value.
+ *
+ * @author jonsch
+ *
+ */
+@Slf4j
+public final class CompiledJsonSchema {
+
+	static final int OBJECT = 1;
+	static final int ARRAY = 2;
+	static final int STRING = 4;
+	static final int INTEGER = 8;
+	static final int NUMBER = 16;
+	static final int BOOLEAN = 32;
+
+	private static final String SCHEMA_REFERENCE = "#/components/schemas/";
+
+	/** Allowed JSON types, 0 if any type is allowed **/
+	int types;
+
+	boolean nullable;
+
+	/** Allowed values in their JSON text representation, null if not restricted **/
+	Set<String> allowedValues;
+
+	Pattern pattern;
+
+	int minLength;
+
+	int maxLength = Integer.MAX_VALUE;
+
+	/** Schemas of the known properties, null if there are none **/
+	Map<String, CompiledJsonSchema> properties;
+
+	/** Index of each required property, used to track them while parsing **/
+	Map<String, Integer> requiredIndex;
+
+	/** Names of the required properties by index **/
+	String[] required;
+
+	boolean additionalProperties = true;
+
+	/** Schema of the array items, null if any item is allowed **/
+	CompiledJsonSchema items;
+
+	private CompiledJsonSchema() {
+	}
+
+	/**
+	 *
+	 * Runs at setup (low time-critical)
+	 *
+	 * @param schema     the (unresolved) schema
+	 * @param components components of the specification to resolve references
+	 * @return the compiled schema, null if any value is allowed
+	 */
+	public static CompiledJsonSchema compile(Schema<?> schema, Components components) {
+		return compile(schema, components, new HashMap<>());
+	}
+
+	/**
+	 * @param referenced schemas compiled by reference name, so recursive schemas
+	 *                   terminate and shared schemas are only compiled once
+	 */
+	private static CompiledJsonSchema compile(Schema<?> schema, Components components,
+			Map<String, CompiledJsonSchema> referenced) {
+		if (schema == null) {
+			return null;
+		}
+		if (schema.get$ref() != null) {
+			String ref = schema.get$ref();
+			if (!ref.startsWith(SCHEMA_REFERENCE) || components == null || components.getSchemas() == null
+					|| !components.getSchemas().containsKey(ref.substring(SCHEMA_REFERENCE.length()))) {
+				log.warn("Could not resolve schema reference {}, skipping validation", ref);
+				return null;
+			}
+			CompiledJsonSchema compiled = referenced.get(ref);
+			if (compiled == null) {
+				compiled = new CompiledJsonSchema();
+				referenced.put(ref, compiled);
+				compiled.fill(components.getSchemas().get(ref.substring(SCHEMA_REFERENCE.length())), components,
+						referenced);
+			}
+			return compiled;
+		}
+		if (isComposed(schema)) {
+			return null;
+		}
+		CompiledJsonSchema compiled = new CompiledJsonSchema();
+		compiled.fill(schema, components, referenced);
+		return compiled;
+	}
+
+	private static boolean isComposed(Schema<?> schema) {
+		return schema.getAllOf() != null || schema.getOneOf() != null || schema.getAnyOf() != null;
+	}
+
+	private void fill(Schema<?> schema, Components components, Map<String, CompiledJsonSchema> referenced) {
+		if (schema.get$ref() != null || isComposed(schema)) {
+			// Chained reference or composition, accept anything
+			return;
+		}
+		types = types(schema);
+		nullable = Boolean.TRUE.equals(schema.getNullable());
+		if (schema.getEnum() != null && !schema.getEnum().isEmpty()) {
+			allowedValues = new HashSet<>();
+			for (Object value : schema.getEnum()) {
+				if (value == null) {
+					nullable = true;
+				} else {
+					allowedValues.add(String.valueOf(value));
+				}
+			}
+		}
+		if (schema.getPattern() != null) {
+			pattern = Pattern.compile(schema.getPattern());
+		}
+		if (schema.getMinLength() != null) {
+			minLength = schema.getMinLength();
+		}
+		if (schema.getMaxLength() != null) {
+			maxLength = schema.getMaxLength();
+		}
+		if (schema.getProperties() != null && !schema.getProperties().isEmpty()) {
+			properties = new HashMap<>();
+			for (Entry<String, Schema> property : schema.getProperties().entrySet()) {
+				properties.put(property.getKey(), compile(property.getValue(), components, referenced));
+			}
+		}
+		List<String> requiredProperties = schema.getRequired();
+		if (requiredProperties != null && !requiredProperties.isEmpty()) {
+			required = requiredProperties.stream().distinct().toArray(String[]::new);
+			requiredIndex = new HashMap<>();
+			for (int i = 0; i < required.length; i++) {
+				requiredIndex.put(required[i], i);
+			}
+		}
+		additionalProperties = !Boolean.FALSE.equals(schema.getAdditionalProperties());
+		items = compile(schema.getItems(), components, referenced);
+	}
+
+	private static int types(Schema<?> schema) {
+		if (schema.getType() == null) {
+			return 0;
+		}
+		return switch (schema.getType()) {
+		case "object" -> OBJECT;
+		case "array" -> ARRAY;
+		case "string" -> STRING;
+		// Integers are valid numbers
+		case "number" -> NUMBER | INTEGER;
+		case "integer" -> INTEGER;
+		case "boolean" -> BOOLEAN;
+		default -> 0;
+		};
+	}
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param type JSON type of a value
+	 * @return whether values of the type are allowed
+	 */
+	boolean allows(int type) {
+		return types == 0 || (types & type) != 0;
+	}
+
+}
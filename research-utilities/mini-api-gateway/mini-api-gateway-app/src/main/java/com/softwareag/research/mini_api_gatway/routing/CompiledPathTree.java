@@ -0,0 +1,338 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.routing;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.springframework.http.HttpMethod;
+
+import com.softwareag.research.mini_api_gatway.model.RoutePath;
+
+import io.swagger.v3.oas.models.PathItem;
+
+/**
+ * Immutable radix tree of the paths and methods of an API specification.
+ * Nodes and edges are stored in flat arrays. Literal edges are sorted and
+ * chains of literal segments are merged into a single edge. Path parameters
+ * (<code>{id}</code>) are matched by a wildcard edge, literal edges take
+ * precedence. Request paths are matched in place, without splitting them or
+ * creating intermediate Strings.
+ *
+ * @author jonsch
+ *
+ */
+public final class CompiledPathTree {
+
+	private static final char SEPARATOR = '/';
+	private static final int NONE = -1;
+
+	/** Methods by bit position of their flag **/
+	private static final HttpMethod[] METHODS = { HttpMethod.GET, HttpMethod.HEAD, HttpMethod.POST, HttpMethod.PUT,
+			HttpMethod.PATCH, HttpMethod.DELETE, HttpMethod.OPTIONS, HttpMethod.TRACE };
+
+	/** Number of supported methods, i.e. bits used by method flags **/
+	public static final int METHOD_COUNT = METHODS.length;
+
+	/** Method flags by ordinal of the OpenAPI method **/
+	private static final int[] SPECIFICATION_METHOD_FLAGS = new int[PathItem.HttpMethod.values().length];
+
+	static {
+		for (PathItem.HttpMethod method : PathItem.HttpMethod.values()) {
+			SPECIFICATION_METHOD_FLAGS[method.ordinal()] = methodFlag(HttpMethod.valueOf(method.name()));
+		}
+	}
+
+	/** Allowed methods of each node **/
+	private final int[] methodFlags;
+
+	/** Wildcard child of each node, or {@link #NONE} **/
+	private final int[] wildcardChild;
+
+	/** Index of the first literal edge of each node in the edge arrays **/
+	private final int[] firstEdge;
+
+	/** Number of literal edges of each node **/
+	private final int[] edgeCount;
+
+	/** Labels of the literal edges, sorted by their first segment per node **/
+	private final String[] edgeLabels;
+
+	/** Target nodes of the literal edges **/
+	private final int[] edgeTargets;
+
+	private CompiledPathTree(int nodes, int edges) {
+		methodFlags = new int[nodes];
+		wildcardChild = new int[nodes];
+		firstEdge = new int[nodes];
+		edgeCount = new int[nodes];
+		edgeLabels = new String[edges];
+		edgeTargets = new int[edges];
+	}
+
+	/**
+	 *
+	 * Runs at setup (low time-critical)
+	 *
+	 * @param paths paths of an API, inactive paths are skipped
+	 * @return the compiled tree
+	 */
+	public static CompiledPathTree compile(Collection<RoutePath> paths) {
+		Node root = new Node();
+		for (RoutePath path : paths) {
+			if (path.isActive()) {
+				root.insert(path.getPath().split("/"), 0, methodFlag(path.getMethod()));
+			}
+		}
+		List<Node> nodes = new ArrayList<>();
+		int edges = root.collect(nodes);
+		CompiledPathTree tree = new CompiledPathTree(nodes.size(), edges);
+		int edge = 0;
+		for (int i = 0; i < nodes.size(); i++) {
+			Node node = nodes.get(i);
+			tree.methodFlags[i] = node.methodFlags;
+			tree.wildcardChild[i] = node.wildcard == null ? NONE : node.wildcard.id;
+			tree.firstEdge[i] = edge;
+			tree.edgeCount[i] = node.literals.size();
+			for (Entry<String, Node> literal : node.literals.entrySet()) {
+				StringBuilder label = new StringBuilder(literal.getKey());
+				Node target = literal.getValue().compressedTarget(label);
+				tree.edgeLabels[edge] = label.toString();
+				tree.edgeTargets[edge] = target.id;
+				edge++;
+			}
+		}
+		return tree;
+	}
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param method
+	 * @return flag of the method, 0 if it is not supported
+	 */
+	public static int methodFlag(HttpMethod method) {
+		for (int i = 0; i < METHODS.length; i++) {
+			if (METHODS[i] == method) {
+				return 1 << i;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 *
+	 * Runs at setup (low time-critical)
+	 *
+	 * @param method
+	 * @return flag of the method
+	 */
+	public static int methodFlag(PathItem.HttpMethod method) {
+		return SPECIFICATION_METHOD_FLAGS[method.ordinal()];
+	}
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param path       request path
+	 * @param from       start of the API path in the request path
+	 * @param methodFlag see {@link #methodFlag(HttpMethod)}
+	 * @return whether the path exists with the method
+	 */
+	public boolean isAllowed(String path, int from, int methodFlag) {
+		int node = find(path, from);
+		return node != NONE && (methodFlags[node] & methodFlag) != 0;
+	}
+
+	/**
+	 *
+	 * @param node see {@link #find(String, int)}
+	 * @return flags of the methods specified for the node
+	 */
+	public int getMethodFlags(int node) {
+		return methodFlags[node];
+	}
+
+	public int getNodeCount() {
+		return methodFlags.length;
+	}
+
+	/**
+	 *
+	 * Runs at setup (low time-critical)
+	 *
+	 * @param methodFlags
+	 * @return the methods as value for an Allow header, e.g. "GET, POST"
+	 */
+	public static String toAllowHeader(int methodFlags) {
+		StringJoiner methods = new StringJoiner(", ");
+		for (int i = 0; i < METHODS.length; i++) {
+			if ((methodFlags & (1 << i)) != 0) {
+				methods.add(METHODS[i].name());
+			}
+		}
+		return methods.toString();
+	}
+
+	/**
+	 * Finds the node of the specified path matching the request path. Literal
+	 * segments take precedence over path parameters, the parameter is only tried
+	 * if no path exists below the literal segment.
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param path request path
+	 * @param from start of the API path in the request path
+	 * @return the node or -1 if the path is not specified
+	 */
+	public int find(String path, int from) {
+		int end = path.length();
+		while (end > from && path.charAt(end - 1) == SEPARATOR) {
+			end--;
+		}
+		if (from < end && path.charAt(from) == SEPARATOR) {
+			from++;
+		}
+		return match(path, from, end, 0);
+	}
+
+	private int match(String path, int position, int end, int node) {
+		if (position >= end) {
+			return methodFlags[node] != 0 ? node : NONE;
+		}
+		int segmentEnd = path.indexOf(SEPARATOR, position);
+		if (segmentEnd == NONE || segmentEnd > end) {
+			segmentEnd = end;
+		}
+		int edge = findEdge(node, path, position, segmentEnd);
+		if (edge != NONE) {
+			String label = edgeLabels[edge];
+			int labelEnd = position + label.length();
+			if (labelEnd <= end && path.regionMatches(position, label, 0, label.length())
+					&& (labelEnd == end || path.charAt(labelEnd) == SEPARATOR)) {
+				int match = match(path, Math.min(labelEnd + 1, end), end, edgeTargets[edge]);
+				if (match != NONE) {
+					return match;
+				}
+			}
+		}
+		int wildcard = wildcardChild[node];
+		return wildcard == NONE ? NONE : match(path, Math.min(segmentEnd + 1, end), end, wildcard);
+	}
+
+	/**
+	 * Binary search for the literal edge whose first segment equals the path
+	 * segment
+	 */
+	private int findEdge(int node, String path, int segmentStart, int segmentEnd) {
+		int low = firstEdge[node];
+		int high = low + edgeCount[node] - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int comparison = compareFirstSegment(edgeLabels[middle], path, segmentStart, segmentEnd);
+			if (comparison < 0) {
+				low = middle + 1;
+			} else if (comparison > 0) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return NONE;
+	}
+
+	private static int compareFirstSegment(String label, String path, int segmentStart, int segmentEnd) {
+		int labelSegmentEnd = label.indexOf(SEPARATOR);
+		if (labelSegmentEnd == NONE) {
+			labelSegmentEnd = label.length();
+		}
+		int length = Math.min(labelSegmentEnd, segmentEnd - segmentStart);
+		for (int i = 0; i < length; i++) {
+			int difference = label.charAt(i) - path.charAt(segmentStart + i);
+			if (difference != 0) {
+				return difference;
+			}
+		}
+		return labelSegmentEnd - (segmentEnd - segmentStart);
+	}
+
+	/**
+	 * Mutable node used while compiling the tree
+	 */
+	private static class Node {
+
+		private int id;
+		private int methodFlags;
+		private Node wildcard;
+		// Sorted by segment, matching the binary search on request
+		private final TreeMap<String, Node> literals = new TreeMap<>(CompiledPathTree::compareSegments);
+
+		private void insert(String[] segments, int index, int methodFlag) {
+			if (index == segments.length) {
+				methodFlags |= methodFlag;
+			} else if (index == 0 && segments[index].isEmpty()) {
+				insert(segments, index + 1, methodFlag);
+			} else if (segments[index].startsWith("{")) {
+				if (wildcard == null) {
+					wildcard = new Node();
+				}
+				wildcard.insert(segments, index + 1, methodFlag);
+			} else {
+				literals.computeIfAbsent(segments[index], segment -> new Node()).insert(segments, index + 1,
+						methodFlag);
+			}
+		}
+
+		/**
+		 * @return whether the node only forwards to a single literal child and can
+		 *         be merged into the edge pointing to it
+		 */
+		private boolean isPassThrough() {
+			return methodFlags == 0 && wildcard == null && literals.size() == 1;
+		}
+
+		/**
+		 * Follows pass-through nodes and appends their segments to the label
+		 */
+		private Node compressedTarget(StringBuilder label) {
+			Node target = this;
+			while (target.isPassThrough()) {
+				Entry<String, Node> next = target.literals.firstEntry();
+				label.append(SEPARATOR).append(next.getKey());
+				target = next.getValue();
+			}
+			return target;
+		}
+
+		/**
+		 * Assigns IDs to all nodes reachable after compression
+		 *
+		 * @return the number of literal edges
+		 */
+		private int collect(List<Node> nodes) {
+			id = nodes.size();
+			nodes.add(this);
+			int edges = literals.size();
+			for (Node literal : literals.values()) {
+				edges += literal.compressedTarget(new StringBuilder()).collect(nodes);
+			}
+			if (wildcard != null) {
+				edges += wildcard.collect(nodes);
+			}
+			return edges;
+		}
+	}
+
+	private static int compareSegments(String a, String b) {
+		return compareFirstSegment(a, b, 0, b.length());
+	}
+
+}
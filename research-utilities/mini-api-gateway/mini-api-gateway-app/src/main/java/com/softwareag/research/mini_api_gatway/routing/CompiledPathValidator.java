@@ -0,0 +1,196 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.routing;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.http.HttpMethod;
+
+import com.softwareag.research.mini_api_gatway.model.RoutePath;
+import com.softwareag.research.mini_api_gatway.model.RouteSettings;
+import com.softwareag.research.mini_api_gatway.utils.APISpecificationUtils;
+
+import io.swagger.v3.oas.models.OpenAPI;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compiled path tree, prebuilt Allow headers and (optional) parameter and
+ * request body validators of an API specification. Validators are interned by
+ * a hash of the active paths, the settings and, if parameters or bodies are
+ * validated, the specification, so routes that share a specification (e.g.
+ * versions or tenants of an API) share one validator. Interned validators are
+ * released when no route uses them anymore.
+ *
+ * @author jonsch
+ *
+ */
+@Slf4j
+public final class CompiledPathValidator {
+
+	private static final ConcurrentHashMap<String, InternedReference> interned = new ConcurrentHashMap<>();
+	private static final ReferenceQueue<CompiledPathValidator> released = new ReferenceQueue<>();
+
+	@Getter
+	private final CompiledPathTree pathTree;
+
+	/** Allow header value by path tree node **/
+	private final String[] allowHeaders;
+
+	@Getter
+	private final boolean allowHEAD;
+
+	@Getter
+	private final boolean allowOPTIONS;
+
+	/** Null if parameters are not validated **/
+	@Getter
+	private final RequestParameterValidator parameterValidator;
+
+	/** Null if request bodies are not validated **/
+	@Getter
+	private final RequestBodyValidator bodyValidator;
+
+	private CompiledPathValidator(List<RoutePath> activePaths, RouteSettings settings, String specification) {
+		pathTree = CompiledPathTree.compile(activePaths);
+		allowHEAD = settings.isAlwaysAllowHEAD();
+		allowOPTIONS = settings.isAlwaysAllowOPTIONS();
+
+		int alwaysAllowed = (allowHEAD ? CompiledPathTree.methodFlag(HttpMethod.HEAD) : 0)
+				| (allowOPTIONS ? CompiledPathTree.methodFlag(HttpMethod.OPTIONS) : 0);
+		allowHeaders = new String[pathTree.getNodeCount()];
+		for (int node = 0; node < allowHeaders.length; node++) {
+			allowHeaders[node] = CompiledPathTree.toAllowHeader(pathTree.getMethodFlags(node) | alwaysAllowed);
+		}
+
+		OpenAPI api = isValidatingSpecification(settings, specification)
+				? APISpecificationUtils.parseAPISpecification(specification)
+				: null;
+		if (api == null && isValidatingSpecification(settings, specification)) {
+			log.warn("Could not parse specification, parameters and request bodies will not be validated");
+		}
+		parameterValidator = api != null && settings.isValidateParameters()
+				? new RequestParameterValidator(api, pathTree)
+				: null;
+		bodyValidator = api != null && settings.isValidateRequestBody() ? new RequestBodyValidator(api, pathTree)
+				: null;
+	}
+
+	private static boolean isValidatingSpecification(RouteSettings settings, String specification) {
+		return (settings.isValidateParameters() || settings.isValidateRequestBody()) && specification != null
+				&& !specification.isBlank();
+	}
+
+	/**
+	 *
+	 * Runs at setup (low time-critical)
+	 *
+	 * @param paths         paths of the API specification
+	 * @param settings      settings of the route
+	 * @param specification the API specification, only used if parameters or
+	 *                      request bodies are validated
+	 * @return a validator shared by all routes with the same active paths and
+	 *         settings
+	 */
+	public static CompiledPathValidator intern(RoutePath[] paths, RouteSettings settings, String specification) {
+		expungeReleased();
+		List<RoutePath> activePaths = new ArrayList<>(paths.length);
+		for (RoutePath path : paths) {
+			if (path.isActive()) {
+				activePaths.add(path);
+			}
+		}
+		String key = contentHash(activePaths, settings, specification);
+		while (true) {
+			InternedReference reference = interned.get(key);
+			CompiledPathValidator validator = reference == null ? null : reference.get();
+			if (validator != null) {
+				return validator;
+			}
+			validator = new CompiledPathValidator(activePaths, settings, specification);
+			InternedReference newReference = new InternedReference(key, validator);
+			boolean stored = reference == null ? interned.putIfAbsent(key, newReference) == null
+					: interned.replace(key, reference, newReference);
+			if (stored) {
+				return validator;
+			}
+			// Interned concurrently, retry
+		}
+	}
+
+	/**
+	 * @return number of distinct validators currently in use
+	 */
+	public static int getInternedCount() {
+		expungeReleased();
+		return interned.size();
+	}
+
+	/**
+	 *
+	 * @param node see {@link CompiledPathTree#find(String, int)}
+	 * @return value for the Allow header of the node
+	 */
+	public String getAllowHeader(int node) {
+		return allowHeaders[node];
+	}
+
+	/**
+	 * Hashes the sorted active paths, so the order in the specification does not
+	 * matter
+	 */
+	private static String contentHash(List<RoutePath> activePaths, RouteSettings settings, String specification) {
+		String[] entries = new String[activePaths.size()];
+		for (int i = 0; i < entries.length; i++) {
+			entries[i] = activePaths.get(i).getMethod() + " " + activePaths.get(i).getPath();
+		}
+		Arrays.sort(entries);
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			for (String entry : entries) {
+				digest.update(entry.getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) '\n');
+			}
+			digest.update((byte) (settings.isAlwaysAllowHEAD() ? 1 : 0));
+			digest.update((byte) (settings.isAlwaysAllowOPTIONS() ? 1 : 0));
+			digest.update((byte) (settings.isValidateParameters() ? 1 : 0));
+			digest.update((byte) (settings.isValidateRequestBody() ? 1 : 0));
+			if (isValidatingSpecification(settings, specification)) {
+				digest.update(specification.getBytes(StandardCharsets.UTF_8));
+			}
+			return HexFormat.of().formatHex(digest.digest());
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void expungeReleased() {
+		Reference<? extends CompiledPathValidator> reference;
+		while ((reference = released.poll()) != null) {
+			interned.remove(((InternedReference) reference).key, reference);
+		}
+	}
+
+	private static class InternedReference extends WeakReference<CompiledPathValidator> {
+
+		private final String key;
+
+		private InternedReference(String key, CompiledPathValidator validator) {
+			super(validator, released);
+			this.key = key;
+		}
+	}
+
+}
@@ -0,0 +1,50 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.routing;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.route.Route;
+
+import com.softwareag.research.mini_api_gatway.model.RouteEntity;
+
+import lombok.Value;
+
+/**
+ * Gateway {@link Route} compiled from a {@link RouteEntity}
+ *
+ * @author jonsch
+ *
+ */
+@Value
+public class CompiledRoute {
+
+	/** Exchange attribute holding the route a request was dispatched to **/
+	public static final String COMPILED_ROUTE_ATTR = CompiledRoute.class.getName();
+
+	/** ID of the {@link RouteEntity} **/
+	private long id;
+
+	/** Route/API name (part of the gateway endpoint) **/
+	private String name;
+
+	/** Route/API version (part of the gateway endpoint) **/
+	private String version;
+
+	/**
+	 * Hash of the route definition and its global filters. The route is reused
+	 * on refresh as long as the hash does not change.
+	 **/
+	private String contentHash;
+
+	/** The compiled gateway route **/
+	private Route route;
+
+	/** Final, ordered filter chain of the route. Must not be modified **/
+	private GatewayFilter[] filters;
+
+	/** Counters of the route, shared with previous compilations of the route **/
+	private RouteStatistics statistics;
+
+}
@@ -0,0 +1,29 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.routing;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebHandler;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Handles requests dispatched by {@link RouteDispatchHandlerMapping} with the
+ * precompiled filter chain of their {@link CompiledRoute}.
+ *
+ * @author jonsch
+ *
+ */
+@Component
+public class CompiledRouteWebHandler implements WebHandler {
+
+	@Override
+	public Mono<Void> handle(ServerWebExchange exchange) {
+		CompiledRoute route = exchange.getRequiredAttribute(CompiledRoute.COMPILED_ROUTE_ATTR);
+		return new CompiledFilterChain(route.getFilters()).filter(exchange);
+	}
+
+}
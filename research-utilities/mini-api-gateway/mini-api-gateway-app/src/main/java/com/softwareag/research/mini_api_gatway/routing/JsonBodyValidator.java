@@ -0,0 +1,336 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.routing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.softwareag.research.mini_api_gatway.exceptions.RequestBodyValidationException;
+
+/**
+ * Validates a JSON request body against a {@link CompiledJsonSchema} while it
+ * is streamed. The buffers are fed to a non-blocking parser as they arrive and
+ * are neither joined nor copied. Memory is bounded by the nesting depth and
+ * the maximum token length, independent of the body size. The parser buffers
+ * the text of a token until it is complete, so a token that grows beyond the
+ * maximum is rejected while it is still streamed. One instance per request,
+ * not thread-safe.
+ *
+ * @author jonsch
+ *
+ */
+public final class JsonBodyValidator {
+
+	private static final JsonFactory jsonFactory = new JsonFactory();
+
+	/** Maximum nesting depth of objects and arrays **/
+	private static final int MAX_DEPTH = 64;
+
+	private final CompiledJsonSchema schema;
+
+	private final boolean required;
+
+	/** Maximum bytes of a single string, number or property name **/
+	private final int maxTokenLength;
+
+	private final JsonParser parser;
+
+	private final ByteBufferFeeder feeder;
+
+	/** Objects and arrays that are currently open **/
+	private final ArrayDeque<Frame> frames = new ArrayDeque<>();
+
+	/** Depth inside a value that is not validated (any value allowed) **/
+	private int skipDepth;
+
+	private boolean rootRead;
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param schema         schema of the body, null if any JSON value is allowed
+	 * @param required       whether the body must not be empty
+	 * @param maxTokenLength maximum bytes of a single string, number or property
+	 *                       name
+	 */
+	JsonBodyValidator(CompiledJsonSchema schema, boolean required, int maxTokenLength) {
+		this.schema = schema;
+		this.required = required;
+		this.maxTokenLength = maxTokenLength;
+		try {
+			parser = jsonFactory.createNonBlockingByteBufferParser();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+	}
+
+	/**
+	 * Validates the tokens completed by the buffer. The buffer itself is not
+	 * modified.
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param buffer next part of the body
+	 * @throws RequestBodyValidationException if the body is malformed or does not
+	 *                                        match the schema
+	 */
+	public void feed(DataBuffer buffer) {
+		try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+			while (iterator.hasNext()) {
+				ByteBuffer chunk = iterator.next();
+				if (chunk.hasRemaining()) {
+					feeder.feedInput(chunk);
+					readAvailableTokens();
+					checkPendingTokenLength();
+				}
+			}
+		} catch (JsonProcessingException e) {
+			throw new RequestBodyValidationException("Malformed JSON: " + e.getOriginalMessage());
+		} catch (IOException e) {
+			throw new RequestBodyValidationException("Malformed JSON");
+		}
+	}
+
+	/**
+	 * Runs on request (high time-critical)
+	 *
+	 * @throws RequestBodyValidationException if the body is incomplete or missing
+	 */
+	public void finish() {
+		feeder.endOfInput();
+		try {
+			readAvailableTokens();
+		} catch (JsonProcessingException e) {
+			throw new RequestBodyValidationException("Malformed JSON: " + e.getOriginalMessage());
+		} catch (IOException e) {
+			throw new RequestBodyValidationException("Malformed JSON");
+		}
+		if (!rootRead) {
+			if (required) {
+				throw new RequestBodyValidationException("Missing request body");
+			}
+		} else if (!frames.isEmpty() || skipDepth > 0) {
+			throw new RequestBodyValidationException("Incomplete JSON");
+		}
+	}
+
+	/**
+	 * Rejects the token that is not complete yet if its bytes exceed the maximum
+	 */
+	private void checkPendingTokenLength() {
+		long pending = parser.getCurrentLocation().getByteOffset() - parser.getTokenLocation().getByteOffset();
+		if (parser.currentToken() == JsonToken.NOT_AVAILABLE && pending > maxTokenLength) {
+			throw tokenTooLong();
+		}
+	}
+
+	private void readAvailableTokens() throws IOException {
+		JsonToken token;
+		while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+			if ((token == JsonToken.VALUE_STRING || token == JsonToken.FIELD_NAME || token.isNumeric())
+					&& parser.getTextLength() > maxTokenLength) {
+				throw tokenTooLong();
+			}
+			if (skipDepth > 0) {
+				if (token.isStructStart()) {
+					skipDepth++;
+				} else if (token.isStructEnd()) {
+					skipDepth--;
+				}
+				continue;
+			}
+			switch (token) {
+			case FIELD_NAME:
+				readFieldName(frames.peek());
+				break;
+			case END_OBJECT:
+				Frame object = frames.pop();
+				if (object.missingRequired > 0) {
+					throw invalid("Missing required property '" + firstMissing(object) + "'");
+				}
+				break;
+			case END_ARRAY:
+				frames.pop();
+				break;
+			default:
+				readValue(token, expectedSchema());
+			}
+		}
+	}
+
+	private void readFieldName(Frame object) throws IOException {
+		String name = parser.currentName();
+		CompiledJsonSchema objectSchema = object.schema;
+		object.valueSchema = null;
+		if (objectSchema.requiredIndex != null) {
+			Integer index = objectSchema.requiredIndex.get(name);
+			if (index != null && !object.seenRequired[index]) {
+				object.seenRequired[index] = true;
+				object.missingRequired--;
+			}
+		}
+		if (objectSchema.properties != null && objectSchema.properties.containsKey(name)) {
+			object.valueSchema = objectSchema.properties.get(name);
+		} else if (!objectSchema.additionalProperties) {
+			throw invalid("Unknown property '" + name + "'");
+		}
+	}
+
+	/**
+	 * @return schema of the next value, null if any value is allowed
+	 */
+	private CompiledJsonSchema expectedSchema() {
+		Frame parent = frames.peek();
+		if (parent == null) {
+			if (rootRead) {
+				throw invalid("Unexpected content after JSON value");
+			}
+			rootRead = true;
+			return schema;
+		}
+		return parent.array ? parent.schema.items : parent.valueSchema;
+	}
+
+	private void readValue(JsonToken token, CompiledJsonSchema valueSchema) throws IOException {
+		if (valueSchema == null) {
+			if (token.isStructStart()) {
+				skipDepth = 1;
+			}
+			return;
+		}
+		switch (token) {
+		case START_OBJECT:
+			checkType(valueSchema, CompiledJsonSchema.OBJECT, "object");
+			push(new Frame(valueSchema, false));
+			break;
+		case START_ARRAY:
+			checkType(valueSchema, CompiledJsonSchema.ARRAY, "array");
+			push(new Frame(valueSchema, true));
+			break;
+		case VALUE_STRING:
+			checkType(valueSchema, CompiledJsonSchema.STRING, "string");
+			int length = parser.getTextLength();
+			if (length < valueSchema.minLength || length > valueSchema.maxLength) {
+				throw invalid("String length out of range at " + location());
+			}
+			if (valueSchema.allowedValues != null || valueSchema.pattern != null) {
+				String text = parser.getText();
+				checkAllowed(valueSchema, text);
+				if (valueSchema.pattern != null && !valueSchema.pattern.matcher(text).find()) {
+					throw invalid("String does not match pattern at " + location());
+				}
+			}
+			break;
+		case VALUE_NUMBER_INT:
+			checkType(valueSchema, CompiledJsonSchema.INTEGER, "integer");
+			if (valueSchema.allowedValues != null) {
+				checkAllowed(valueSchema, parser.getText());
+			}
+			break;
+		case VALUE_NUMBER_FLOAT:
+			checkType(valueSchema, CompiledJsonSchema.NUMBER, "number");
+			if (valueSchema.allowedValues != null) {
+				checkAllowed(valueSchema, parser.getText());
+			}
+			break;
+		case VALUE_TRUE:
+		case VALUE_FALSE:
+			checkType(valueSchema, CompiledJsonSchema.BOOLEAN, "boolean");
+			if (valueSchema.allowedValues != null) {
+				checkAllowed(valueSchema, parser.getText());
+			}
+			break;
+		case VALUE_NULL:
+			if (!valueSchema.nullable && valueSchema.types != 0) {
+				throw invalid("Unexpected null at " + location());
+			}
+			break;
+		default:
+			throw invalid("Unexpected token " + token);
+		}
+	}
+
+	private void push(Frame frame) {
+		if (frames.size() == MAX_DEPTH) {
+			throw invalid("Maximum nesting depth of " + MAX_DEPTH + " exceeded");
+		}
+		frames.push(frame);
+	}
+
+	private void checkType(CompiledJsonSchema valueSchema, int type, String name) {
+		if (!valueSchema.allows(type)) {
+			throw invalid("Unexpected " + name + " at " + location());
+		}
+	}
+
+	private void checkAllowed(CompiledJsonSchema valueSchema, String text) {
+		if (valueSchema.allowedValues != null && !valueSchema.allowedValues.contains(text)) {
+			throw invalid("Value not allowed at " + location());
+		}
+	}
+
+	/**
+	 * Runs on rejection only
+	 *
+	 * @return JSON pointer of the current value or "$" for the root value
+	 */
+	private String location() {
+		JsonStreamContext context = parser.getParsingContext();
+		if (parser.currentToken() != null && parser.currentToken().isStructStart()) {
+			context = context.getParent();
+		}
+		String pointer = context.pathAsPointer().toString();
+		return pointer.isEmpty() ? "$" : pointer;
+	}
+
+	private static String firstMissing(Frame object) {
+		for (int i = 0; i < object.seenRequired.length; i++) {
+			if (!object.seenRequired[i]) {
+				return object.schema.required[i];
+			}
+		}
+		return "";
+	}
+
+	private RequestBodyValidationException tokenTooLong() {
+		return invalid("Token exceeds the maximum length of " + maxTokenLength + " bytes");
+	}
+
+	private static RequestBodyValidationException invalid(String message) {
+		return new RequestBodyValidationException(message);
+	}
+
+	/**
+	 * Open object or array
+	 */
+	private static class Frame {
+
+		private final CompiledJsonSchema schema;
+		private final boolean array;
+		/** Schema of the value of the current property, null if any **/
+		private CompiledJsonSchema valueSchema;
+		private final boolean[] seenRequired;
+		private int missingRequired;
+
+		private Frame(CompiledJsonSchema schema, boolean array) {
+			this.schema = schema;
+			this.array = array;
+			seenRequired = array || schema.required == null ? null : new boolean[schema.required.length];
+			missingRequired = seenRequired == null ? 0 : seenRequired.length;
+		}
+	}
+
+}
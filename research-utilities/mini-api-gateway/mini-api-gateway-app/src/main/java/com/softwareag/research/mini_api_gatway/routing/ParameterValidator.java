@@ -0,0 +1,213 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.routing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.parameters.Parameter;
+import lombok.Getter;
+
+/**
+ * Validator for a single path, query or header parameter, compiled from its
+ * OpenAPI schema. Checks presence, type, enum and pattern of the values.
+ *
+ * @author jonsch
+ *
+ */
+public final class ParameterValidator {
+
+	public enum Location {
+		PATH, QUERY, HEADER
+	}
+
+	private enum ValueType {
+		STRING, INTEGER, NUMBER, BOOLEAN
+	}
+
+	@Getter
+	private final String name;
+
+	@Getter
+	private final Location location;
+
+	@Getter
+	private final boolean required;
+
+	/** Index of the path segment holding the value (path parameters only) **/
+	@Getter
+	private final int pathSegment;
+
+	/** Whether array items are separated by commas instead of repeated **/
+	private final boolean commaSeparated;
+
+	private final ValueType type;
+
+	private final Set<String> allowedValues;
+
+	private final Pattern pattern;
+
+	/** Prebuilt response bodies **/
+	@Getter
+	private final byte[] missingMessage;
+
+	@Getter
+	private final byte[] invalidMessage;
+
+	/**
+	 *
+	 * Runs at setup (low time-critical)
+	 *
+	 * @param parameter   the parameter with resolved references
+	 * @param schema      the schema of the parameter with resolved references
+	 * @param itemSchema  the schema of the array items with resolved references,
+	 *                    null if the parameter is no array
+	 * @param pathSegment see {@link #getPathSegment()}
+	 */
+	ParameterValidator(Parameter parameter, Schema<?> schema, Schema<?> itemSchema, int pathSegment) {
+		name = parameter.getName();
+		location = Location.valueOf(parameter.getIn().toUpperCase());
+		required = location == Location.PATH || Boolean.TRUE.equals(parameter.getRequired());
+		this.pathSegment = pathSegment;
+		// Arrays are validated item by item, query arrays are exploded by default
+		commaSeparated = itemSchema != null
+				&& (location != Location.QUERY || Boolean.FALSE.equals(parameter.getExplode()));
+		Schema<?> valueSchema = itemSchema != null ? itemSchema : schema;
+		type = valueType(valueSchema);
+		allowedValues = allowedValues(valueSchema);
+		pattern = valueSchema != null && valueSchema.getPattern() != null ? Pattern.compile(valueSchema.getPattern())
+				: null;
+		String description = location.name().toLowerCase() + " parameter '" + name + "'";
+		missingMessage = ("Missing required " + description).getBytes(StandardCharsets.UTF_8);
+		invalidMessage = ("Invalid value for " + description).getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static ValueType valueType(Schema<?> schema) {
+		if (schema == null || schema.getType() == null) {
+			return ValueType.STRING;
+		}
+		return switch (schema.getType()) {
+		case "integer" -> ValueType.INTEGER;
+		case "number" -> ValueType.NUMBER;
+		case "boolean" -> ValueType.BOOLEAN;
+		default -> ValueType.STRING;
+		};
+	}
+
+	private static Set<String> allowedValues(Schema<?> schema) {
+		if (schema == null || schema.getEnum() == null || schema.getEnum().isEmpty()) {
+			return null;
+		}
+		Set<String> values = new HashSet<>();
+		for (Object value : schema.getEnum()) {
+			values.add(String.valueOf(value));
+		}
+		return values;
+	}
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param values the values of the parameter, not null
+	 * @return whether all values are valid
+	 */
+	public boolean isValid(List<String> values) {
+		for (int i = 0; i < values.size(); i++) {
+			if (!isValid(values.get(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param value the raw value of the parameter, not null
+	 * @return whether the value is valid
+	 */
+	public boolean isValid(String value) {
+		if (!commaSeparated) {
+			return isValidItem(value, 0, value.length());
+		}
+		int start = 0;
+		int end;
+		while ((end = value.indexOf(',', start)) != -1) {
+			if (!isValidItem(value, start, end)) {
+				return false;
+			}
+			start = end + 1;
+		}
+		return isValidItem(value, start, value.length());
+	}
+
+	private boolean isValidItem(String value, int start, int end) {
+		boolean validType = switch (type) {
+		case INTEGER -> isInteger(value, start, end);
+		case NUMBER -> isNumber(value, start, end);
+		case BOOLEAN -> value.regionMatches(start, "true", 0, 4) && end - start == 4
+				|| value.regionMatches(start, "false", 0, 5) && end - start == 5;
+		case STRING -> true;
+		};
+		if (!validType) {
+			return false;
+		}
+		if (allowedValues == null && pattern == null) {
+			return true;
+		}
+		String item = start == 0 && end == value.length() ? value : value.substring(start, end);
+		return (allowedValues == null || allowedValues.contains(item))
+				&& (pattern == null || pattern.matcher(item).find());
+	}
+
+	private static boolean isInteger(String value, int start, int end) {
+		if (start < end && (value.charAt(start) == '-' || value.charAt(start) == '+')) {
+			start++;
+		}
+		return skipDigits(value, start, end) == end && start < end;
+	}
+
+	private static boolean isNumber(String value, int start, int end) {
+		if (start < end && (value.charAt(start) == '-' || value.charAt(start) == '+')) {
+			start++;
+		}
+		int position = skipDigits(value, start, end);
+		boolean digits = position > start;
+		if (position < end && value.charAt(position) == '.') {
+			int fractionStart = position + 1;
+			position = skipDigits(value, fractionStart, end);
+			digits |= position > fractionStart;
+		}
+		if (!digits) {
+			return false;
+		}
+		if (position < end && (value.charAt(position) == 'e' || value.charAt(position) == 'E')) {
+			position++;
+			if (position < end && (value.charAt(position) == '-' || value.charAt(position) == '+')) {
+				position++;
+			}
+			int exponentStart = position;
+			position = skipDigits(value, exponentStart, end);
+			if (position == exponentStart) {
+				return false;
+			}
+		}
+		return position == end;
+	}
+
+	private static int skipDigits(String value, int position, int end) {
+		while (position < end && value.charAt(position) >= '0' && value.charAt(position) <= '9') {
+			position++;
+		}
+		return position;
+	}
+
+}
@@ -0,0 +1,142 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.routing;
+
+import java.util.Map.Entry;
+
+import org.springframework.http.MediaType;
+
+import io.swagger.v3.oas.models.Components;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.media.Content;
+import io.swagger.v3.oas.models.parameters.RequestBody;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * JSON request body schemas of all active operations of an API specification,
+ * indexed by node of the {@link CompiledPathTree} and method like the
+ * {@link RequestParameterValidator}.
+ *
+ * @author jonsch
+ *
+ */
+@Slf4j
+public final class RequestBodyValidator {
+
+	private static final String REQUEST_BODY_REFERENCE = "#/components/requestBodies/";
+
+	/** Body schema by <code>node * METHOD_COUNT + method bit</code> **/
+	private final CompiledJsonSchema[] schemas;
+
+	/** Whether the operation has a JSON body, by the same index as the schemas **/
+	private final boolean[] validated;
+
+	private final boolean[] required;
+
+	/**
+	 *
+	 * Runs at setup (low time-critical)
+	 *
+	 * @param api      the parsed (unresolved) API specification
+	 * @param pathTree the tree compiled from the active paths of the specification
+	 */
+	RequestBodyValidator(OpenAPI api, CompiledPathTree pathTree) {
+		int size = pathTree.getNodeCount() * CompiledPathTree.METHOD_COUNT;
+		schemas = new CompiledJsonSchema[size];
+		validated = new boolean[size];
+		required = new boolean[size];
+		if (api.getPaths() == null) {
+			return;
+		}
+		Components components = api.getComponents();
+		for (Entry<String, PathItem> path : api.getPaths().entrySet()) {
+			int node = pathTree.find(path.getKey(), 0);
+			if (node == -1) {
+				continue;
+			}
+			for (Entry<PathItem.HttpMethod, Operation> operation : path.getValue().readOperationsMap().entrySet()) {
+				int methodFlag = CompiledPathTree.methodFlag(operation.getKey());
+				RequestBody body = resolve(operation.getValue().getRequestBody(), components);
+				if ((pathTree.getMethodFlags(node) & methodFlag) == 0 || body == null) {
+					continue;
+				}
+				io.swagger.v3.oas.models.media.MediaType json = jsonMediaType(body.getContent());
+				if (json == null) {
+					continue;
+				}
+				int index = node * CompiledPathTree.METHOD_COUNT + Integer.numberOfTrailingZeros(methodFlag);
+				schemas[index] = CompiledJsonSchema.compile(json.getSchema(), components);
+				validated[index] = true;
+				required[index] = Boolean.TRUE.equals(body.getRequired());
+			}
+		}
+	}
+
+	private static RequestBody resolve(RequestBody body, Components components) {
+		if (body == null || body.get$ref() == null) {
+			return body;
+		}
+		if (!body.get$ref().startsWith(REQUEST_BODY_REFERENCE) || components == null
+				|| components.getRequestBodies() == null) {
+			log.warn("Could not resolve request body reference {}, skipping validation", body.get$ref());
+			return null;
+		}
+		RequestBody resolved = components.getRequestBodies()
+				.get(body.get$ref().substring(REQUEST_BODY_REFERENCE.length()));
+		return resolved == null || resolved.get$ref() != null ? null : resolved;
+	}
+
+	private static io.swagger.v3.oas.models.media.MediaType jsonMediaType(Content content) {
+		if (content == null) {
+			return null;
+		}
+		for (Entry<String, io.swagger.v3.oas.models.media.MediaType> entry : content.entrySet()) {
+			if (isJson(entry.getKey())) {
+				return entry.getValue();
+			}
+		}
+		return null;
+	}
+
+	private static boolean isJson(String mediaType) {
+		try {
+			return isJson(MediaType.parseMediaType(mediaType));
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+	}
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param contentType content type of the request, may be null
+	 * @return whether the content type is JSON, i.e. application/json or
+	 *         application/*+json
+	 */
+	public static boolean isJson(MediaType contentType) {
+		return contentType != null && "application".equals(contentType.getType())
+				&& ("json".equals(contentType.getSubtype()) || contentType.getSubtype().endsWith("+json"));
+	}
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param node       see {@link CompiledPathTree#find(String, int)}
+	 * @param methodFlag     see {@link CompiledPathTree#methodFlag(org.springframework.http.HttpMethod)}
+	 * @param maxTokenLength maximum bytes of a single string, number or property
+	 *                       name in the body
+	 * @return a validator for the body of one request, null if the operation has
+	 *         no JSON body
+	 */
+	public JsonBodyValidator start(int node, int methodFlag, int maxTokenLength) {
+		int index = node * CompiledPathTree.METHOD_COUNT + Integer.numberOfTrailingZeros(methodFlag);
+		return validated[index] ? new JsonBodyValidator(schemas[index], required[index], maxTokenLength) : null;
+	}
+
+}
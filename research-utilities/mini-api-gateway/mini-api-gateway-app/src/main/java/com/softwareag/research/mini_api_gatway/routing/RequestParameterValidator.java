@@ -0,0 +1,251 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.routing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.util.UriUtils;
+
+import io.swagger.v3.oas.models.Components;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.parameters.Parameter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Path, query and header parameter validators of all active operations of an
+ * API specification, indexed by node of the {@link CompiledPathTree} and method.
+ * Requests are validated against the operation matched by the path validation,
+ * without looking up the operation again.
+ *
+ * @author jonsch
+ *
+ */
+@Slf4j
+public final class RequestParameterValidator {
+
+	private static final char SEPARATOR = '/';
+	private static final String PARAMETER_REFERENCE = "#/components/parameters/";
+	private static final String SCHEMA_REFERENCE = "#/components/schemas/";
+	private static final int MAX_REFERENCE_DEPTH = 16;
+
+	/** Header parameters that are ignored by OpenAPI **/
+	private static final Set<String> IGNORED_HEADERS = Set.of("accept", "content-type", "authorization");
+
+	/**
+	 * Parameter validators by <code>node * METHOD_COUNT + method bit</code>, null
+	 * if the operation has no parameters to validate
+	 **/
+	private final ParameterValidator[][] operations;
+
+	/**
+	 *
+	 * Runs at setup (low time-critical)
+	 *
+	 * @param api      the parsed (unresolved) API specification
+	 * @param pathTree the tree compiled from the active paths of the specification
+	 */
+	RequestParameterValidator(OpenAPI api, CompiledPathTree pathTree) {
+		operations = new ParameterValidator[pathTree.getNodeCount() * CompiledPathTree.METHOD_COUNT][];
+		if (api.getPaths() == null) {
+			return;
+		}
+		Components components = api.getComponents();
+		for (Entry<String, PathItem> path : api.getPaths().entrySet()) {
+			int node = pathTree.find(path.getKey(), 0);
+			if (node == -1) {
+				continue;
+			}
+			for (Entry<PathItem.HttpMethod, Operation> operation : path.getValue().readOperationsMap().entrySet()) {
+				int methodFlag = CompiledPathTree.methodFlag(operation.getKey());
+				if ((pathTree.getMethodFlags(node) & methodFlag) == 0) {
+					// Inactive operation
+					continue;
+				}
+				ParameterValidator[] validators = compileOperation(path.getKey(), path.getValue().getParameters(),
+						operation.getValue().getParameters(), components);
+				if (validators.length > 0) {
+					operations[node * CompiledPathTree.METHOD_COUNT + Integer.numberOfTrailingZeros(methodFlag)] = validators;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Operation parameters override path item parameters with the same name and
+	 * location
+	 */
+	private static ParameterValidator[] compileOperation(String path, List<Parameter> pathItemParameters,
+			List<Parameter> operationParameters, Components components) {
+		Map<String, Parameter> parameters = new LinkedHashMap<>();
+		for (List<Parameter> list : List.of(nonNull(pathItemParameters), nonNull(operationParameters))) {
+			for (Parameter parameter : list) {
+				Parameter resolved = resolve(parameter, components);
+				if (resolved != null && resolved.getName() != null && resolved.getIn() != null) {
+					parameters.put(resolved.getIn() + ":" + resolved.getName(), resolved);
+				}
+			}
+		}
+		List<ParameterValidator> validators = new ArrayList<>(parameters.size());
+		for (Parameter parameter : parameters.values()) {
+			int pathSegment = -1;
+			switch (parameter.getIn()) {
+			case "path":
+				pathSegment = pathSegment(path, parameter.getName());
+				if (pathSegment == -1) {
+					log.warn("Path parameter {} is not part of path {}, skipping validation", parameter.getName(), path);
+					continue;
+				}
+				break;
+			case "header":
+				if (IGNORED_HEADERS.contains(parameter.getName().toLowerCase())) {
+					continue;
+				}
+				break;
+			case "query":
+				break;
+			default:
+				// Cookie parameters are not validated
+				continue;
+			}
+			Schema<?> schema = resolve(parameter.getSchema(), components);
+			Schema<?> itemSchema = null;
+			if (schema != null && "array".equals(schema.getType())) {
+				itemSchema = schema.getItems() == null ? new Schema<>() : resolve(schema.getItems(), components);
+			}
+			validators.add(new ParameterValidator(parameter, schema, itemSchema, pathSegment));
+		}
+		return validators.toArray(new ParameterValidator[0]);
+	}
+
+	private static <T> List<T> nonNull(List<T> list) {
+		return list == null ? List.of() : list;
+	}
+
+	/**
+	 * @return index of the segment <code>{name}</code> in the path, -1 if not
+	 *         present
+	 */
+	private static int pathSegment(String path, String name) {
+		String[] segments = (path.length() > 0 && path.charAt(0) == SEPARATOR ? path.substring(1) : path).split("/");
+		for (int i = 0; i < segments.length; i++) {
+			if (segments[i].equals("{" + name + "}")) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static Parameter resolve(Parameter parameter, Components components) {
+		for (int depth = 0; parameter != null && parameter.get$ref() != null; depth++) {
+			if (depth == MAX_REFERENCE_DEPTH || components == null || components.getParameters() == null
+					|| !parameter.get$ref().startsWith(PARAMETER_REFERENCE)) {
+				log.warn("Could not resolve parameter reference {}, skipping validation", parameter.get$ref());
+				return null;
+			}
+			parameter = components.getParameters().get(parameter.get$ref().substring(PARAMETER_REFERENCE.length()));
+		}
+		return parameter;
+	}
+
+	/**
+	 * @return the referenced schema or null (no validation of the value) if it
+	 *         can not be resolved
+	 */
+	private static Schema<?> resolve(Schema<?> schema, Components components) {
+		for (int depth = 0; schema != null && schema.get$ref() != null; depth++) {
+			if (depth == MAX_REFERENCE_DEPTH || components == null || components.getSchemas() == null
+					|| !schema.get$ref().startsWith(SCHEMA_REFERENCE)) {
+				log.warn("Could not resolve schema reference {}, skipping validation", schema.get$ref());
+				return null;
+			}
+			schema = components.getSchemas().get(schema.get$ref().substring(SCHEMA_REFERENCE.length()));
+		}
+		return schema;
+	}
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param request    the request, already matched to the node and method
+	 * @param node       see {@link CompiledPathTree#find(String, int)}
+	 * @param methodFlag see {@link CompiledPathTree#methodFlag(org.springframework.http.HttpMethod)}
+	 * @param from       start of the API path in the request path
+	 * @return the message of the first violation, or null if the parameters are
+	 *         valid
+	 */
+	public byte[] validate(ServerHttpRequest request, int node, int methodFlag, int from) {
+		ParameterValidator[] validators = operations[node * CompiledPathTree.METHOD_COUNT
+				+ Integer.numberOfTrailingZeros(methodFlag)];
+		if (validators == null) {
+			return null;
+		}
+		for (ParameterValidator validator : validators) {
+			switch (validator.getLocation()) {
+			case PATH:
+				String segment = pathSegment(request.getPath().value(), from, validator.getPathSegment());
+				if (segment == null || segment.isEmpty()) {
+					return validator.getMissingMessage();
+				}
+				if (!validator.isValid(segment)) {
+					return validator.getInvalidMessage();
+				}
+				break;
+			case QUERY:
+				List<String> queryValues = request.getQueryParams().get(validator.getName());
+				if (queryValues == null || queryValues.isEmpty()) {
+					if (validator.isRequired()) {
+						return validator.getMissingMessage();
+					}
+				} else if (!validator.isValid(queryValues)) {
+					return validator.getInvalidMessage();
+				}
+				break;
+			case HEADER:
+				List<String> headerValues = request.getHeaders().get(validator.getName());
+				if (headerValues == null || headerValues.isEmpty()) {
+					if (validator.isRequired()) {
+						return validator.getMissingMessage();
+					}
+				} else if (!validator.isValid(headerValues)) {
+					return validator.getInvalidMessage();
+				}
+				break;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @return the decoded segment of the API path with the given index, or null
+	 */
+	private static String pathSegment(String path, int from, int index) {
+		int start = from < path.length() && path.charAt(from) == SEPARATOR ? from + 1 : from;
+		for (int i = 0; i < index; i++) {
+			start = path.indexOf(SEPARATOR, start);
+			if (start == -1) {
+				return null;
+			}
+			start++;
+		}
+		int end = path.indexOf(SEPARATOR, start);
+		String segment = path.substring(start, end == -1 ? path.length() : end);
+		return segment.indexOf('%') == -1 ? segment : UriUtils.decode(segment, StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,58 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.routing;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_HANDLER_MAPPER_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.handler.AbstractHandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.softwareag.research.mini_api_gatway.RouteService;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Dispatches requests to <code>/gateway/{name}/{version}/**</code> with a
+ * single {@link RouteDispatchIndex} lookup instead of testing the path
+ * predicate of every route one by one. Requests that do not match any route
+ * fall through to the default Spring Cloud Gateway handler mapping.
+ *
+ * @author jonsch
+ *
+ */
+@Component
+public class RouteDispatchHandlerMapping extends AbstractHandlerMapping {
+
+	private final RouteService routeService;
+
+	private final CompiledRouteWebHandler webHandler;
+
+	public RouteDispatchHandlerMapping(RouteService routeService, CompiledRouteWebHandler webHandler) {
+		this.routeService = routeService;
+		this.webHandler = webHandler;
+		// Before RoutePredicateHandlerMapping of Spring Cloud Gateway (order 1)
+		setOrder(0);
+	}
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 */
+	@Override
+	protected Mono<?> getHandlerInternal(ServerWebExchange exchange) {
+		CompiledRoute route = routeService.getSnapshot().getDispatchIndex()
+				.lookup(exchange.getRequest().getPath().pathWithinApplication().value());
+		if (route == null) {
+			return Mono.empty();
+		}
+		exchange.getAttributes().put(GATEWAY_HANDLER_MAPPER_ATTR, getClass().getSimpleName());
+		exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, route.getRoute());
+		exchange.getAttributes().put(CompiledRoute.COMPILED_ROUTE_ATTR, route);
+		return Mono.just(webHandler);
+	}
+
+}
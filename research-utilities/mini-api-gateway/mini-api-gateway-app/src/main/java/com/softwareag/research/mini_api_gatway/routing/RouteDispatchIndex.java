@@ -0,0 +1,118 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.routing;
+
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.softwareag.research.mini_api_gatway.configuration.Constants;
+
+/**
+ * Immutable hash index that resolves gateway proxy paths of the form
+ * <code>/gateway/{name}/{version}/**</code> to the route registered for that
+ * name and version. Name and version are hashed and compared directly on the
+ * raw request path, so a lookup costs the same for 10 or 100k routes and does
+ * not allocate.
+ *
+ * @author jonsch
+ *
+ * @param <T> type of the indexed routes
+ */
+public final class RouteDispatchIndex<T> {
+
+	private static final char SEPARATOR = '/';
+	private static final String PATH_PREFIX = Constants.GATEWAY_PROXY_PATH + SEPARATOR;
+
+	// Open addressing table with linear probing, at most half full
+	private final String[] keys;
+	private final Object[] values;
+	private final int mask;
+	private final int size;
+
+	/**
+	 *
+	 * @param routes routes by their key, see {@link #key(String, String)}
+	 */
+	public RouteDispatchIndex(Map<String, T> routes) {
+		int capacity = 2;
+		while (capacity < routes.size() * 2) {
+			capacity <<= 1;
+		}
+		keys = new String[capacity];
+		values = new Object[capacity];
+		mask = capacity - 1;
+		size = routes.size();
+		for (Entry<String, T> route : routes.entrySet()) {
+			int index = spread(route.getKey().hashCode()) & mask;
+			while (keys[index] != null) {
+				index = (index + 1) & mask;
+			}
+			keys[index] = route.getKey();
+			values[index] = route.getValue();
+		}
+	}
+
+	/**
+	 * Creates the index key of a route
+	 *
+	 * @param name    route name
+	 * @param version route version
+	 * @return the key
+	 */
+	public static String key(String name, String version) {
+		return name + SEPARATOR + version;
+	}
+
+	/**
+	 * Runs on request (high time-critical)
+	 *
+	 * @param path raw request path, e.g. <code>/gateway/petstore/v1/pets</code>
+	 * @return the route matching name and version of the path or null
+	 */
+	@SuppressWarnings("unchecked")
+	public T lookup(String path) {
+		if (!path.startsWith(PATH_PREFIX)) {
+			return null;
+		}
+		int start = PATH_PREFIX.length();
+		int nameEnd = path.indexOf(SEPARATOR, start);
+		if (nameEnd <= start) {
+			// No version or empty name
+			return null;
+		}
+		int end = path.indexOf(SEPARATOR, nameEnd + 1);
+		if (end == -1) {
+			end = path.length();
+		}
+		if (end == nameEnd + 1) {
+			// Empty version
+			return null;
+		}
+		int length = end - start;
+		// Same as String.hashCode() of the key
+		int hash = 0;
+		for (int i = start; i < end; i++) {
+			hash = 31 * hash + path.charAt(i);
+		}
+		int index = spread(hash) & mask;
+		String key;
+		while ((key = keys[index]) != null) {
+			if (key.length() == length && path.regionMatches(start, key, 0, length)) {
+				return (T) values[index];
+			}
+			index = (index + 1) & mask;
+		}
+		return null;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	private static int spread(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+}
@@ -0,0 +1,121 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.routing;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Immutable, fully compiled generation of the route table. A refresh builds a
+ * new snapshot from a copy of the current one and publishes it with a single
+ * reference swap. Requests keep the {@link CompiledRoute} they were dispatched
+ * to, so in-flight requests finish on the generation they started on.
+ *
+ * @author jonsch
+ *
+ */
+@Getter
+@Slf4j
+public final class RouteSnapshot {
+
+	/** Sequence number of this snapshot, the initial empty snapshot is 0 **/
+	private final long generation;
+
+	/** Time when the snapshot was published **/
+	private final Instant builtAt;
+
+	/** Time it took to load and compile the changed routes **/
+	private final Duration buildDuration;
+
+	/** Compiled routes by route ID **/
+	private final Map<Long, CompiledRoute> routes;
+
+	/** IDs of routes that failed to compile in this or previous generations **/
+	private final Set<Long> failedRouteIds;
+
+	/** Names of the global filters applied by each route, including inactive ones **/
+	private final Map<Long, Set<String>> routeGlobalFilters;
+
+	/** Reverse index of {@link #routeGlobalFilters}: IDs of the routes by applied global filter name **/
+	private final Map<String, Set<Long>> globalFilterRoutes;
+
+	private final RouteDispatchIndex<CompiledRoute> dispatchIndex;
+
+	private RouteSnapshot(long generation, Instant builtAt, Duration buildDuration, Map<Long, CompiledRoute> routes,
+			Set<Long> failedRouteIds, Map<Long, Set<String>> routeGlobalFilters) {
+		this.generation = generation;
+		this.builtAt = builtAt;
+		this.buildDuration = buildDuration;
+		this.routes = Collections.unmodifiableMap(routes);
+		this.failedRouteIds = Set.copyOf(failedRouteIds);
+		this.routeGlobalFilters = Collections.unmodifiableMap(routeGlobalFilters);
+		this.globalFilterRoutes = invert(routeGlobalFilters);
+		this.dispatchIndex = new RouteDispatchIndex<>(indexByEndpoint(routes));
+	}
+
+	public static RouteSnapshot empty() {
+		return new RouteSnapshot(0, Instant.now(), Duration.ZERO, Map.of(), Set.of(), Map.of());
+	}
+
+	/**
+	 *
+	 * @param globalFilterName
+	 * @return IDs of all routes (active or not) that apply the global filter
+	 */
+	public Set<Long> getRoutesUsingGlobalFilter(String globalFilterName) {
+		return globalFilterRoutes.getOrDefault(globalFilterName, Set.of());
+	}
+
+	/**
+	 * Creates the next generation. The given collections must not be modified
+	 * afterwards.
+	 *
+	 * @param routes             all compiled routes of the new generation
+	 * @param failedRouteIds     all routes that could not be compiled
+	 * @param routeGlobalFilters global filter names applied by each route
+	 * @param buildStart         time when building the new generation started
+	 * @return the new snapshot
+	 */
+	public RouteSnapshot next(Map<Long, CompiledRoute> routes, Set<Long> failedRouteIds,
+			Map<Long, Set<String>> routeGlobalFilters, Instant buildStart) {
+		Instant now = Instant.now();
+		return new RouteSnapshot(generation + 1, now, Duration.between(buildStart, now), routes, failedRouteIds,
+				routeGlobalFilters);
+	}
+
+	private static Map<String, Set<Long>> invert(Map<Long, Set<String>> routeGlobalFilters) {
+		Map<String, Set<Long>> index = new HashMap<>();
+		for (Entry<Long, Set<String>> entry : routeGlobalFilters.entrySet()) {
+			for (String name : entry.getValue()) {
+				index.computeIfAbsent(name, key -> new HashSet<>()).add(entry.getKey());
+			}
+		}
+		index.replaceAll((name, routeIds) -> Collections.unmodifiableSet(routeIds));
+		return Collections.unmodifiableMap(index);
+	}
+
+	private static Map<String, CompiledRoute> indexByEndpoint(Map<Long, CompiledRoute> routes) {
+		Map<String, CompiledRoute> index = new HashMap<>(routes.size() * 2);
+		for (CompiledRoute route : routes.values()) {
+			CompiledRoute previous = index.putIfAbsent(RouteDispatchIndex.key(route.getName(), route.getVersion()),
+					route);
+			if (previous != null) {
+				log.warn("Route {} is shadowed by route {} with same name and version", route.getId(),
+						previous.getId());
+			}
+		}
+		return index;
+	}
+
+}
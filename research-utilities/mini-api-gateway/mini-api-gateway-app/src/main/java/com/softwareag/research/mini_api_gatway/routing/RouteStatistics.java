@@ -0,0 +1,72 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.routing;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request counters of a route. Kept when the route is recompiled.
+ *
+ * @author jonsch
+ *
+ */
+public class RouteStatistics {
+
+	private final LongAdder rejectedNotFound = new LongAdder();
+
+	private final LongAdder rejectedMethodNotAllowed = new LongAdder();
+
+	private final LongAdder rejectedInvalidParameters = new LongAdder();
+
+	private final LongAdder rejectedInvalidBody = new LongAdder();
+
+	public void recordNotFound() {
+		rejectedNotFound.increment();
+	}
+
+	public void recordMethodNotAllowed() {
+		rejectedMethodNotAllowed.increment();
+	}
+
+	public void recordInvalidParameters() {
+		rejectedInvalidParameters.increment();
+	}
+
+	public void recordInvalidBody() {
+		rejectedInvalidBody.increment();
+	}
+
+	/**
+	 * @return number of requests rejected because the path is not specified
+	 */
+	public long getRejectedNotFound() {
+		return rejectedNotFound.sum();
+	}
+
+	/**
+	 * @return number of requests rejected because the method is not specified for
+	 *         the path
+	 */
+	public long getRejectedMethodNotAllowed() {
+		return rejectedMethodNotAllowed.sum();
+	}
+
+	/**
+	 * @return number of requests rejected because a parameter is missing or does
+	 *         not match the specification
+	 */
+	public long getRejectedInvalidParameters() {
+		return rejectedInvalidParameters.sum();
+	}
+
+	/**
+	 * @return number of requests rejected because the body is malformed or does
+	 *         not match the specification
+	 */
+	public long getRejectedInvalidBody() {
+		return rejectedInvalidBody.sum();
+	}
+
+}
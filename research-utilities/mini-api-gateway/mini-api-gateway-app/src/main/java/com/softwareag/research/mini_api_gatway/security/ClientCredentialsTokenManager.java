@@ -0,0 +1,214 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.security;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.security.oauth2.client.endpoint.OAuth2ClientCredentialsGrantRequest;
+import org.springframework.security.oauth2.client.endpoint.WebClientReactiveClientCredentialsTokenResponseClient;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AccessTokenResponse;
+import org.springframework.stereotype.Component;
+
+import com.softwareag.research.mini_api_gatway.utils.SideCallClient;
+import com.softwareag.research.mini_api_gatway.utils.SingleFlight;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Gateway-wide cache of access tokens of grant type client_credentials, shared
+ * by all filters (e.g.
+ * {@link com.softwareag.research.mini_api_gatway.model.filters.OAuth2ClientCredentialsFilter})
+ * with the same issuer, client and scopes. Tokens that are in use are
+ * refreshed in the background before they expire, concurrent requests for a
+ * missing or expired token share one token request. Discovery and token
+ * requests are non-blocking, token endpoints are discovered with the
+ * {@link OidcMetadataService}. Filters are deserialized with each route refresh
+ * and can not be injected, so they obtain the manager with {@link #get()}.
+ * Token requests use the pooled {@link SideCallClient}, which therefore has to
+ * be initialized first.
+ *
+ * @author jonsch
+ *
+ */
+@Component
+@DependsOn("sideCallClient")
+@Slf4j
+public class ClientCredentialsTokenManager {
+
+	/** Interval of the background refresh **/
+	private static final Duration REFRESH_INTERVAL = Duration.ofSeconds(5);
+
+	/** Milliseconds a token must remain valid to be used for a request **/
+	private static final long MIN_VALIDITY = 5000;
+
+	/** Used until the component is initialized, e.g. in unit tests **/
+	private static final ClientCredentialsTokenManager fallbackManager = new ClientCredentialsTokenManager();
+
+	private static volatile ClientCredentialsTokenManager instance;
+
+	/** Token of each issuer, client and scopes **/
+	private final Map<TokenKey, TokenEntry> tokens = new ConcurrentHashMap<>();
+
+	private final WebClientReactiveClientCredentialsTokenResponseClient tokenResponseClient = new WebClientReactiveClientCredentialsTokenResponseClient();
+
+	@Value("${gateway.client-credentials.refresh-before-expiry-ms}")
+	private long refreshBeforeExpiry = 60000;
+
+	@Value("${gateway.client-credentials.idle-timeout-ms}")
+	private long idleTimeout = 600000;
+
+	private Disposable refreshTask;
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @return the shared token manager
+	 */
+	public static ClientCredentialsTokenManager get() {
+		ClientCredentialsTokenManager current = instance;
+		return current != null ? current : fallbackManager;
+	}
+
+	@PostConstruct
+	private void initialize() {
+		tokenResponseClient.setWebClient(SideCallClient.get());
+		refreshTask = Flux.interval(REFRESH_INTERVAL, REFRESH_INTERVAL)
+				.onBackpressureDrop()
+				.subscribe(tick -> refreshExpiring());
+		instance = this;
+	}
+
+	@PreDestroy
+	private void dispose() {
+		instance = null;
+		refreshTask.dispose();
+	}
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param issuerUrl    OpenID Connect issuer of the token endpoint
+	 * @param clientId     the client ID
+	 * @param clientSecret the client secret
+	 * @param scopes       requested scopes, may be null
+	 * @return a valid access token
+	 */
+	public Mono<String> getToken(String issuerUrl, String clientId, String clientSecret, Collection<String> scopes) {
+		TokenKey key = new TokenKey(issuerUrl, clientId, clientSecret,
+				scopes == null ? Set.of() : Set.copyOf(scopes));
+		TokenEntry entry = tokens.computeIfAbsent(key, TokenEntry::new);
+		entry.lastUsed = System.nanoTime();
+		OAuth2AccessToken token = entry.token;
+		if (token != null && isValid(token, MIN_VALIDITY)) {
+			return Mono.just(token.getTokenValue());
+		}
+		return entry.fetch().map(OAuth2AccessToken::getTokenValue);
+	}
+
+	/**
+	 * Refreshes tokens that were used recently and expire soon, removes the
+	 * others once expired
+	 *
+	 * Runs in background (low time-critical)
+	 */
+	private void refreshExpiring() {
+		long now = System.nanoTime();
+		for (TokenEntry entry : tokens.values()) {
+			OAuth2AccessToken token = entry.token;
+			if (now - entry.lastUsed > Duration.ofMillis(idleTimeout).toNanos()) {
+				if (token == null || !isValid(token, 0)) {
+					tokens.remove(entry.key, entry);
+				}
+			} else if (token != null && !isValid(token, refreshBeforeExpiry)) {
+				entry.fetch().subscribe(refreshed -> {
+				}, error -> log.warn("Background refresh of token for client {} at {} failed: {}",
+						entry.key.clientId(), entry.key.issuerUrl(), error.getMessage()));
+			}
+		}
+	}
+
+	/**
+	 * @param margin milliseconds the token must remain valid
+	 */
+	private static boolean isValid(OAuth2AccessToken token, long margin) {
+		Instant expiresAt = token.getExpiresAt();
+		return expiresAt == null || Instant.now().plusMillis(margin).isBefore(expiresAt);
+	}
+
+	private static Mono<String> tokenEndpoint(String issuerUrl) {
+		return OidcMetadataService.get().getMetadata(issuerUrl).handle((metadata, sink) -> {
+			if (metadata.tokenEndpoint() == null) {
+				sink.error(new IllegalStateException("Issuer " + issuerUrl + " has no token endpoint"));
+			} else {
+				sink.next(metadata.tokenEndpoint());
+			}
+		});
+	}
+
+	/**
+	 * Issuer, client and scopes of a token
+	 */
+	private record TokenKey(String issuerUrl, String clientId, String clientSecret, Set<String> scopes) {
+
+		@Override
+		public String toString() {
+			return clientId + "@" + issuerUrl + " " + scopes;
+		}
+	}
+
+	/**
+	 * Current token and pending token request of a key
+	 */
+	private final class TokenEntry {
+
+		private final TokenKey key;
+
+		private volatile OAuth2AccessToken token;
+
+		private volatile long lastUsed = System.nanoTime();
+
+		private final SingleFlight<OAuth2AccessToken> tokenRequest = new SingleFlight<>();
+
+		private TokenEntry(TokenKey key) {
+			this.key = key;
+		}
+
+		private Mono<OAuth2AccessToken> fetch() {
+			return tokenRequest.run(() -> tokenEndpoint(key.issuerUrl())
+					.flatMap(tokenEndpoint -> tokenResponseClient
+							.getTokenResponse(new OAuth2ClientCredentialsGrantRequest(registration(tokenEndpoint))))
+					.map(OAuth2AccessTokenResponse::getAccessToken)
+					.doOnNext(accessToken -> token = accessToken));
+		}
+
+		private ClientRegistration registration(String tokenEndpoint) {
+			return ClientRegistration.withRegistrationId(key.clientId())
+					.clientId(key.clientId())
+					.clientSecret(key.clientSecret())
+					.authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+					.scope(key.scopes())
+					.tokenUri(tokenEndpoint)
+					.build();
+		}
+	}
+
+}
@@ -0,0 +1,203 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Bounded thread pool for CPU-heavy token work, i.e. signature verification,
+ * so that the Netty event loops stay free for I/O under load. While the pool
+ * is idle, one task at a time runs inline on the calling thread, as a thread
+ * hop would only add latency. Results of offloaded tasks are emitted on the
+ * parallel scheduler, so the work after the verification does not occupy the
+ * pool. When the queue is full the task fails with a
+ * {@link RejectedExecutionException} instead of running on the event loop,
+ * which bounds the memory and the wait time of the pool.
+ *
+ * @author jonsch
+ *
+ */
+@Component
+@Slf4j
+public class CryptoScheduler {
+
+	@Value("${security.crypto.threads}")
+	private int threads;
+
+	@Value("${security.crypto.queue-size}")
+	private int queueSize;
+
+	private ThreadPoolExecutor executor;
+
+	/** Tasks queued or running in the pool **/
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	/** Whether a task runs inline, so that a burst on an idle pool is offloaded **/
+	private final AtomicBoolean inlineRunning = new AtomicBoolean();
+
+	private final LongAdder inline = new LongAdder();
+
+	private final LongAdder offloaded = new LongAdder();
+
+	private final LongAdder rejected = new LongAdder();
+
+	private final LongAdder totalWaitNanos = new LongAdder();
+
+	private final AtomicLong maxWaitNanos = new AtomicLong();
+
+	@PostConstruct
+	private void initialize() {
+		int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		AtomicInteger threadNumber = new AtomicInteger();
+		executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueSize), runnable -> {
+					Thread thread = new Thread(runnable, "crypto-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		log.info("Verifying token signatures with {} threads", poolSize);
+	}
+
+	@PreDestroy
+	private void dispose() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param task CPU-bound task, e.g. a signature verification
+	 * @return the result of the task, emitted on the calling thread if the pool
+	 *         was idle, otherwise on the parallel scheduler, or a
+	 *         {@link RejectedExecutionException} if the queue is full
+	 */
+	public <T> Mono<T> execute(Callable<T> task) {
+		return Mono.defer(() -> {
+			if (isIdle() && inlineRunning.compareAndSet(false, true)) {
+				inline.increment();
+				return Mono.fromCallable(task).doFinally(signal -> inlineRunning.set(false));
+			}
+			return offload(task);
+		});
+	}
+
+	/**
+	 * Runs on request (high time-critical)
+	 *
+	 * @return whether no task is queued or running in the pool
+	 */
+	private boolean isIdle() {
+		return executor.getActiveCount() == 0 && executor.getQueue().isEmpty();
+	}
+
+	private <T> Mono<T> offload(Callable<T> task) {
+		return Mono.<T>create(sink -> {
+			long submitted = System.nanoTime();
+			Runnable runnable = () -> {
+				recordWait(System.nanoTime() - submitted);
+				run(task, sink);
+			};
+			inFlight.incrementAndGet();
+			try {
+				executor.execute(runnable);
+			} catch (RejectedExecutionException e) {
+				inFlight.decrementAndGet();
+				rejected.increment();
+				sink.error(e);
+				return;
+			}
+			offloaded.increment();
+			sink.onCancel(() -> {
+				if (executor.remove(runnable)) {
+					inFlight.decrementAndGet();
+				}
+			});
+		}).publishOn(Schedulers.parallel());
+	}
+
+	/**
+	 * Leaves the in-flight count before emitting
+	 */
+	private <T> void run(Callable<T> task, MonoSink<T> sink) {
+		T result;
+		try {
+			result = task.call();
+		} catch (Throwable e) {
+			inFlight.decrementAndGet();
+			sink.error(e);
+			return;
+		}
+		inFlight.decrementAndGet();
+		sink.success(result);
+	}
+
+	private void recordWait(long waitNanos) {
+		totalWaitNanos.add(waitNanos);
+		long max = maxWaitNanos.get();
+		while (waitNanos > max && !maxWaitNanos.compareAndSet(max, waitNanos)) {
+			max = maxWaitNanos.get();
+		}
+	}
+
+	public int getThreads() {
+		return executor.getMaximumPoolSize();
+	}
+
+	public int getQueueDepth() {
+		return executor.getQueue().size();
+	}
+
+	public int getQueueSize() {
+		return queueSize;
+	}
+
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	/** Tasks that ran inline because the pool was idle **/
+	public long getInline() {
+		return inline.sum();
+	}
+
+	/** Tasks that were queued for the pool **/
+	public long getOffloaded() {
+		return offloaded.sum();
+	}
+
+	/** Tasks that failed because the queue was full **/
+	public long getRejected() {
+		return rejected.sum();
+	}
+
+	/** Total nanoseconds offloaded tasks waited for a thread **/
+	public long getTotalWaitNanos() {
+		return totalWaitNanos.sum();
+	}
+
+	public long getMaxWaitNanos() {
+		return maxWaitNanos.get();
+	}
+
+}
@@ -0,0 +1,243 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.security;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import com.softwareag.research.mini_api_gatway.model.OpenIDConnectIssuer;
+import com.softwareag.research.mini_api_gatway.model.OpenIDConnectIssuer.IssuerMatchMode;
+
+/**
+ * Immutable radix tree of the registered issuer URLs. Nodes and edges are
+ * stored in flat arrays, edges are sorted by their first character and chains
+ * of characters without issuers are merged into a single edge. Token issuers
+ * are matched in place, without parsing them as URI or creating intermediate
+ * Strings. A FULL_MATCH issuer takes precedence over PREFIX_MATCH issuers, the
+ * longest matching prefix takes precedence over shorter ones. A prefix without
+ * path only matches issuers with the same host and port, e.g.
+ * <code>https://idp.example</code> does not match
+ * <code>https://idp.example.org</code>.
+ *
+ * @author jonsch
+ *
+ */
+public final class IssuerIndex {
+
+	private static final int NONE = -1;
+
+	/** Issuer that equals the path of each node, or null **/
+	private final OpenIDConnectIssuer[] fullMatches;
+
+	/** Issuer whose prefix equals the path of each node, or null **/
+	private final OpenIDConnectIssuer[] prefixMatches;
+
+	/** Whether the prefix of each node ends within the host and port **/
+	private final boolean[] prefixEndsInAuthority;
+
+	/** Index of the first edge of each node in the edge arrays **/
+	private final int[] firstEdge;
+
+	/** Number of edges of each node **/
+	private final int[] edgeCount;
+
+	/** Labels of the edges, sorted by their first character per node **/
+	private final String[] edgeLabels;
+
+	/** Target nodes of the edges **/
+	private final int[] edgeTargets;
+
+	private IssuerIndex(int nodes, int edges) {
+		fullMatches = new OpenIDConnectIssuer[nodes];
+		prefixMatches = new OpenIDConnectIssuer[nodes];
+		prefixEndsInAuthority = new boolean[nodes];
+		firstEdge = new int[nodes];
+		edgeCount = new int[nodes];
+		edgeLabels = new String[edges];
+		edgeTargets = new int[edges];
+	}
+
+	/**
+	 *
+	 * Runs at setup (low time-critical)
+	 *
+	 * @param issuers registered issuers, the first one wins if an issuer URL is
+	 *                registered twice with the same match mode
+	 * @return the compiled index
+	 */
+	public static IssuerIndex compile(Collection<OpenIDConnectIssuer> issuers) {
+		Node root = new Node();
+		for (OpenIDConnectIssuer issuer : issuers) {
+			root.insert(issuer);
+		}
+		List<Node> nodes = new ArrayList<>();
+		int edges = root.collect(nodes);
+		IssuerIndex index = new IssuerIndex(nodes.size(), edges);
+		int edge = 0;
+		for (int i = 0; i < nodes.size(); i++) {
+			Node node = nodes.get(i);
+			index.fullMatches[i] = node.fullMatch;
+			index.prefixMatches[i] = node.prefixMatch;
+			index.prefixEndsInAuthority[i] = node.prefixMatch != null && endsInAuthority(node.prefixMatch.getIssuer());
+			index.firstEdge[i] = edge;
+			index.edgeCount[i] = node.children.size();
+			for (Entry<Character, Node> child : node.children.entrySet()) {
+				StringBuilder label = new StringBuilder().append(child.getKey().charValue());
+				Node target = child.getValue().compressedTarget(label);
+				index.edgeLabels[edge] = label.toString();
+				index.edgeTargets[edge] = target.id;
+				edge++;
+			}
+		}
+		return index;
+	}
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param issuer the issuer of a token
+	 * @return the most specific registered issuer matching it, null if none
+	 *         matches
+	 */
+	public OpenIDConnectIssuer find(String issuer) {
+		int length = issuer.length();
+		int node = 0;
+		int position = 0;
+		OpenIDConnectIssuer match = null;
+		while (true) {
+			OpenIDConnectIssuer prefixMatch = prefixMatches[node];
+			if (prefixMatch != null && (!prefixEndsInAuthority[node] || position == length
+					|| isAuthorityEnd(issuer.charAt(position)))) {
+				match = prefixMatch;
+			}
+			if (position == length) {
+				return fullMatches[node] != null ? fullMatches[node] : match;
+			}
+			int edge = findEdge(node, issuer.charAt(position));
+			if (edge == NONE) {
+				return match;
+			}
+			String label = edgeLabels[edge];
+			if (!issuer.regionMatches(position, label, 0, label.length())) {
+				return match;
+			}
+			position += label.length();
+			node = edgeTargets[edge];
+		}
+	}
+
+	public int getNodeCount() {
+		return fullMatches.length;
+	}
+
+	/**
+	 * Binary search for the edge starting with the character
+	 */
+	private int findEdge(int node, char character) {
+		int low = firstEdge[node];
+		int high = low + edgeCount[node] - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			char first = edgeLabels[middle].charAt(0);
+			if (first < character) {
+				low = middle + 1;
+			} else if (first > character) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return NONE;
+	}
+
+	private static boolean isAuthorityEnd(char character) {
+		return character == '/' || character == '?' || character == '#';
+	}
+
+	/**
+	 * @return whether the URL has no path, i.e. a prefix match must not extend
+	 *         its host or port
+	 */
+	private static boolean endsInAuthority(String url) {
+		int scheme = url.indexOf("://");
+		if (scheme == NONE) {
+			return false;
+		}
+		for (int i = scheme + 3; i < url.length(); i++) {
+			if (isAuthorityEnd(url.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Mutable node used while compiling the index
+	 */
+	private static class Node {
+
+		private int id;
+		private OpenIDConnectIssuer fullMatch;
+		private OpenIDConnectIssuer prefixMatch;
+		// Sorted by character, matching the binary search on request
+		private final TreeMap<Character, Node> children = new TreeMap<>();
+
+		private void insert(OpenIDConnectIssuer issuer) {
+			String url = issuer.getIssuer();
+			Node node = this;
+			for (int i = 0; i < url.length(); i++) {
+				node = node.children.computeIfAbsent(url.charAt(i), character -> new Node());
+			}
+			if (issuer.getMatchMode() == IssuerMatchMode.FULL_MATCH) {
+				if (node.fullMatch == null) {
+					node.fullMatch = issuer;
+				}
+			} else if (node.prefixMatch == null) {
+				node.prefixMatch = issuer;
+			}
+		}
+
+		/**
+		 * @return whether the node only forwards to a single child and can be
+		 *         merged into the edge pointing to it
+		 */
+		private boolean isPassThrough() {
+			return fullMatch == null && prefixMatch == null && children.size() == 1;
+		}
+
+		/**
+		 * Follows pass-through nodes and appends their characters to the label
+		 */
+		private Node compressedTarget(StringBuilder label) {
+			Node target = this;
+			while (target.isPassThrough()) {
+				Entry<Character, Node> next = target.children.firstEntry();
+				label.append(next.getKey().charValue());
+				target = next.getValue();
+			}
+			return target;
+		}
+
+		/**
+		 * Assigns IDs to all nodes reachable after compression
+		 *
+		 * @return the number of edges
+		 */
+		private int collect(List<Node> nodes) {
+			id = nodes.size();
+			nodes.add(this);
+			int edges = children.size();
+			for (Node child : children.values()) {
+				edges += child.compressedTarget(new StringBuilder()).collect(nodes);
+			}
+			return edges;
+		}
+	}
+
+}
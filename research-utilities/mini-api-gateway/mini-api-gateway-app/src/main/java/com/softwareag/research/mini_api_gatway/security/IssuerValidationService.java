@@ -4,10 +4,8 @@
  */
  package com.softwareag.research.mini_api_gatway.security;
 
-import java.net.URI;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -22,6 +20,7 @@ import com.softwareag.research.mini_api_gatway.model.OpenIDConnectIssuer;
 import com.softwareag.research.mini_api_gatway.model.OpenIDConnectIssuer.IssuerMatchMode;
 import com.softwareag.research.mini_api_gatway.model.OpenIDConnectIssuerRepository;
 
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
 
@@ -41,71 +40,60 @@ public class IssuerValidationService {
 	@Autowired
 	private OpenIDConnectIssuerRepository oidcIssuerRepo;
 
-	private HashMap<String, HashMap<String, Set<OpenIDConnectIssuer>>> issuerCache;
+	@Autowired
+	private JwkSetService jwkSetService;
+
+	/** Replaced as a whole when the issuers change, read without locking **/
+	private final AtomicReference<IssuerIndex> issuerIndex = new AtomicReference<>(IssuerIndex.compile(List.of()));
 
 	@Value("${security.token-validation.url:#{null}}")
 	private String defaultIssuer;
 
+	/** Matches all issuers below the default issuer, null if there is none **/
+	private OpenIDConnectIssuer defaultOidcIssuer;
+
+	@PostConstruct
+	private void initialize() {
+		if (defaultIssuer != null) {
+			defaultOidcIssuer = new OpenIDConnectIssuer(null, defaultIssuer, null, IssuerMatchMode.PREFIX_MATCH, null,
+					null);
+		}
+	}
+
 	@Async
 	@EventListener({ ApplicationPreparedEvent.class, RefreshIssuersEvent.class })
 	public Mono<Void> refreshIssuerCache() {
-		try {
 		log.info("Refreshing Token Issuer Cache");
-		issuerCache = new HashMap<String, HashMap<String, Set<OpenIDConnectIssuer>>>(2);
-		issuerCache.put("http", new HashMap<String, Set<OpenIDConnectIssuer>>());
-		issuerCache.put("https", new HashMap<String, Set<OpenIDConnectIssuer>>());
 		return oidcIssuerRepo.findAll().doOnError(error -> log.error("Error loading issuers", error))
 				.doOnNext(issuer -> {
-			URI issuerURI = URI.create(issuer.getIssuer());
-					HashMap<String, Set<OpenIDConnectIssuer>> schemeMap = issuerCache.computeIfAbsent(
-							issuerURI.getScheme(), (a) -> new HashMap<String, Set<OpenIDConnectIssuer>>());
-					Set<OpenIDConnectIssuer> set = schemeMap.computeIfAbsent(
-							issuerURI.getHost() + ":" + issuerURI.getPort(),
-							(a) -> new HashSet<OpenIDConnectIssuer>());
-			set.add(issuer);
-			log.info("Loaded issuer {}", issuer);
-				}).then();
-	} catch (Exception e) {
-		log.error(e.getMessage(), e);
-		return Mono.empty();
-	}
+					if (issuer.getMatchMode() == IssuerMatchMode.FULL_MATCH) {
+						// Fetch keys in advance instead of on the first token
+						jwkSetService.prefetch(issuer.getIssuer());
+					}
+					log.info("Loaded issuer {}", issuer);
+				})
+				.collectList()
+				.doOnNext(issuers -> issuerIndex.set(IssuerIndex.compile(issuers)))
+				.then();
 	}
 
 	/**
 	 * Check whether the token issuer matches any registered OpenID Connect Issuer
 	 *
+	 * Runs on request (high time-critical)
+	 *
 	 * @param issuer
-	 * @return the registered OIDC Issuer if matched
+	 * @return the registered OIDC Issuer if matched, see {@link IssuerIndex} for
+	 *         the precedence of issuers
 	 * @throws IssuerValidationException if no registered issuer matched
 	 */
 	public OpenIDConnectIssuer validateOidcIssuer(String issuer) throws IssuerValidationException {
-		URI issuerURI = URI.create(issuer);
-		HashMap<String, Set<OpenIDConnectIssuer>> schemeMap = issuerCache.get(issuerURI.getScheme());
-		Set<OpenIDConnectIssuer> set = schemeMap.get(issuerURI.getHost() + ":" + issuerURI.getPort());
-		if (set == null) {
-			if (issuer.startsWith(defaultIssuer)) {
-				return new OpenIDConnectIssuer(null, defaultIssuer, null, IssuerMatchMode.PREFIX_MATCH, null, null);
-			}
-			throw new IssuerValidationException("Token Issuer Host is not whitelisted.");
-		}
-		for (OpenIDConnectIssuer iss : set) {
-			switch (iss.getMatchMode()) {
-			case PREFIX_MATCH:
-				if (issuer.startsWith(iss.getIssuer())) {
-					return iss;
-				}
-				break;
-			case FULL_MATCH:
-				if (issuer.equals(iss.getIssuer())) {
-					return iss;
-				}
-				break;
-			default:
-				log.warn("OpenIDConnectIssuer with unknown match mode");
-			}
+		OpenIDConnectIssuer match = issuerIndex.get().find(issuer);
+		if (match != null) {
+			return match;
 		}
-		if (issuer.startsWith(defaultIssuer)) {
-			return new OpenIDConnectIssuer(null, defaultIssuer, null, IssuerMatchMode.PREFIX_MATCH, null, null);
+		if (defaultOidcIssuer != null && issuer.startsWith(defaultIssuer)) {
+			return defaultOidcIssuer;
 		}
 		throw new IssuerValidationException("Token Issuer is not whitelisted");
 	}
@@ -0,0 +1,234 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.security;
+
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.softwareag.research.mini_api_gatway.security.OidcMetadataService.OidcMetadata;
+import com.softwareag.research.mini_api_gatway.utils.JsonSnapshotFile;
+import com.softwareag.research.mini_api_gatway.utils.LruMap;
+import com.softwareag.research.mini_api_gatway.utils.SideCallClient;
+import com.softwareag.research.mini_api_gatway.utils.SingleFlight;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Cache of the JWK sets (signing keys) of token issuers, by JWK set URL. The
+ * sets of registered issuers are fetched in advance with
+ * {@link #prefetch(String)} and all sets are refreshed in the background, so
+ * key rotations are picked up without a request waiting for them. A token
+ * that refers to an unknown key triggers one more fetch, shared by all
+ * requests and at most one every {@value #MIN_FETCH_INTERVAL} ms. The number
+ * of sets is bounded, the least recently used ones are evicted. The public
+ * keys are persisted to a local file, so that tokens can be validated after a
+ * restart before the issuers are reachable.
+ *
+ * @author jonsch
+ *
+ */
+@Component
+@Slf4j
+public class JwkSetService {
+
+	private static final String SNAPSHOT_FILE = "jwks.json";
+
+	/** Milliseconds between fetches of a set because of unknown keys **/
+	private static final long MIN_FETCH_INTERVAL = 10000;
+
+	/** JWK set by URL **/
+	private final LruMap<String, JwkSetEntry> entries = new LruMap<>(() -> this.maxEntries);
+
+	@Autowired
+	private OidcMetadataService oidcMetadataService;
+
+	@Value("${security.token-validation.mode}")
+	private String tokenValidationMode;
+
+	@Value("${security.key-cache.max-issuers}")
+	private int maxEntries;
+
+	@Value("${security.key-cache.directory}")
+	private String directory;
+
+	@Value("${security.key-cache.jwks-refresh-interval-ms}")
+	private long refreshInterval;
+
+	/** Keys of the last run, null if not persisted **/
+	private JsonSnapshotFile snapshotFile;
+
+	private Disposable refreshTask;
+
+	@PostConstruct
+	private void initialize() {
+		if (!directory.isBlank()) {
+			snapshotFile = new JsonSnapshotFile(Path.of(directory, SNAPSHOT_FILE));
+			Map<String, Map<String, Object>> persisted = snapshotFile
+					.read(new TypeReference<Map<String, Map<String, Object>>>() {
+					});
+			if (persisted != null) {
+				persisted.forEach((jwksUri, jwkSet) -> {
+					try {
+						// Used until refreshed in the background
+						entries.get(jwksUri, JwkSetEntry::new).jwkSet = JWKSet.parse(jwkSet);
+					} catch (ParseException e) {
+						log.warn("Ignoring persisted keys of {}: {}", jwksUri, e.getMessage());
+					}
+				});
+				log.info("Loaded {} key sets from {}", persisted.size(), directory);
+			}
+		}
+		refreshTask = Flux.interval(Duration.ofMillis(refreshInterval))
+				.onBackpressureDrop()
+				.subscribe(tick -> refreshAll());
+	}
+
+	@PreDestroy
+	private void dispose() {
+		refreshTask.dispose();
+	}
+
+	/**
+	 * Discovers the issuer and fetches its keys in the background
+	 *
+	 * Runs at setup (low time-critical)
+	 *
+	 * @param issuer the issuer URL
+	 */
+	public void prefetch(String issuer) {
+		Mono<OidcMetadata> metadata = oidcMetadataService.getMetadata(issuer);
+		Mono<?> prefetch = !"INTROSPECTION".equals(tokenValidationMode)
+				? metadata.mapNotNull(OidcMetadata::jwksUri).flatMap(jwksUri -> entries.get(jwksUri, JwkSetEntry::new).fetch())
+				: metadata;
+		prefetch.subscribe(done -> {
+		}, error -> log.warn("Prefetching keys of issuer {} failed: {}", issuer, error.getMessage()));
+	}
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param jwksUri URL of the JWK set
+	 * @param header  header of the token to verify
+	 * @return the keys that match the algorithm and key ID of the token, empty if
+	 *         there are none after fetching the set again
+	 */
+	public Mono<List<JWK>> getKeys(String jwksUri, JWSHeader header) {
+		JWKSelector selector = new JWKSelector(JWKMatcher.forJWSHeader(header));
+		JwkSetEntry entry = entries.get(jwksUri, JwkSetEntry::new);
+		JWKSet jwkSet = entry.jwkSet;
+		Mono<JWKSet> current = jwkSet != null ? Mono.just(jwkSet) : entry.fetch();
+		return current.flatMap(known -> {
+			List<JWK> keys = selector.select(known);
+			if (!keys.isEmpty()) {
+				return Mono.just(keys);
+			}
+			return entry.refresh(known).map(selector::select);
+		});
+	}
+
+	/**
+	 * Runs in background (low time-critical)
+	 */
+	private void refreshAll() {
+		entries.forEach((jwksUri, entry) -> entry.fetch().subscribe(refreshed -> {
+		}, error -> log.warn("Background refresh of keys at {} failed: {}", jwksUri, error.getMessage())));
+	}
+
+	private void persist() {
+		if (snapshotFile != null) {
+			snapshotFile.write(() -> {
+				Map<String, Map<String, Object>> snapshot = new HashMap<>();
+				entries.forEach((jwksUri, entry) -> {
+					JWKSet jwkSet = entry.jwkSet;
+					if (jwkSet != null) {
+						snapshot.put(jwksUri, jwkSet.toJSONObject(true));
+					}
+				});
+				return snapshot;
+			});
+		}
+	}
+
+	/**
+	 * Current JWK set and pending fetch of a URL
+	 */
+	private final class JwkSetEntry {
+
+		private final String jwksUri;
+
+		private volatile JWKSet jwkSet;
+
+		/** Time the last fetch started **/
+		private volatile long fetchStarted;
+
+		private final SingleFlight<JWKSet> fetching = new SingleFlight<>();
+
+		private JwkSetEntry(String jwksUri) {
+			this.jwksUri = jwksUri;
+		}
+
+		/**
+		 * @param stale the set that lacks a key
+		 * @return the set fetched after the stale one, the stale one if it was
+		 *         fetched just now
+		 */
+		private Mono<JWKSet> refresh(JWKSet stale) {
+			if (fetching.isRunning()) {
+				return fetch();
+			}
+			JWKSet current = jwkSet;
+			if (current != stale || System.currentTimeMillis() - fetchStarted < MIN_FETCH_INTERVAL) {
+				return Mono.just(current);
+			}
+			return fetch();
+		}
+
+		private Mono<JWKSet> fetch() {
+			return fetching.run(() -> {
+				fetchStarted = System.currentTimeMillis();
+				return SideCallClient.get()
+						.get()
+						.uri(jwksUri)
+						.retrieve()
+						.bodyToMono(String.class)
+						.flatMap(body -> {
+							try {
+								return Mono.just(JWKSet.parse(body));
+							} catch (ParseException e) {
+								return Mono.error(new IllegalStateException("Invalid JWK set at " + jwksUri, e));
+							}
+						})
+						.doOnNext(fetched -> {
+							JWKSet previous = jwkSet;
+							jwkSet = fetched;
+							if (previous == null || !previous.toString(true).equals(fetched.toString(true))) {
+								persist();
+							}
+						});
+			});
+		}
+	}
+
+}
@@ -4,27 +4,57 @@
  */
  package com.softwareag.research.mini_api_gatway.security;
 
+import java.text.ParseException;
 import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2Error;
 import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.BadJwtException;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtException;
 import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
-import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import org.springframework.security.oauth2.jwt.MappedJwtClaimSetConverter;
 import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
-import org.springframework.security.oauth2.jwt.ReactiveJwtDecoders;
 import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.source.JWKSecurityContextJWKSet;
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.JWKSecurityContext;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.nimbusds.jwt.proc.JWTProcessor;
+import com.softwareag.research.mini_api_gatway.security.OidcMetadataService.OidcMetadata;
 import com.softwareag.research.mini_api_gatway.utils.JwtUtils;
 
 import reactor.core.publisher.Mono;
 
 /**
  * Decoder for JWT tokens with validation by issuer, signature and expiry
- * timestamp
+ * timestamp. Verified tokens are cached until they expire. Each token is parsed
+ * once, its claims are used for the issuer validation, the signature
+ * verification and the resulting {@link Jwt}. Signatures are verified on the
+ * {@link CryptoScheduler}. In HYBRID validation mode the tokens are
+ * additionally checked for revocation by the {@link RevocationChecker}.
  *
  * @author jonsch
  *
@@ -32,27 +62,127 @@ import reactor.core.publisher.Mono;
 @Component
 public class JwtDecoder implements ReactiveJwtDecoder {
 
-	private final ConcurrentHashMap<String, NimbusReactiveJwtDecoder> decoderCache = new ConcurrentHashMap<>();
+	/** Processor by accepted algorithms, there are only a few combinations **/
+	private final ConcurrentHashMap<Set<JWSAlgorithm>, JWTProcessor<JWKSecurityContext>> processorCache = new ConcurrentHashMap<>();
 
 	private final OAuth2TokenValidator<Jwt> withClockSkew = new DelegatingOAuth2TokenValidator<>(new JwtTimestampValidator(Duration.ofSeconds(60)));
 
+	private final MappedJwtClaimSetConverter claimSetConverter = MappedJwtClaimSetConverter.withDefaults(Map.of());
+
 	@Autowired
 	private IssuerValidationService issuerValidationService;
 
+	@Autowired
+	private OidcMetadataService oidcMetadataService;
+
+	@Autowired
+	private JwkSetService jwkSetService;
+
+	@Autowired
+	private VerifiedJwtCache verifiedJwtCache;
+
+	@Autowired
+	private RevocationChecker revocationChecker;
+
+	@Autowired
+	private CryptoScheduler cryptoScheduler;
+
+	@Value("${security.token-validation.mode}")
+	private String tokenValidationMode;
+
 	@Override
 	public Mono<Jwt> decode(String token) throws JwtException {
-		String issuer = JwtUtils.getTokenIssuer(token);
+		// Hashed once, the hash keys all caches of the token
+		String hash = JwtUtils.hashToken(token);
+		if (!"HYBRID".equals(tokenValidationMode)) {
+			return verifiedJwtCache.get(hash, token, this::verify);
+		}
+		// Tokens are verified once, the issuer is asked in the background
+		return verifiedJwtCache.get(hash, token,
+				unverified -> verify(unverified).doOnNext(jwt -> revocationChecker.introspect(jwt, hash)))
+				.map(jwt -> revocationChecker.check(jwt, hash));
+	}
+
+	private Mono<Jwt> verify(String token) throws JwtException {
+		SignedJWT signedJwt;
+		JWTClaimsSet claims;
+		try {
+			signedJwt = SignedJWT.parse(token);
+			claims = signedJwt.getJWTClaimsSet();
+		} catch (ParseException e) {
+			throw new BadJwtException("Malformed token: " + e.getMessage(), e);
+		}
+		String issuer = claims.getIssuer();
+		if (issuer == null) {
+			throw new BadJwtException("Token has no issuer");
+		}
 		issuerValidationService.validateOidcIssuer(issuer);
 
-		NimbusReactiveJwtDecoder decoder = null;
-		if(decoderCache.containsKey(issuer)) {
-			decoder = decoderCache.get(issuer);
-		}else {
-			decoder = (NimbusReactiveJwtDecoder) ReactiveJwtDecoders.fromOidcIssuerLocation(issuer);
-			decoder.setJwtValidator(withClockSkew);
-			decoderCache.put(issuer, decoder);
+		return oidcMetadataService.getMetadata(issuer)
+				.onErrorMap(error -> new JwtException("Discovery of issuer " + issuer + " failed", error))
+				.flatMap(metadata -> {
+					if (metadata.jwksUri() == null) {
+						return Mono.error(new JwtException("Issuer " + issuer + " has no JWK set"));
+					}
+					return jwkSetService.getKeys(metadata.jwksUri(), signedJwt.getHeader())
+							.onErrorMap(error -> new JwtException("Fetching the keys of issuer " + issuer + " failed",
+									error))
+							.flatMap(keys -> cryptoScheduler
+									.execute(() -> createJwt(token, signedJwt, verifySignature(metadata, signedJwt, keys)))
+									.onErrorMap(RejectedExecutionException.class,
+											error -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+													"Too many tokens waiting for verification", error)));
+				});
+	}
+
+	private JWTClaimsSet verifySignature(OidcMetadata metadata, SignedJWT signedJwt, List<JWK> keys) {
+		try {
+			return processor(metadata).process(signedJwt, new JWKSecurityContext(keys));
+		} catch (BadJOSEException e) {
+			throw new BadJwtException("Failed to validate the token", e);
+		} catch (JOSEException e) {
+			throw new JwtException("Failed to validate the token", e);
+		}
+	}
+
+	private Jwt createJwt(String token, SignedJWT signedJwt, JWTClaimsSet claims) {
+		Map<String, Object> headers = new LinkedHashMap<>(signedJwt.getHeader().toJSONObject());
+		Map<String, Object> claimValues = claimSetConverter.convert(claims.getClaims());
+		Jwt jwt = Jwt.withTokenValue(token)
+				.headers(h -> h.putAll(headers))
+				.claims(c -> c.putAll(claimValues))
+				.build();
+		OAuth2TokenValidatorResult result = withClockSkew.validate(jwt);
+		if (result.hasErrors()) {
+			String description = result.getErrors().stream()
+					.map(OAuth2Error::getDescription)
+					.filter(text -> text != null && !text.isEmpty())
+					.findFirst()
+					.orElse("Unable to validate Jwt");
+			throw new JwtValidationException(description, result.getErrors());
+		}
+		return jwt;
+	}
+
+	private JWTProcessor<JWKSecurityContext> processor(OidcMetadata metadata) {
+		Set<JWSAlgorithm> algorithms = new HashSet<>();
+		for (String name : metadata.signingAlgorithms()) {
+			// Symmetric algorithms are not supported with JWK sets
+			if (SignatureAlgorithm.from(name) != null) {
+				algorithms.add(JWSAlgorithm.parse(name));
+			}
+		}
+		if (algorithms.isEmpty()) {
+			algorithms.add(JWSAlgorithm.RS256);
 		}
-	    return decoder.decode(token);
+		return processorCache.computeIfAbsent(algorithms, accepted -> {
+			DefaultJWTProcessor<JWKSecurityContext> processor = new DefaultJWTProcessor<>();
+			processor.setJWSKeySelector(new JWSVerificationKeySelector<>(accepted, new JWKSecurityContextJWKSet()));
+			// Timestamps are validated on the Jwt
+			processor.setJWTClaimsSetVerifier((claims, context) -> {
+			});
+			return processor;
+		});
 	}
 
 }
@@ -4,19 +4,28 @@
  */
  package com.softwareag.research.mini_api_gatway.security;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospectionClaimNames;
 import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
 import org.springframework.security.oauth2.server.resource.introspection.NimbusReactiveOpaqueTokenIntrospector;
 import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionAuthenticatedPrincipal;
 import org.springframework.security.oauth2.server.resource.introspection.ReactiveOpaqueTokenIntrospector;
 import org.springframework.stereotype.Component;
 
+import com.softwareag.research.mini_api_gatway.events.RefreshIssuersEvent;
 import com.softwareag.research.mini_api_gatway.model.OpenIDConnectIssuer;
+import com.softwareag.research.mini_api_gatway.security.OidcMetadataService.OidcMetadata;
+import com.softwareag.research.mini_api_gatway.utils.ExpiringCache;
 import com.softwareag.research.mini_api_gatway.utils.JwtUtils;
+import com.softwareag.research.mini_api_gatway.utils.RoleMapper;
 
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
@@ -45,7 +54,7 @@ public class JwtIntrospector implements ReactiveOpaqueTokenIntrospector {
 	@Value("${security.token-validation.mode}")
 	private String tokenValidationMode;
 
-	@Value("${security.token-validation.rolePath:scope}")
+	@Value("${security.token-validation.rolesPath:scope}")
 	private String rolePath;
 
 	@Value("${security.token-validation.userRole}")
@@ -54,9 +63,25 @@ public class JwtIntrospector implements ReactiveOpaqueTokenIntrospector {
 	@Value("${security.token-validation.adminRole}")
 	private String adminRole;
 
+	@Value("${security.introspection-cache.max-entries}")
+	private int cacheMaxEntries;
+
+	@Value("${security.introspection-cache.max-ttl-ms}")
+	private long cacheMaxTtl;
+
+	@Value("${security.introspection-cache.negative-ttl-ms}")
+	private long cacheNegativeTtl;
+
+	private RoleMapper roleMapper;
+
+	/** Introspection result by token hash **/
+	private ExpiringCache<String, Introspection> resultCache;
+
 	@PostConstruct
-	private void validateConfiguration() {
-		if (tokenValidationMode.equals("INTROSPECTION")) {
+	private void initialize() {
+		resultCache = new ExpiringCache<>(cacheMaxEntries);
+		roleMapper = RoleMapper.compile(rolePath, userRole, adminRole);
+		if (tokenValidationMode.equals("INTROSPECTION") || tokenValidationMode.equals("HYBRID")) {
 			if (defaultClientId == null || defaultClientId.isBlank() || defaultClientSecret == null
 					|| defaultClientSecret.isBlank()) {
 				log.error("Default Client ID and Secret missing");
@@ -69,20 +94,90 @@ public class JwtIntrospector implements ReactiveOpaqueTokenIntrospector {
 	@Autowired
 	private IssuerValidationService issuerValidationService;
 
+	@Autowired
+	private OidcMetadataService oidcMetadataService;
+
+	/**
+	 * Tokens of issuers that are no longer registered must be introspected again
+	 */
+	@EventListener(RefreshIssuersEvent.class)
+	public void invalidateResults() {
+		resultCache.invalidateAll();
+	}
+
+	public ExpiringCache<String, Introspection> getResultCache() {
+		return resultCache;
+	}
+
+	/**
+	 * Results are cached until the token expires, at most for the maximum TTL.
+	 * Inactive tokens are cached for the negative TTL. Concurrent introspections
+	 * of the same token share one call to the issuer.
+	 */
 	@Override
 	public Mono<OAuth2AuthenticatedPrincipal> introspect(String token) throws JwtException {
+		return introspect(token, JwtUtils.hashToken(token));
+	}
+
+	/**
+	 * Introspects a token whose hash is known already
+	 *
+	 * @param token the encoded token
+	 * @param hash  hash of the token, see {@link JwtUtils#hashToken(String)}
+	 * @return the principal of an active token
+	 */
+	public Mono<OAuth2AuthenticatedPrincipal> introspect(String token, String hash) throws JwtException {
+		return resultCache.get(hash, () -> introspectAtIssuer(token), this::timeToLive)
+				.flatMap(introspection -> introspection.principal() == null
+						? Mono.error(new BadOpaqueTokenException("Provided token isn't active"))
+						: Mono.just(introspection.principal()));
+	}
+
+	private Mono<Introspection> introspectAtIssuer(String token) throws JwtException {
 		String issuer = JwtUtils.getTokenIssuer(token);
 		OpenIDConnectIssuer oidcIssuer = issuerValidationService.validateOidcIssuer(issuer);
 
-		String introspectionUrl = oidcIssuer.getTokenIntrospectionEndpoint();
-		if (introspectionUrl == null) {
-			introspectionUrl = issuer + KEYLOAK_INTROSPECTION_ENDPOINT;
+		return introspectionUrl(issuer, oidcIssuer)
+				.flatMap(introspectionUrl -> introspector(introspectionUrl, oidcIssuer).introspect(token))
+				.map(p -> new Introspection(
+						new OAuth2IntrospectionAuthenticatedPrincipal(p.getAttributes(), roleMapper.map(p.getAttributes()))))
+				.onErrorResume(BadOpaqueTokenException.class, e -> Mono.just(new Introspection(null)));
+	}
+
+	private Duration timeToLive(Introspection introspection) {
+		if (introspection.principal() == null) {
+			return Duration.ofMillis(cacheNegativeTtl);
+		}
+		Duration ttl = Duration.ofMillis(cacheMaxTtl);
+		if (introspection.principal().getAttribute(OAuth2TokenIntrospectionClaimNames.EXP) instanceof Instant exp) {
+			Duration untilExpiry = Duration.between(Instant.now(), exp);
+			if (untilExpiry.compareTo(ttl) < 0) {
+				ttl = untilExpiry;
+			}
+		}
+		return ttl;
+	}
+
+	/**
+	 * @return the configured introspection endpoint, the discovered one or the
+	 *         Keycloak default
+	 */
+	private Mono<String> introspectionUrl(String issuer, OpenIDConnectIssuer oidcIssuer) {
+		if (oidcIssuer.getTokenIntrospectionEndpoint() != null) {
+			return Mono.just(oidcIssuer.getTokenIntrospectionEndpoint());
 		}
+		return oidcMetadataService.getMetadata(issuer)
+				.mapNotNull(OidcMetadata::introspectionEndpoint)
+				.onErrorResume(error -> {
+					log.debug("Discovery of issuer {} failed, using default introspection endpoint", issuer, error);
+					return Mono.empty();
+				})
+				.defaultIfEmpty(issuer + KEYLOAK_INTROSPECTION_ENDPOINT);
+	}
 
-		NimbusReactiveOpaqueTokenIntrospector introspector = null;
-		if (introspectorCache.containsKey(introspectionUrl)) {
-			introspector = introspectorCache.get(introspectionUrl);
-		}else {
+	private NimbusReactiveOpaqueTokenIntrospector introspector(String introspectionUrl, OpenIDConnectIssuer oidcIssuer) {
+		NimbusReactiveOpaqueTokenIntrospector introspector = introspectorCache.get(introspectionUrl);
+		if (introspector == null) {
 			String clientId = this.defaultClientId;
 			if (oidcIssuer.getClientId() != null) {
 				clientId = oidcIssuer.getClientId();
@@ -94,11 +189,15 @@ public class JwtIntrospector implements ReactiveOpaqueTokenIntrospector {
 			introspector = new NimbusReactiveOpaqueTokenIntrospector(introspectionUrl, clientId, clientSecret);
 			introspectorCache.put(introspectionUrl, introspector);
 		}
-		return introspector.introspect(token).map(p -> {
-			return new OAuth2IntrospectionAuthenticatedPrincipal(p.getAttributes(),
-					JwtUtils.createAuthoritiesFromRoles(JwtUtils.parseRoles(p.getAttributes(), rolePath), userRole,
-							adminRole));
-		});
+		return introspector;
+	}
+
+	/**
+	 * Result of an introspection
+	 *
+	 * @param principal the principal of an active token, null if inactive
+	 */
+	public record Introspection(OAuth2AuthenticatedPrincipal principal) {
 	}
 
 }
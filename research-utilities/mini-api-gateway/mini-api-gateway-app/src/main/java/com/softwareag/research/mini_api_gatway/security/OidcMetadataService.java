@@ -0,0 +1,227 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.security;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.softwareag.research.mini_api_gatway.utils.JsonSnapshotFile;
+import com.softwareag.research.mini_api_gatway.utils.LruMap;
+import com.softwareag.research.mini_api_gatway.utils.SideCallClient;
+import com.softwareag.research.mini_api_gatway.utils.SingleFlight;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Gateway-wide cache of the OpenID Connect discovery documents
+ * (<code>.well-known/openid-configuration</code>) of token issuers, shared by
+ * the {@link JwtDecoder}, the {@link JwtIntrospector} and the
+ * {@link ClientCredentialsTokenManager}. Each issuer is discovered once,
+ * concurrent requests share one discovery. Metadata older than the TTL is
+ * still served while it is refreshed in the background, so only the first
+ * request of an issuer waits for its discovery. The number of issuers is
+ * bounded, the least recently used ones are evicted. The metadata is persisted
+ * to a local file, so that tokens can be validated after a restart before the
+ * issuers are reachable.
+ *
+ * @author jonsch
+ *
+ */
+@Component
+@Slf4j
+public class OidcMetadataService {
+
+	private static final String DISCOVERY_PATH = "/.well-known/openid-configuration";
+
+	/** Milliseconds until a failed refresh is retried **/
+	private static final long RETRY_DELAY = 30000;
+
+	/** Used until the component is initialized, e.g. in unit tests **/
+	private static final OidcMetadataService fallbackService = new OidcMetadataService();
+
+	private static volatile OidcMetadataService instance;
+
+	private static final String SNAPSHOT_FILE = "oidc-metadata.json";
+
+	/** Metadata by issuer **/
+	private final LruMap<String, MetadataEntry> entries = new LruMap<>(() -> this.maxEntries);
+
+	@Value("${security.oidc-metadata.ttl-ms}")
+	private long ttl = 3600000;
+
+	@Value("${security.key-cache.max-issuers}")
+	private int maxEntries = 100;
+
+	@Value("${security.key-cache.directory}")
+	private String directory = "";
+
+	/** Metadata of the last run, null if not persisted **/
+	private JsonSnapshotFile snapshotFile;
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @return the shared metadata service
+	 */
+	public static OidcMetadataService get() {
+		OidcMetadataService current = instance;
+		return current != null ? current : fallbackService;
+	}
+
+	@PostConstruct
+	private void initialize() {
+		if (!directory.isBlank()) {
+			snapshotFile = new JsonSnapshotFile(Path.of(directory, SNAPSHOT_FILE));
+			Map<String, OidcMetadata> persisted = snapshotFile.read(new TypeReference<Map<String, OidcMetadata>>() {
+			});
+			if (persisted != null) {
+				// Used until refreshed on first use
+				persisted.forEach((issuer, metadata) -> entries.get(issuer, MetadataEntry::new).metadata = metadata);
+				log.info("Loaded metadata of {} issuers from {}", persisted.size(), directory);
+			}
+		}
+		instance = this;
+	}
+
+	@PreDestroy
+	private void dispose() {
+		instance = null;
+	}
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param issuer the issuer URL
+	 * @return the metadata of the issuer, an error if the discovery failed and no
+	 *         earlier metadata is available
+	 */
+	public Mono<OidcMetadata> getMetadata(String issuer) {
+		MetadataEntry entry = entries.get(issuer, MetadataEntry::new);
+		OidcMetadata metadata = entry.metadata;
+		if (metadata == null) {
+			return entry.fetch();
+		}
+		if (System.currentTimeMillis() - entry.fetchedAt > ttl) {
+			entry.refresh();
+		}
+		return Mono.just(metadata);
+	}
+
+	private void persist() {
+		if (snapshotFile != null) {
+			snapshotFile.write(() -> {
+				Map<String, OidcMetadata> snapshot = new HashMap<>();
+				entries.forEach((issuer, entry) -> {
+					if (entry.metadata != null) {
+						snapshot.put(issuer, entry.metadata);
+					}
+				});
+				return snapshot;
+			});
+		}
+	}
+
+	/**
+	 * Endpoints and capabilities of an issuer
+	 *
+	 * @param issuer                the issuer as stated by itself
+	 * @param jwksUri               URL of the signing keys
+	 * @param tokenEndpoint         URL of the token endpoint, may be null
+	 * @param introspectionEndpoint URL of the token introspection endpoint, may be
+	 *                              null
+	 * @param signingAlgorithms     names of the supported token signing
+	 *                              algorithms, empty if not stated
+	 */
+	public record OidcMetadata(String issuer, String jwksUri, String tokenEndpoint, String introspectionEndpoint,
+			List<String> signingAlgorithms) {
+
+		private static OidcMetadata of(String issuer, Map<String, Object> document) {
+			Object statedIssuer = document.get("issuer");
+			if (!issuer.equals(statedIssuer)) {
+				throw new IllegalStateException(
+						"Issuer " + statedIssuer + " of the discovery document does not match " + issuer);
+			}
+			Object introspectionEndpoint = document.get("introspection_endpoint");
+			if (introspectionEndpoint == null) {
+				introspectionEndpoint = document.get("token_introspection_endpoint");
+			}
+			List<String> signingAlgorithms = new ArrayList<>();
+			if (document.get("id_token_signing_alg_values_supported") instanceof Collection<?> algorithms) {
+				algorithms.forEach(algorithm -> signingAlgorithms.add(algorithm.toString()));
+			}
+			return new OidcMetadata(issuer, text(document.get("jwks_uri")), text(document.get("token_endpoint")),
+					text(introspectionEndpoint), List.copyOf(signingAlgorithms));
+		}
+
+		private static String text(Object value) {
+			return value == null ? null : value.toString();
+		}
+	}
+
+	/**
+	 * Current metadata and pending discovery of an issuer
+	 */
+	private final class MetadataEntry {
+
+		private final String issuer;
+
+		private volatile OidcMetadata metadata;
+
+		/** Time of the last discovery, including failed refreshes **/
+		private volatile long fetchedAt;
+
+		private final SingleFlight<OidcMetadata> discovery = new SingleFlight<>();
+
+		private MetadataEntry(String issuer) {
+			this.issuer = issuer;
+		}
+
+		private void refresh() {
+			if (discovery.isRunning()) {
+				return;
+			}
+			fetch().subscribe(refreshed -> {
+			}, error -> log.warn("Discovery of issuer {} failed: {}", issuer, error.getMessage()));
+		}
+
+		private Mono<OidcMetadata> fetch() {
+			return discovery.run(() -> SideCallClient.get()
+					.get()
+					.uri(issuer.endsWith("/") ? issuer.substring(0, issuer.length() - 1) + DISCOVERY_PATH
+							: issuer + DISCOVERY_PATH)
+					.retrieve()
+					.bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {
+					})
+					.map(document -> OidcMetadata.of(issuer, document))
+					.doOnNext(discovered -> {
+						boolean changed = !discovered.equals(metadata);
+						metadata = discovered;
+						fetchedAt = System.currentTimeMillis();
+						if (changed) {
+							persist();
+						}
+					})
+					.doOnError(error -> {
+						// Keep serving earlier metadata, retry after a delay
+						fetchedAt = System.currentTimeMillis() - ttl + RETRY_DELAY;
+					}));
+		}
+	}
+
+}
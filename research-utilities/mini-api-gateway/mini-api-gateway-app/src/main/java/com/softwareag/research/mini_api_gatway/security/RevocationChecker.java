@@ -0,0 +1,191 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.security;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.stereotype.Component;
+
+import com.softwareag.research.mini_api_gatway.utils.JwtUtils;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Revocation check of the HYBRID token validation mode. Tokens are verified
+ * locally by the {@link JwtDecoder}, the issuer is asked in the background with
+ * the {@link JwtIntrospector} when a token is seen for the first time and for a
+ * sample of the following requests. Tokens the issuer reports as inactive are
+ * rejected until they expire. Requests never wait for an introspection, so a
+ * revoked token is accepted until a sampled introspection reports it. As
+ * introspection results are cached, that takes at most the maximum TTL of the
+ * introspection cache after the revocation.
+ * <p>
+ * Revoked tokens are kept in their own store and only removed once expired, so
+ * that many distinct valid tokens can not push them out. The number of
+ * concurrent background introspections is bounded, introspections beyond the
+ * bound are skipped and counted, the token is checked again by a later sample.
+ *
+ * @author jonsch
+ *
+ */
+@Component
+@Slf4j
+public class RevocationChecker {
+
+	/** How long revoked tokens without expiry are rejected **/
+	private static final Duration REVOKED_WITHOUT_EXPIRY = Duration.ofDays(1);
+
+	/** Minimum nanoseconds between two purges of expired revocations **/
+	private static final long PURGE_INTERVAL = Duration.ofSeconds(1).toNanos();
+
+	@Autowired
+	private JwtIntrospector jwtIntrospector;
+
+	@Value("${security.token-validation.hybrid.sample-rate}")
+	private double sampleRate;
+
+	@Value("${security.token-validation.hybrid.max-revoked-tokens}")
+	private int maxRevokedTokens;
+
+	@Value("${security.token-validation.hybrid.max-concurrent-introspections}")
+	private int maxConcurrentIntrospections;
+
+	/** Expiry of revoked tokens by token hash **/
+	private final Map<String, Instant> revokedTokens = new ConcurrentHashMap<>();
+
+	private final AtomicLong nextPurge = new AtomicLong(System.nanoTime());
+
+	private Semaphore introspections;
+
+	private final LongAdder skippedIntrospections = new LongAdder();
+
+	private final LongAdder droppedRevocations = new LongAdder();
+
+	@PostConstruct
+	private void initialize() {
+		introspections = new Semaphore(maxConcurrentIntrospections);
+	}
+
+	/**
+	 * Introspects a token in the background, unless too many introspections are
+	 * running already
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param jwt  the verified token
+	 * @param hash hash of the token, see {@link JwtUtils#hashToken(String)}
+	 */
+	public void introspect(Jwt jwt, String hash) {
+		if (!introspections.tryAcquire()) {
+			skippedIntrospections.increment();
+			log.debug("Skipped introspection of token of {}, too many introspections running", jwt.getSubject());
+			return;
+		}
+		jwtIntrospector.introspect(jwt.getTokenValue(), hash).doFinally(signal -> introspections.release())
+				.subscribe(principal -> {
+				}, error -> {
+					if (error instanceof BadOpaqueTokenException) {
+						log.debug("Token of {} was revoked", jwt.getSubject());
+						Instant expiresAt = jwt.getExpiresAt();
+						revoke(hash, expiresAt == null ? Instant.now().plus(REVOKED_WITHOUT_EXPIRY) : expiresAt);
+					} else {
+						log.warn("Introspection of token of issuer {} failed: {}", jwt.getIssuer(),
+								error.getMessage());
+					}
+				});
+	}
+
+	/**
+	 * Runs in background (low time-critical)
+	 */
+	private void revoke(String hash, Instant expiresAt) {
+		if (revokedTokens.size() >= maxRevokedTokens) {
+			purgeExpired();
+			if (revokedTokens.size() >= maxRevokedTokens) {
+				droppedRevocations.increment();
+				log.error("Can not reject revoked token, {} revoked tokens are stored already", maxRevokedTokens);
+				return;
+			}
+		}
+		revokedTokens.put(hash, expiresAt);
+	}
+
+	private void purgeExpired() {
+		long now = System.nanoTime();
+		long next = nextPurge.get();
+		if (now - next >= 0 && nextPurge.compareAndSet(next, now + PURGE_INTERVAL)) {
+			Instant instant = Instant.now();
+			revokedTokens.values().removeIf(expiresAt -> !expiresAt.isAfter(instant));
+		}
+	}
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param hash hash of the token, see {@link JwtUtils#hashToken(String)}
+	 * @return whether the issuer reported the token as inactive
+	 */
+	public boolean isRevoked(String hash) {
+		Instant expiresAt = revokedTokens.get(hash);
+		if (expiresAt == null) {
+			return false;
+		}
+		if (!expiresAt.isAfter(Instant.now())) {
+			revokedTokens.remove(hash, expiresAt);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param jwt  the verified token
+	 * @param hash hash of the token, see {@link JwtUtils#hashToken(String)}
+	 * @return the token if it is not known to be revoked, a sample of the tokens
+	 *         is introspected again in the background
+	 * @throws BadJwtException if the issuer reported the token as inactive
+	 */
+	public Jwt check(Jwt jwt, String hash) throws BadJwtException {
+		if (isRevoked(hash)) {
+			throw new BadJwtException("Token has been revoked");
+		}
+		if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+			introspect(jwt, hash);
+		}
+		return jwt;
+	}
+
+	/** Number of stored revoked tokens, including expired ones not purged yet **/
+	public int getRevokedTokens() {
+		return revokedTokens.size();
+	}
+
+	/** Introspections skipped because too many were running **/
+	public long getSkippedIntrospections() {
+		return skippedIntrospections.sum();
+	}
+
+	/** Revocations not stored because the store was full **/
+	public long getDroppedRevocations() {
+		return droppedRevocations.sum();
+	}
+
+}
@@ -63,6 +63,7 @@ public class SecurityConfiguration {
 			.authorizeExchange(exchanges -> exchanges
 				.pathMatchers(Constants.GATEWAY_PROXY_PATH + "/**").authenticated()
 				.pathMatchers("/access/**").hasRole("ADMIN")
+				.pathMatchers("/status/**").hasRole("ADMIN")
 				.pathMatchers("/routes/**").hasRole("USER")
 						.pathMatchers("/global-filters/**").hasRole("USER")
 				.pathMatchers(HttpMethod.GET, "/swagger-ui.html",
@@ -72,6 +73,7 @@ public class SecurityConfiguration {
 				ServerWebExchangeMatchers.matchers(
 						ServerWebExchangeMatchers.pathMatchers(Constants.GATEWAY_PROXY_PATH + "/**"),
 	                    ServerWebExchangeMatchers.pathMatchers("/access/**"),
+	                    ServerWebExchangeMatchers.pathMatchers("/status/**"),
 	                    ServerWebExchangeMatchers.pathMatchers("/routes/**"),
 						ServerWebExchangeMatchers.pathMatchers("/global-filters/**")
 	                ).matches(matcher)
@@ -81,7 +83,11 @@ public class SecurityConfiguration {
 						log.info("Using token introspection for token validation");
 						oauth2.opaqueToken(token -> token.introspector(jwtIntrospector));
 					} else {
-						log.info("Using signature for token validation");
+						if (tokenValidationMode.equals("HYBRID")) {
+							log.info("Using signature and sampled token introspection for token validation");
+						} else {
+							log.info("Using signature for token validation");
+						}
 						oauth2.jwt(jwt -> jwt.jwtDecoder(jwtDecoder).jwtAuthenticationConverter(jwtAuthConverter));
 					}
 				}).csrf().disable().httpBasic();
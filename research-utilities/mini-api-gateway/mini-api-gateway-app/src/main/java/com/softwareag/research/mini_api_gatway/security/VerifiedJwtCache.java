@@ -0,0 +1,126 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.security;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import com.softwareag.research.mini_api_gatway.events.RefreshIssuersEvent;
+import com.softwareag.research.mini_api_gatway.utils.ExpiringCache;
+import com.softwareag.research.mini_api_gatway.utils.JwtUtils;
+
+import jakarta.annotation.PostConstruct;
+import reactor.core.publisher.Mono;
+
+/**
+ * Cache of verified JWTs and their granted authorities, keyed by a SHA-256 hash
+ * of the token. Clients reuse their bearer tokens for many requests, repeated
+ * requests skip parsing and signature verification. Tokens are cached until
+ * they expire, tokens without expiry are not cached. Concurrent verifications
+ * of the same token are coalesced. The cache is cleared when the registered
+ * issuers change. The cached tokens are {@link VerifiedJwt}s carrying their
+ * hash and authorities, so neither is computed again per request.
+ *
+ * @author jonsch
+ *
+ */
+@Component
+public class VerifiedJwtCache {
+
+	@Value("${security.token-cache.max-entries}")
+	private int maxEntries;
+
+	private ExpiringCache<String, Jwt> cache;
+
+	@PostConstruct
+	private void initialize() {
+		cache = new ExpiringCache<>(maxEntries);
+	}
+
+	/**
+	 * Tokens of issuers that are no longer registered must be verified again
+	 */
+	@EventListener(RefreshIssuersEvent.class)
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param hash     hash of the token, see {@link JwtUtils#hashToken(String)}
+	 * @param token    the encoded token
+	 * @param verifier decodes and verifies the token if it is not cached
+	 * @return the verified token, a {@link VerifiedJwt}
+	 */
+	public Mono<Jwt> get(String hash, String token, Function<String, Mono<Jwt>> verifier) {
+		return cache.get(hash, () -> verifier.apply(token).map(jwt -> new VerifiedJwt(jwt, hash)),
+				VerifiedJwtCache::timeToLive);
+	}
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param jwt    a token returned by {@link #get(String, String, Function)}
+	 * @param mapper computes the authorities if they are not cached
+	 * @return the granted authorities of the token
+	 */
+	public Collection<GrantedAuthority> getAuthorities(Jwt jwt,
+			Function<Jwt, Collection<GrantedAuthority>> mapper) {
+		if (!(jwt instanceof VerifiedJwt verified)) {
+			return mapper.apply(jwt);
+		}
+		Collection<GrantedAuthority> authorities = verified.authorities;
+		if (authorities == null) {
+			authorities = mapper.apply(jwt);
+			verified.authorities = authorities;
+		}
+		return authorities;
+	}
+
+	public ExpiringCache<String, Jwt> getCache() {
+		return cache;
+	}
+
+	private static Duration timeToLive(Jwt jwt) {
+		Instant expiresAt = jwt.getExpiresAt();
+		return expiresAt == null ? Duration.ZERO : Duration.between(Instant.now(), expiresAt);
+	}
+
+	/**
+	 * Verified token with its hash and its authorities, computed on first use
+	 */
+	public static final class VerifiedJwt extends Jwt {
+
+		private static final long serialVersionUID = -2860183945166375781L;
+
+		private final String hash;
+
+		private transient volatile Collection<GrantedAuthority> authorities;
+
+		private VerifiedJwt(Jwt jwt, String hash) {
+			super(jwt.getTokenValue(), jwt.getIssuedAt(), jwt.getExpiresAt(), jwt.getHeaders(), jwt.getClaims());
+			this.hash = hash;
+		}
+
+		/**
+		 * @return hash of the token, see {@link JwtUtils#hashToken(String)}
+		 */
+		public String getHash() {
+			return hash;
+		}
+	}
+
+}
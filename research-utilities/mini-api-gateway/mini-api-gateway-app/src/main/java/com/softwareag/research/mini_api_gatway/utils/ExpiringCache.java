@@ -0,0 +1,317 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.utils;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Bounded cache of asynchronously loaded values that expire after a time to
+ * live chosen per value. Concurrent requests for a key that is not cached are
+ * coalesced into a single load (single-flight). Failed loads are not cached.
+ * A full cache admits new values by evicting: expired values first, swept at
+ * most once per second, then in insertion order, where a value read since it
+ * was last considered gets a second chance (CLOCK). Invalidation also discards
+ * the results of loads of the invalidated keys that started before it.
+ *
+ * @author jonsch
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class ExpiringCache<K, V> {
+
+	/** Minimum time between two sweeps of expired values of a full cache **/
+	private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	private final ConcurrentHashMap<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+
+	private final ConcurrentHashMap<K, Mono<V>> loading = new ConcurrentHashMap<>();
+
+	/**
+	 * Entries in insertion order. Replaced and removed entries stay until they
+	 * reach the head or the queue is compacted.
+	 */
+	private final ConcurrentLinkedQueue<Entry<K, V>> evictionQueue = new ConcurrentLinkedQueue<>();
+
+	private final AtomicInteger queued = new AtomicInteger();
+
+	private final AtomicLong nextSweep = new AtomicLong(System.nanoTime());
+
+	/** Incremented on invalidation of all values, loads started before are not stored **/
+	private final AtomicLong generation = new AtomicLong();
+
+	private final int maxEntries;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final LongAdder coalesced = new LongAdder();
+
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 *
+	 * @param maxEntries maximum number of cached values, further values evict
+	 *                   older ones
+	 */
+	public ExpiringCache(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param key    the key
+	 * @param loader loads the value if it is not cached or expired
+	 * @param ttl    time to live of a loaded value, zero or negative if the value
+	 *               must not be cached
+	 * @return the cached or loaded value
+	 */
+	public Mono<V> get(K key, Supplier<Mono<V>> loader, Function<V, Duration> ttl) {
+		Entry<K, V> entry = entries.get(key);
+		if (entry != null) {
+			if (entry.expiresAt - System.nanoTime() > 0) {
+				hits.increment();
+				entry.markReferenced();
+				return Mono.just(entry.value);
+			}
+			if (entries.remove(key, entry)) {
+				evictions.increment();
+			}
+		}
+		Mono<V> pending = loading.get(key);
+		if (pending != null) {
+			coalesced.increment();
+			return pending;
+		}
+		long loadGeneration = generation.get();
+		AtomicReference<Mono<V>> self = new AtomicReference<>();
+		Mono<V> load = Mono.defer(loader)
+				.doOnNext(value -> storeLoaded(key, value, ttl.apply(value), self.get(), loadGeneration))
+				.doFinally(signal -> loading.remove(key, self.get()))
+				.cache();
+		self.set(load);
+		pending = loading.putIfAbsent(key, load);
+		if (pending != null) {
+			coalesced.increment();
+			return pending;
+		}
+		misses.increment();
+		return load;
+	}
+
+	/**
+	 *
+	 * @param key
+	 * @return the value if it is cached and not expired, otherwise null
+	 */
+	public V getIfPresent(K key) {
+		Entry<K, V> entry = entries.get(key);
+		if (entry == null || entry.expiresAt - System.nanoTime() <= 0) {
+			return null;
+		}
+		entry.markReferenced();
+		return entry.value;
+	}
+
+	/**
+	 *
+	 * @param key
+	 * @param value
+	 * @param ttl   time to live, zero or negative if the value must not be cached
+	 */
+	public void put(K key, V value, Duration ttl) {
+		store(key, value, ttl);
+	}
+
+	/**
+	 * Removes the value. A load of the key in flight is not stored and later
+	 * requests do not join it, loads of other keys are not affected.
+	 *
+	 * @param key
+	 */
+	public void invalidate(K key) {
+		loading.remove(key);
+		entries.remove(key);
+	}
+
+	/**
+	 * Removes all values. Loads in flight are not stored and later requests do
+	 * not join them.
+	 */
+	public void invalidateAll() {
+		generation.incrementAndGet();
+		loading.clear();
+		entries.clear();
+	}
+
+	/**
+	 * Stores a loaded value unless its key or the whole cache was invalidated
+	 * since the load started. An invalidation of the key removes the load from
+	 * {@link #loading}. Both are checked again after storing, in case the
+	 * invalidation ran in between.
+	 */
+	private void storeLoaded(K key, V value, Duration ttl, Mono<V> load, long loadGeneration) {
+		if (!isCurrentLoad(key, load, loadGeneration)) {
+			return;
+		}
+		Entry<K, V> entry = store(key, value, ttl);
+		if (entry != null && !isCurrentLoad(key, load, loadGeneration)) {
+			entries.remove(key, entry);
+		}
+	}
+
+	private boolean isCurrentLoad(K key, Mono<V> load, long loadGeneration) {
+		return generation.get() == loadGeneration && loading.get(key) == load;
+	}
+
+	private Entry<K, V> store(K key, V value, Duration ttl) {
+		if (ttl == null || ttl.isZero() || ttl.isNegative()) {
+			return null;
+		}
+		Entry<K, V> entry = new Entry<>(key, value, System.nanoTime() + ttl.toNanos());
+		entries.put(key, entry);
+		evictionQueue.offer(entry);
+		queued.incrementAndGet();
+		if (entries.size() > maxEntries || queued.get() > 2 * maxEntries) {
+			evict(entry);
+		}
+		return entry;
+	}
+
+	/**
+	 * Evicts until the cache is within its bound and drops replaced or removed
+	 * entries from the queue. Each round visits every queued entry at most twice,
+	 * so concurrent reads cannot keep it going.
+	 *
+	 * @param admitted the entry just stored, it is never evicted to admit itself
+	 */
+	private void evict(Entry<K, V> admitted) {
+		long now = System.nanoTime();
+		long sweepAt = nextSweep.get();
+		if (entries.size() > maxEntries && now - sweepAt >= 0
+				&& nextSweep.compareAndSet(sweepAt, now + SWEEP_INTERVAL_NANOS)) {
+			removeExpired(now);
+		}
+		for (int budget = 2 * queued.get(); budget > 0
+				&& (entries.size() > maxEntries || queued.get() > 2 * maxEntries); budget--) {
+			Entry<K, V> entry = evictionQueue.poll();
+			if (entry == null) {
+				return;
+			}
+			if (entries.get(entry.key) != entry) {
+				queued.decrementAndGet();
+			} else if (entry == admitted || entries.size() <= maxEntries
+					|| entry.expiresAt - now > 0 && entry.clearReferenced()) {
+				evictionQueue.offer(entry);
+			} else {
+				queued.decrementAndGet();
+				if (entries.remove(entry.key, entry)) {
+					evictions.increment();
+				}
+			}
+		}
+	}
+
+	private void removeExpired(long now) {
+		entries.values().removeIf(entry -> {
+			if (entry.expiresAt - now <= 0) {
+				evictions.increment();
+				return true;
+			}
+			return false;
+		});
+	}
+
+	/**
+	 * @return number of cached values, including expired ones that were not
+	 *         removed yet
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	/**
+	 * @return number of requests answered from the cache
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return number of requests that loaded the value
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return number of requests that joined a load of another request
+	 */
+	public long getCoalesced() {
+		return coalesced.sum();
+	}
+
+	/**
+	 * @return number of values removed because they expired or to admit new
+	 *         values
+	 */
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	private static final class Entry<K, V> {
+
+		private final K key;
+
+		private final V value;
+
+		private final long expiresAt;
+
+		/** Read since the entry was last considered for eviction **/
+		private volatile boolean referenced;
+
+		private Entry(K key, V value, long expiresAt) {
+			this.key = key;
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+
+		private void markReferenced() {
+			if (!referenced) {
+				referenced = true;
+			}
+		}
+
+		/**
+		 * @return whether the entry was referenced
+		 */
+		private boolean clearReferenced() {
+			if (referenced) {
+				referenced = false;
+				return true;
+			}
+			return false;
+		}
+	}
+
+}
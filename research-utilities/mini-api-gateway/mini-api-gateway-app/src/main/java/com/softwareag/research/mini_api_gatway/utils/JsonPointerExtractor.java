@@ -0,0 +1,286 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Extracts the values at a fixed set of paths from a JSON document in a single
+ * streaming pass, e.g. the values of a side call response that are referenced
+ * by variable expressions. Everything else is skipped without being kept.
+ * <br>
+ * The result is a sparse tree of objects, array elements are keyed by index
+ * (e.g. <code>items.1.id</code>). Simple values on a path are kept as well, so
+ * a string with an embedded JSON document can be resolved further by the
+ * {@link VariableExpressionResolver}.
+ *
+ * @author jonsch
+ *
+ */
+public final class JsonPointerExtractor {
+
+	private static final JsonFactory jsonFactory = new JsonFactory();
+
+	private static final JsonNodeFactory nodeFactory = JsonNodeFactory.instance;
+
+	/** Root of the trie of all paths **/
+	private final PathNode root = new PathNode();
+
+	/**
+	 *
+	 * Runs at setup (low time-critical)
+	 *
+	 * @param paths paths of the values to extract, each a list of property names
+	 *              or array indexes
+	 */
+	public JsonPointerExtractor(Collection<String[]> paths) {
+		for (String[] path : paths) {
+			PathNode node = root;
+			for (String segment : path) {
+				node = node.children.computeIfAbsent(segment, key -> new PathNode());
+			}
+		}
+	}
+
+	/**
+	 * @return whether no values are extracted, i.e. the document is not needed
+	 */
+	public boolean isEmpty() {
+		return root.children.isEmpty();
+	}
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @return an extraction of one document
+	 */
+	public Extraction start() {
+		return new Extraction(root);
+	}
+
+	/**
+	 * Extraction of one document, fed with its buffers as they arrive. Not
+	 * thread-safe.
+	 */
+	public static final class Extraction {
+
+		private final PathNode root;
+
+		private final JsonParser parser;
+
+		private final ByteBufferFeeder feeder;
+
+		/** Objects and arrays on a path that are currently open **/
+		private final ArrayDeque<Frame> frames = new ArrayDeque<>();
+
+		/** Depth inside a value that is not on any path **/
+		private int skipDepth;
+
+		private JsonNode result;
+
+		private boolean failed;
+
+		private Extraction(PathNode root) {
+			this.root = root;
+			try {
+				parser = jsonFactory.createNonBlockingByteBufferParser();
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+			feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+		}
+
+		/**
+		 * Reads the tokens completed by the buffer. The buffer itself is not
+		 * modified.
+		 *
+		 * Runs on request (high time-critical)
+		 *
+		 * @param buffer next part of the document
+		 */
+		public void feed(DataBuffer buffer) {
+			if (failed) {
+				return;
+			}
+			try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+				while (iterator.hasNext()) {
+					ByteBuffer chunk = iterator.next();
+					if (chunk.hasRemaining()) {
+						feeder.feedInput(chunk);
+						readAvailableTokens();
+					}
+				}
+			} catch (IOException e) {
+				failed = true;
+			}
+		}
+
+		/**
+		 * Runs on request (high time-critical)
+		 *
+		 * @return the extracted values, null if the document is empty or malformed
+		 */
+		public JsonNode finish() {
+			if (failed) {
+				return null;
+			}
+			feeder.endOfInput();
+			try {
+				readAvailableTokens();
+			} catch (IOException e) {
+				return null;
+			}
+			return frames.isEmpty() && skipDepth == 0 ? result : null;
+		}
+
+		private void readAvailableTokens() throws IOException {
+			JsonToken token;
+			while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+				if (skipDepth > 0) {
+					if (token.isStructStart()) {
+						skipDepth++;
+					} else if (token.isStructEnd()) {
+						skipDepth--;
+					}
+					continue;
+				}
+				switch (token) {
+				case FIELD_NAME:
+					Frame object = frames.peek();
+					object.key = parser.currentName();
+					object.valueNode = object.node.children.get(object.key);
+					break;
+				case END_OBJECT:
+				case END_ARRAY:
+					frames.pop();
+					break;
+				default:
+					readValue(token);
+				}
+			}
+		}
+
+		private void readValue(JsonToken token) throws IOException {
+			Frame parent = frames.peek();
+			PathNode node;
+			String key = null;
+			if (parent == null) {
+				node = root;
+			} else if (parent.array) {
+				if (!parent.node.children.isEmpty()) {
+					key = Integer.toString(parent.index);
+				}
+				node = key == null ? null : parent.node.children.get(key);
+				parent.index++;
+			} else {
+				node = parent.valueNode;
+				key = parent.key;
+			}
+			if (token.isStructStart()) {
+				if (node == null || node.children.isEmpty()) {
+					skipDepth = 1;
+				} else {
+					frames.push(new Frame(parent, key, node, token == JsonToken.START_ARRAY));
+				}
+			} else if (node != null) {
+				JsonNode value = scalar(token);
+				if (parent == null) {
+					result = value;
+				} else {
+					parent.result().set(key, value);
+				}
+			}
+		}
+
+		private JsonNode scalar(JsonToken token) throws IOException {
+			switch (token) {
+			case VALUE_STRING:
+				return nodeFactory.textNode(parser.getText());
+			case VALUE_NUMBER_INT:
+				switch (parser.getNumberType()) {
+				case INT:
+					return nodeFactory.numberNode(parser.getIntValue());
+				case LONG:
+					return nodeFactory.numberNode(parser.getLongValue());
+				default:
+					return nodeFactory.numberNode(parser.getBigIntegerValue());
+				}
+			case VALUE_NUMBER_FLOAT:
+				return nodeFactory.numberNode(parser.getDoubleValue());
+			case VALUE_TRUE:
+				return nodeFactory.booleanNode(true);
+			case VALUE_FALSE:
+				return nodeFactory.booleanNode(false);
+			default:
+				return nodeFactory.nullNode();
+			}
+		}
+
+		/**
+		 * Open object or array on a path
+		 */
+		private final class Frame {
+
+			private final Frame parent;
+			/** Key of this value in the parent **/
+			private final String keyInParent;
+			private final PathNode node;
+			private final boolean array;
+			/** Current property of an object **/
+			private String key;
+			private PathNode valueNode;
+			/** Index of the next element of an array **/
+			private int index;
+			/** Extracted values, created with the first one **/
+			private ObjectNode result;
+
+			private Frame(Frame parent, String keyInParent, PathNode node, boolean array) {
+				this.parent = parent;
+				this.keyInParent = keyInParent;
+				this.node = node;
+				this.array = array;
+			}
+
+			private ObjectNode result() {
+				if (result == null) {
+					if (parent == null) {
+						result = nodeFactory.objectNode();
+						Extraction.this.result = result;
+					} else {
+						result = parent.result().putObject(keyInParent);
+					}
+				}
+				return result;
+			}
+		}
+
+	}
+
+	/**
+	 * Node of the trie of paths
+	 */
+	private static final class PathNode {
+
+		private final Map<String, PathNode> children = new HashMap<>();
+
+	}
+
+}
@@ -0,0 +1,91 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Local file with a JSON snapshot of cached state, e.g. signing keys of token
+ * issuers, so that it survives a restart. Snapshots are written off the
+ * request path, replacing the file atomically. Writes requested while one is in
+ * progress are coalesced into one write of the latest state.
+ *
+ * @author jonsch
+ *
+ */
+@Slf4j
+public class JsonSnapshotFile {
+
+	private static final ObjectMapper mapper = new ObjectMapper();
+
+	private final Path file;
+
+	private final AtomicBoolean writeScheduled = new AtomicBoolean();
+
+	public JsonSnapshotFile(Path file) {
+		this.file = file;
+	}
+
+	/**
+	 *
+	 * Runs at setup (low time-critical)
+	 *
+	 * @param type type of the snapshot
+	 * @return the snapshot, null if there is none or it can not be read
+	 */
+	public <T> T read(TypeReference<T> type) {
+		if (!Files.exists(file)) {
+			return null;
+		}
+		try {
+			return mapper.readValue(file.toFile(), type);
+		} catch (IOException e) {
+			log.warn("Ignoring unreadable snapshot {}: {}", file, e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Writes the state in the background
+	 *
+	 * @param state supplies the state to write, called when the write starts
+	 */
+	public void write(Supplier<Object> state) {
+		if (writeScheduled.compareAndSet(false, true)) {
+			Schedulers.boundedElastic().schedule(() -> {
+				writeScheduled.set(false);
+				Path temporary = null;
+				try {
+					Path parent = file.toAbsolutePath().getParent();
+					Files.createDirectories(parent);
+					temporary = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+					mapper.writeValue(temporary.toFile(), state.get());
+					Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				} catch (IOException e) {
+					log.warn("Writing snapshot {} failed: {}", file, e.getMessage());
+					try {
+						if (temporary != null) {
+							Files.deleteIfExists(temporary);
+						}
+					} catch (IOException ignored) {
+						// Leftover temporary files are harmless
+					}
+				}
+			});
+		}
+	}
+
+}
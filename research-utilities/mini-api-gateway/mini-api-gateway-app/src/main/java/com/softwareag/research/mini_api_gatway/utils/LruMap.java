@@ -0,0 +1,103 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+/**
+ * Concurrent map with a bounded number of entries. Adding an entry beyond the
+ * bound evicts the least recently used one. Finding it scans all entries, so
+ * the map is meant for small sets that rarely change, e.g. one entry per token
+ * issuer.
+ *
+ * @author jonsch
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public final class LruMap<K, V> {
+
+	private final Map<K, Node<V>> nodes = new ConcurrentHashMap<>();
+
+	private final IntSupplier maxEntries;
+
+	/**
+	 *
+	 * @param maxEntries supplies the maximum number of entries, read on each
+	 *                   insertion so that it can be injected after construction
+	 */
+	public LruMap(IntSupplier maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param key
+	 * @param factory creates the value if the key is not present
+	 * @return the present or created value, marked as used
+	 */
+	public V get(K key, Function<K, V> factory) {
+		Node<V> node = nodes.get(key);
+		if (node == null) {
+			Node<V> created = nodes.computeIfAbsent(key, absent -> new Node<>(factory.apply(absent)));
+			int max = maxEntries.getAsInt();
+			while (nodes.size() > max) {
+				if (!evictEldest(created)) {
+					break;
+				}
+			}
+			node = created;
+		}
+		node.lastUsed = System.nanoTime();
+		return node.value;
+	}
+
+	/**
+	 * @return whether an entry other than the retained one was evicted
+	 */
+	private boolean evictEldest(Node<V> retained) {
+		Map.Entry<K, Node<V>> eldest = null;
+		for (Map.Entry<K, Node<V>> candidate : nodes.entrySet()) {
+			if (candidate.getValue() != retained
+					&& (eldest == null || candidate.getValue().lastUsed - eldest.getValue().lastUsed < 0)) {
+				eldest = candidate;
+			}
+		}
+		if (eldest == null) {
+			return false;
+		}
+		nodes.remove(eldest.getKey(), eldest.getValue());
+		return true;
+	}
+
+	/**
+	 * Visits all entries without marking them as used
+	 */
+	public void forEach(BiConsumer<K, V> action) {
+		nodes.forEach((key, node) -> action.accept(key, node.value));
+	}
+
+	public int size() {
+		return nodes.size();
+	}
+
+	private static final class Node<V> {
+
+		private final V value;
+
+		private volatile long lastUsed = System.nanoTime();
+
+		private Node(V value) {
+			this.value = value;
+		}
+	}
+
+}
@@ -0,0 +1,160 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.utils;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Maps the roles of a token to granted authorities. The role path (e.g.
+ * <code>realm_access.roles</code>) is split once when the mapper is compiled.
+ * Roles are read from a list or a whitespace-separated string. Authorities are
+ * taken from a shared canonical table, and the authorities of the same roles
+ * are computed once and shared, because most tokens of a client carry the same
+ * roles. Both tables are bounded, beyond that authorities are created per call.
+ *
+ * @author jonsch
+ *
+ */
+public final class RoleMapper {
+
+	public static final String ROLE_USER = "ROLE_USER";
+	public static final String ROLE_ADMIN = "ROLE_ADMIN";
+
+	/** Maximum number of interned authorities and of shared authority sets **/
+	private static final int MAX_INTERNED = 4096;
+
+	/** Canonical authority by role **/
+	private static final Map<String, GrantedAuthority> authorities = new ConcurrentHashMap<>();
+
+	private final String[] path;
+
+	private final String userRole;
+
+	private final String adminRole;
+
+	/** Authorities by roles as found in the claims, a list or a string **/
+	private final Map<Object, Set<GrantedAuthority>> authoritySets = new ConcurrentHashMap<>();
+
+	private RoleMapper(String[] path, String userRole, String adminRole) {
+		this.path = path;
+		this.userRole = userRole;
+		this.adminRole = adminRole;
+	}
+
+	/**
+	 *
+	 * Runs at setup (low time-critical)
+	 *
+	 * @param rolePath  dot-separated path of the roles in the claims
+	 * @param userRole  role that is mapped to the gateway user role
+	 * @param adminRole role that is mapped to the gateway admin role
+	 * @return the compiled mapper
+	 */
+	public static RoleMapper compile(String rolePath, String userRole, String adminRole) {
+		return new RoleMapper(rolePath.split("\\."), userRole, adminRole);
+	}
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param claims claims of a token or introspection result
+	 * @return the roles as authorities, the gateway user and admin roles for the
+	 *         mapped roles and always the gateway user role
+	 */
+	public Set<GrantedAuthority> map(Map<String, Object> claims) {
+		Object roles = roles(claims);
+		if (!(roles instanceof Collection<?>) && !(roles instanceof String)) {
+			roles = "";
+		}
+		Set<GrantedAuthority> mapped = authoritySets.get(roles);
+		if (mapped == null) {
+			mapped = createAuthorities(roles);
+			if (authoritySets.size() < MAX_INTERNED) {
+				Set<GrantedAuthority> previous = authoritySets.putIfAbsent(roles, mapped);
+				if (previous != null) {
+					mapped = previous;
+				}
+			}
+		}
+		return mapped;
+	}
+
+	/**
+	 * @return the value at the role path, null if there is none
+	 */
+	private Object roles(Map<String, Object> claims) {
+		Object current = claims;
+		for (String item : path) {
+			if (!(current instanceof Map<?, ?> map)) {
+				return null;
+			}
+			current = map.get(item);
+		}
+		return current;
+	}
+
+	private Set<GrantedAuthority> createAuthorities(Object roles) {
+		Set<GrantedAuthority> mapped = new HashSet<>();
+		if (roles instanceof Collection<?> collection) {
+			for (Object role : collection) {
+				if (role != null) {
+					addRole(mapped, role.toString());
+				}
+			}
+		} else {
+			String text = (String) roles;
+			int start = 0;
+			for (int i = 0; i <= text.length(); i++) {
+				if (i == text.length() || Character.isWhitespace(text.charAt(i))) {
+					if (i > start) {
+						addRole(mapped, text.substring(start, i));
+					}
+					start = i + 1;
+				}
+			}
+		}
+		mapped.add(authority(ROLE_USER));
+		return Set.copyOf(mapped);
+	}
+
+	private void addRole(Set<GrantedAuthority> mapped, String role) {
+		if (role.isBlank()) {
+			return;
+		}
+		if (role.equals(userRole)) {
+			mapped.add(authority(ROLE_USER));
+		}
+		if (role.equals(adminRole)) {
+			mapped.add(authority(ROLE_ADMIN));
+		}
+		mapped.add(authority(role));
+	}
+
+	/**
+	 * @return the canonical authority of the role
+	 */
+	public static GrantedAuthority authority(String role) {
+		GrantedAuthority authority = authorities.get(role);
+		if (authority == null) {
+			authority = new SimpleGrantedAuthority(role);
+			if (authorities.size() < MAX_INTERNED) {
+				GrantedAuthority previous = authorities.putIfAbsent(role, authority);
+				if (previous != null) {
+					authority = previous;
+				}
+			}
+		}
+		return authority;
+	}
+
+}
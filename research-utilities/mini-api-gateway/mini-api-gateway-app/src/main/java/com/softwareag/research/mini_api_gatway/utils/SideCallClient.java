@@ -0,0 +1,128 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.utils;
+
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Gateway-wide HTTP client for side calls of route filters (e.g.
+ * {@link com.softwareag.research.mini_api_gatway.model.filters.ExternalCallFilter}).
+ * Filters are deserialized with each route refresh and can not be injected, so
+ * they obtain the client with {@link #get()}. All side calls share one
+ * connection pool per remote host, with limits, timeouts and idle eviction.
+ *
+ * @author jonsch
+ *
+ */
+@Component
+@Slf4j
+public class SideCallClient {
+
+	private static final String POOL_NAME = "side-calls";
+
+	/** Used until the component is initialized, e.g. in unit tests **/
+	private static final WebClient fallbackClient = WebClient.create();
+
+	private static volatile WebClient client;
+
+	/** Metrics of the connection pool of each remote host **/
+	private static final Map<SocketAddress, ConnectionPoolMetrics> pools = new ConcurrentHashMap<>();
+
+	@Value("${gateway.side-calls.max-connections}")
+	private int maxConnections;
+
+	@Value("${gateway.side-calls.pending-acquire-max}")
+	private int pendingAcquireMax;
+
+	@Value("${gateway.side-calls.pending-acquire-timeout-ms}")
+	private long pendingAcquireTimeout;
+
+	@Value("${gateway.side-calls.max-idle-time-ms}")
+	private long maxIdleTime;
+
+	@Value("${gateway.side-calls.connect-timeout-ms}")
+	private int connectTimeout;
+
+	@Value("${gateway.side-calls.response-timeout-ms}")
+	private long responseTimeout;
+
+	private ConnectionProvider connectionProvider;
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @return the shared client for side calls
+	 */
+	public static WebClient get() {
+		WebClient current = client;
+		return current != null ? current : fallbackClient;
+	}
+
+	/**
+	 * @return metrics of the connection pool of each remote host
+	 */
+	public static Map<SocketAddress, ConnectionPoolMetrics> getPools() {
+		return Map.copyOf(pools);
+	}
+
+	@PostConstruct
+	private void initialize() {
+		connectionProvider = ConnectionProvider.builder(POOL_NAME)
+				.maxConnections(maxConnections)
+				.pendingAcquireMaxCount(pendingAcquireMax)
+				.pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeout))
+				.maxIdleTime(Duration.ofMillis(maxIdleTime))
+				.evictInBackground(Duration.ofMillis(maxIdleTime))
+				.metrics(true, () -> new PoolRegistrar())
+				.build();
+		HttpClient httpClient = HttpClient.create(connectionProvider)
+				.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout)
+				.responseTimeout(Duration.ofMillis(responseTimeout));
+		client = WebClient.builder().clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+		log.info("Side call client initialized with {} connections per host", maxConnections);
+	}
+
+	@PreDestroy
+	private void dispose() {
+		client = null;
+		pools.clear();
+		connectionProvider.dispose();
+	}
+
+	/**
+	 * Keeps the metrics of the pools instead of publishing them to a registry
+	 */
+	private static class PoolRegistrar implements ConnectionProvider.MeterRegistrar {
+
+		@Override
+		public void registerMetrics(String poolName, String id, SocketAddress remoteAddress,
+				ConnectionPoolMetrics metrics) {
+			pools.put(remoteAddress, metrics);
+		}
+
+		@Override
+		public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+			pools.remove(remoteAddress);
+		}
+	}
+
+}
@@ -0,0 +1,60 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+ package com.softwareag.research.mini_api_gatway.utils;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Shares one load between all concurrent callers (single-flight). The load is
+ * started on the first subscription and forgotten once it completes or fails,
+ * so the next call starts a new one. Used by the caches of issuer metadata,
+ * signing keys and client credentials tokens, which keep the loaded value
+ * themselves.
+ *
+ * @author jonsch
+ *
+ * @param <T> value type
+ */
+public final class SingleFlight<T> {
+
+	/** Load in progress, shared by all callers **/
+	private Mono<T> pending;
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param loader starts the load if none is in progress
+	 * @return the load in progress
+	 */
+	public synchronized Mono<T> run(Supplier<Mono<T>> loader) {
+		if (pending == null) {
+			AtomicReference<Mono<T>> self = new AtomicReference<>();
+			Mono<T> load = Mono.defer(loader)
+					.doFinally(signal -> clear(self.get()))
+					.cache();
+			self.set(load);
+			pending = load;
+		}
+		return pending;
+	}
+
+	/**
+	 * @return whether a load is in progress
+	 */
+	public synchronized boolean isRunning() {
+		return pending != null;
+	}
+
+	private synchronized void clear(Mono<T> load) {
+		if (pending == load) {
+			pending = null;
+		}
+	}
+
+}
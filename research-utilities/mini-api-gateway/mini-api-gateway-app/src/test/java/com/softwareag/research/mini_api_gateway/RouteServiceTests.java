@@ -0,0 +1,185 @@
+package com.softwareag.research.mini_api_gateway;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+
+import com.softwareag.research.mini_api_gateway.security.MockOIDCServer;
+import com.softwareag.research.mini_api_gatway.MiniAPIGWApplication;
+import com.softwareag.research.mini_api_gatway.RouteService;
+import com.softwareag.research.mini_api_gatway.events.RoutesChangedEvent;
+import com.softwareag.research.mini_api_gatway.model.RouteEntity;
+import com.softwareag.research.mini_api_gatway.model.RouteRepository;
+import com.softwareag.research.mini_api_gatway.model.RouteSettings;
+import com.softwareag.research.mini_api_gatway.model.filters.GlobalFilterEntity;
+import com.softwareag.research.mini_api_gatway.model.filters.GlobalFilterRepository;
+import com.softwareag.research.mini_api_gatway.model.filters.RemoveRequestHeadersFilter;
+import com.softwareag.research.mini_api_gatway.routing.CompiledRoute;
+import com.softwareag.research.mini_api_gatway.routing.RouteSnapshot;
+
+@SpringBootTest(classes = { MiniAPIGWApplication.class,
+		MockOIDCServer.class }, webEnvironment = WebEnvironment.DEFINED_PORT)
+public class RouteServiceTests {
+
+	@Autowired
+	private RouteService routeService;
+
+	@Autowired
+	private RouteRepository routeRepository;
+
+	@Autowired
+	private GlobalFilterRepository gFilterRepository;
+
+	private final String prefix = "refresh-test-" + System.nanoTime() + "-";
+
+	private final List<Long> createdRoutes = new ArrayList<>();
+
+	private final List<String> createdGlobalFilters = new ArrayList<>();
+
+	@AfterEach
+	public void cleanUp() throws InterruptedException {
+		routeRepository.deleteAllById(createdRoutes).block();
+		gFilterRepository.deleteAllById(createdGlobalFilters).block();
+		refresh(new RoutesChangedEvent(this, createdRoutes));
+	}
+
+	private RouteEntity createRoute(String name, String... globalFilters) {
+		RouteEntity routeEntity = new RouteEntity();
+		routeEntity.setName(prefix + name);
+		routeEntity.setVersion("1.0");
+		routeEntity.setEndpoint("http://localhost:8080/apimgmt/" + name);
+		routeEntity.setSettings(new RouteSettings());
+		routeEntity.setActive(true);
+		routeEntity.setGlobalFilters(globalFilters);
+		routeEntity = routeRepository.save(routeEntity).block();
+		createdRoutes.add(routeEntity.getId());
+		return routeEntity;
+	}
+
+	private GlobalFilterEntity createGlobalFilter(String name, String header) {
+		GlobalFilterEntity globalFilter = new GlobalFilterEntity();
+		globalFilter.setName(prefix + name);
+		globalFilter.setFilter(removeHeader(header));
+		globalFilter = gFilterRepository.save(globalFilter).block();
+		createdGlobalFilters.add(globalFilter.getName());
+		return globalFilter;
+	}
+
+	private static RemoveRequestHeadersFilter removeHeader(String header) {
+		RemoveRequestHeadersFilter filter = new RemoveRequestHeadersFilter();
+		filter.setHeadersToRemove(new String[] { header });
+		return filter;
+	}
+
+	/**
+	 * Queues the refresh and waits until its snapshot is published
+	 *
+	 * @return the published snapshot
+	 */
+	private RouteSnapshot refresh(RoutesChangedEvent event) throws InterruptedException {
+		// The initial full refresh runs once the application is ready
+		for (int i = 0; i < 50 && routeService.getSnapshot().getGeneration() == 0; i++) {
+			Thread.sleep(100);
+		}
+		long generation = routeService.getSnapshot().getGeneration();
+		routeService.handleRoutesChanged(event);
+		for (int i = 0; i < 50 && routeService.getSnapshot().getGeneration() == generation; i++) {
+			Thread.sleep(100);
+		}
+		RouteSnapshot snapshot = routeService.getSnapshot();
+		assertTrue(snapshot.getGeneration() > generation);
+		return snapshot;
+	}
+
+	@Test
+	public void recompilesOnlyChangedRoutes() throws InterruptedException {
+		GlobalFilterEntity globalFilter = createGlobalFilter("filter", "X-First");
+		RouteEntity filtered = createRoute("filtered", globalFilter.getName());
+		RouteEntity changed = createRoute("changed");
+		RouteEntity unchanged = createRoute("unchanged");
+		RouteSnapshot initial = refresh(new RoutesChangedEvent(this, createdRoutes));
+		CompiledRoute filteredRoute = initial.getRoutes().get(filtered.getId());
+		CompiledRoute changedRoute = initial.getRoutes().get(changed.getId());
+		CompiledRoute unchangedRoute = initial.getRoutes().get(unchanged.getId());
+		assertTrue(initial.getRoutesUsingGlobalFilter(globalFilter.getName()).contains(filtered.getId()));
+
+		changed.setEndpoint("http://localhost:8080/apimgmt/changed/v2");
+		routeRepository.save(changed).block();
+		RouteSnapshot next = refresh(new RoutesChangedEvent(this, List.of(changed.getId(), unchanged.getId())));
+		assertNotSame(changedRoute, next.getRoutes().get(changed.getId()));
+		// Statistics are kept across recompilations
+		assertSame(changedRoute.getStatistics(), next.getRoutes().get(changed.getId()).getStatistics());
+		// Unchanged definitions are reused, routes not named are copied
+		assertSame(unchangedRoute, next.getRoutes().get(unchanged.getId()));
+		assertSame(filteredRoute, next.getRoutes().get(filtered.getId()));
+		changedRoute = next.getRoutes().get(changed.getId());
+
+		globalFilter.setFilter(removeHeader("X-Second"));
+		gFilterRepository.save(globalFilter).block();
+		next = refresh(new RoutesChangedEvent(this, null, List.of(globalFilter.getName())));
+		assertNotSame(filteredRoute, next.getRoutes().get(filtered.getId()));
+		assertSame(changedRoute, next.getRoutes().get(changed.getId()));
+		assertSame(unchangedRoute, next.getRoutes().get(unchanged.getId()));
+	}
+
+	@Test
+	public void deactivatesFailedRoutes() throws InterruptedException {
+		RouteEntity failing = createRoute("failing");
+		RouteEntity other = createRoute("other");
+		RouteSnapshot previous = refresh(new RoutesChangedEvent(this, createdRoutes));
+		CompiledRoute failingRoute = previous.getRoutes().get(failing.getId());
+		CompiledRoute otherRoute = previous.getRoutes().get(other.getId());
+		assertNotNull(failingRoute);
+
+		failing.setGlobalFilters(new String[] { prefix + "missing" });
+		routeRepository.save(failing).block();
+		RouteSnapshot next = refresh(new RoutesChangedEvent(this, List.of(failing.getId())));
+		assertTrue(next.getFailedRouteIds().contains(failing.getId()));
+		assertNull(next.getRoutes().get(failing.getId()));
+		assertSame(otherRoute, next.getRoutes().get(other.getId()));
+		// Requests dispatched to the previous generation keep their route
+		assertSame(failingRoute, previous.getRoutes().get(failing.getId()));
+		assertFalse(previous.getFailedRouteIds().contains(failing.getId()));
+
+		boolean active = true;
+		for (int i = 0; i < 50 && active; i++) {
+			Thread.sleep(100);
+			active = routeRepository.findById(failing.getId().longValue()).block().isActive();
+		}
+		assertFalse(active);
+		assertTrue(routeRepository.findById(other.getId().longValue()).block().isActive());
+	}
+
+	@Test
+	public void knowsGlobalFiltersOfSavedRoutes() throws InterruptedException {
+		GlobalFilterEntity globalFilter = createGlobalFilter("in-use", "X-First");
+		assertFalse(routeService.isGlobalFilterInUse(globalFilter.getName()));
+		RouteEntity route = createRoute("using", globalFilter.getName());
+		// Known before the refresh of the route is published
+		routeService.routeSaved(route);
+		assertTrue(routeService.isGlobalFilterInUse(globalFilter.getName()));
+		refresh(new RoutesChangedEvent(this, List.of(route.getId())));
+		assertTrue(routeService.isGlobalFilterInUse(globalFilter.getName()));
+
+		route.setGlobalFilters(null);
+		routeRepository.save(route).block();
+		routeService.routeSaved(route);
+		// Still in use by the published generation
+		assertTrue(routeService.isGlobalFilterInUse(globalFilter.getName()));
+		refresh(new RoutesChangedEvent(this, List.of(route.getId())));
+		assertFalse(routeService.isGlobalFilterInUse(globalFilter.getName()));
+	}
+
+}
@@ -0,0 +1,134 @@
+package com.softwareag.research.mini_api_gateway.model.filters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.softwareag.research.mini_api_gatway.model.filters.ParallelExternalCallFilter;
+import com.softwareag.research.mini_api_gatway.model.filters.RouteFilter;
+import com.softwareag.research.mini_api_gatway.model.filters.SideCall;
+
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+public class ParallelExternalCallFilterTests {
+
+	private static final Duration DELAY = Duration.ofMillis(500);
+
+	private DisposableServer server;
+
+	private final AtomicInteger running = new AtomicInteger();
+
+	private final AtomicInteger maxRunning = new AtomicInteger();
+
+	/**
+	 * Starts a service answering each call after a delay with the name of the
+	 * called path, or with an error for the path fail
+	 */
+	@BeforeEach
+	public void startServer() {
+		server = HttpServer.create().port(0).route(routes -> routes.get("/{name}", (request, response) -> {
+			String name = request.param("name");
+			if (name.equals("fail")) {
+				return response.status(HttpStatus.INTERNAL_SERVER_ERROR.value()).send();
+			}
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			return response.header("Content-Type", "application/json")
+					.sendString(Mono.delay(DELAY).map(delay -> "{\"id\":\"%s-id\"}".formatted(name))
+							.doFinally(signal -> running.decrementAndGet()));
+		})).bindNow();
+	}
+
+	@AfterEach
+	public void stopServer() {
+		server.disposeNow();
+	}
+
+	private SideCall call(String name) {
+		return new SideCall("http://localhost:%d/%s".formatted(server.port(), name), "GET", null, null, 0);
+	}
+
+	@Test
+	public void runsCallsConcurrently() {
+		Map<String, SideCall> calls = new LinkedHashMap<>();
+		calls.put("user", call("user"));
+		calls.put("order", call("order"));
+		calls.put("stock", call("stock"));
+		ParallelExternalCallFilter filter = new ParallelExternalCallFilter(calls);
+		filter.setResponseMappings(Map.of(
+				"request.headers.X-User", "${user.payload.id}",
+				"request.headers.X-Order", "${order.payload.id}",
+				"stockId", "${stock.payload.id}"));
+
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/"));
+		AtomicReference<ServerWebExchange> forwarded = new AtomicReference<>();
+		filter.filter(exchange, mutated -> {
+			forwarded.set(mutated);
+			return Mono.empty();
+		}).block();
+
+		// All calls were waiting for their response at the same time
+		assertEquals(3, maxRunning.get());
+		// Each response is available under the name of its call
+		for (String name : calls.keySet()) {
+			assertNotNull(forwarded.get().getAttributes().get(name));
+		}
+		assertEquals("user-id", forwarded.get().getRequest().getHeaders().getFirst("X-User"));
+		assertEquals("order-id", forwarded.get().getRequest().getHeaders().getFirst("X-Order"));
+		assertEquals("stock-id", forwarded.get().getAttributes().get("stockId"));
+	}
+
+	@Test
+	public void failsIfAnyCallFails() {
+		Map<String, SideCall> calls = new LinkedHashMap<>();
+		calls.put("user", call("user"));
+		calls.put("failing", call("fail"));
+		ParallelExternalCallFilter filter = new ParallelExternalCallFilter(calls);
+		AtomicInteger forwarded = new AtomicInteger();
+		assertThrows(WebClientResponseException.class,
+				() -> filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/")), exchange -> {
+					forwarded.incrementAndGet();
+					return Mono.empty();
+				}).block());
+		assertEquals(0, forwarded.get());
+	}
+
+	@Test
+	public void rejectsNamesClashingWithAttributes() throws Exception {
+		for (String name : new String[] { "externalCallResponse", ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+				"user.id", "", "${user}" }) {
+			assertThrows(IllegalArgumentException.class, () -> new ParallelExternalCallFilter(Map.of(name, call(name))));
+		}
+		new ParallelExternalCallFilter(Map.of("user_1", call("user"), "order-2", call("order")));
+
+		// Routes with clashing names can not be stored or loaded
+		ObjectMapper mapper = new ObjectMapper();
+		String filter = "{\"type\":\"PARALLEL_EXTERNAL_CALL\",\"calls\":{\"%s\":{\"uri\":\"%s\",\"method\":\"GET\"}}}";
+		JsonMappingException error = assertThrows(JsonMappingException.class, () -> mapper
+				.readValue(filter.formatted("externalCallResponse", "http://localhost/user"), RouteFilter.class));
+		assertTrue(error.getCause() instanceof IllegalArgumentException);
+		assertEquals(1, ((ParallelExternalCallFilter) mapper
+				.readValue(filter.formatted("user", "http://localhost/user"), RouteFilter.class)).getCalls().size());
+	}
+
+}
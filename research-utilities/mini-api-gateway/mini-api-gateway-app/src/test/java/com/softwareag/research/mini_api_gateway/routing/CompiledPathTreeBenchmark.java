@@ -0,0 +1,184 @@
+package com.softwareag.research.mini_api_gateway.routing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpMethod;
+
+import com.softwareag.research.mini_api_gatway.model.RoutePath;
+import com.softwareag.research.mini_api_gatway.routing.CompiledPathTree;
+
+import io.swagger.v3.oas.models.PathItem;
+
+/**
+ * Compares the compiled path tree with the previous HashMap trie of
+ * RoutePathValidatorFilter. Run with <code>main</code> from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompiledPathTreeBenchmark {
+
+	private static final String BASE_PATH = "/api/v3";
+
+	/** Number of generated resources in addition to the petstore paths **/
+	@Param({ "0", "100" })
+	private int resources;
+
+	@Param({ "/api/v3/pet/findByStatus", "/api/v3/store/order/42", "/api/v3/user/john/unknown" })
+	private String path;
+
+	private CompiledPathTree tree;
+
+	private HashMapTrie trie;
+
+	@Setup
+	public void setup() {
+		List<RoutePath> paths = new ArrayList<>(List.of(
+				new RoutePath("/pet", PathItem.HttpMethod.PUT, true),
+				new RoutePath("/pet", PathItem.HttpMethod.POST, true),
+				new RoutePath("/pet/findByStatus", PathItem.HttpMethod.GET, true),
+				new RoutePath("/pet/findByTags", PathItem.HttpMethod.GET, true),
+				new RoutePath("/pet/{petId}", PathItem.HttpMethod.GET, true),
+				new RoutePath("/pet/{petId}", PathItem.HttpMethod.POST, true),
+				new RoutePath("/pet/{petId}", PathItem.HttpMethod.DELETE, true),
+				new RoutePath("/pet/{petId}/uploadImage", PathItem.HttpMethod.POST, true),
+				new RoutePath("/store/inventory", PathItem.HttpMethod.GET, true),
+				new RoutePath("/store/order", PathItem.HttpMethod.POST, true),
+				new RoutePath("/store/order/{orderId}", PathItem.HttpMethod.GET, true),
+				new RoutePath("/store/order/{orderId}", PathItem.HttpMethod.DELETE, true),
+				new RoutePath("/user", PathItem.HttpMethod.POST, true),
+				new RoutePath("/user/createWithList", PathItem.HttpMethod.POST, true),
+				new RoutePath("/user/login", PathItem.HttpMethod.GET, true),
+				new RoutePath("/user/logout", PathItem.HttpMethod.GET, true),
+				new RoutePath("/user/{username}", PathItem.HttpMethod.GET, true),
+				new RoutePath("/user/{username}", PathItem.HttpMethod.PUT, true),
+				new RoutePath("/user/{username}", PathItem.HttpMethod.DELETE, true)));
+		for (int i = 0; i < resources; i++) {
+			paths.add(new RoutePath("/resource" + i, PathItem.HttpMethod.GET, true));
+			paths.add(new RoutePath("/resource" + i + "/{id}", PathItem.HttpMethod.GET, true));
+			paths.add(new RoutePath("/resource" + i + "/{id}/items", PathItem.HttpMethod.POST, true));
+		}
+		tree = CompiledPathTree.compile(paths);
+		trie = new HashMapTrie(paths);
+	}
+
+	@Benchmark
+	public boolean compiledPathTree() {
+		return tree.isAllowed(path, BASE_PATH.length(), CompiledPathTree.methodFlag(HttpMethod.GET));
+	}
+
+	@Benchmark
+	public boolean hashMapTrie() {
+		return trie.isAllowed(path, HttpMethod.GET);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(CompiledPathTreeBenchmark.class.getSimpleName()).build()).run();
+	}
+
+	/**
+	 * Previous implementation of RoutePathValidatorFilter
+	 */
+	@SuppressWarnings("unchecked")
+	static class HashMapTrie {
+
+		private static final int METHOD_DELETE = 1;
+		private static final int METHOD_GET = 2;
+		private static final int METHOD_HEAD = 4;
+		private static final int METHOD_OPTIONS = 8;
+		private static final int METHOD_PATCH = 16;
+		private static final int METHOD_POST = 32;
+		private static final int METHOD_PUT = 64;
+		private static final int METHOD_TRACE = 128;
+
+		private static final String ROOT_PLACEHOLDER = "<root>";
+		private static final String WILDCARD_PLACEHOLDER = "<*>";
+
+		private final Map<String, Object> pathMap = new HashMap<>();
+
+		HashMapTrie(List<RoutePath> paths) {
+			for (RoutePath path : paths) {
+				insertPath(path.getPath().split("/"), 0, pathMap, mapMethod(path.getMethod().name()));
+			}
+		}
+
+		boolean isAllowed(String path, HttpMethod method) {
+			String[] pathSegments = path.substring(BASE_PATH.length()).split("/");
+			return isAllowed(pathSegments, 0, pathMap, mapMethod(method.toString()));
+		}
+
+		private void insertPath(String[] pathSegments, int index, Map<String, Object> map, int methodFlag) {
+			if (index == pathSegments.length) {
+				int flags = (int) map.getOrDefault(ROOT_PLACEHOLDER, 0);
+				map.put(ROOT_PLACEHOLDER, flags | methodFlag);
+			} else if (index == 0 && pathSegments[index].length() == 0) {
+				insertPath(pathSegments, index + 1, map, methodFlag);
+			} else {
+				String key = pathSegments[index].charAt(0) == '{' ? WILDCARD_PLACEHOLDER : pathSegments[index];
+				Map<String, Object> nMap = (Map<String, Object>) map.getOrDefault(key, new HashMap<String, Object>());
+				map.put(key, nMap);
+				insertPath(pathSegments, index + 1, nMap, methodFlag);
+			}
+		}
+
+		private static int mapMethod(String method) {
+			switch (method) {
+			case "GET":
+				return METHOD_GET;
+			case "HEAD":
+				return METHOD_HEAD;
+			case "POST":
+				return METHOD_POST;
+			case "PUT":
+				return METHOD_PUT;
+			case "PATCH":
+				return METHOD_PATCH;
+			case "DELETE":
+				return METHOD_DELETE;
+			case "OPTIONS":
+				return METHOD_OPTIONS;
+			case "TRACE":
+				return METHOD_TRACE;
+			default:
+				return 0;
+			}
+		}
+
+		private boolean isAllowed(String[] pathSegments, int index, Map<String, Object> map, int methodFlag) {
+			if (index == pathSegments.length) {
+				int flags = (int) map.getOrDefault(ROOT_PLACEHOLDER, 0);
+				return (flags & methodFlag) != 0;
+			} else if (index == 0 && pathSegments[index].length() == 0) {
+				return isAllowed(pathSegments, index + 1, map, methodFlag);
+			} else {
+				Map<String, Object> nMap = (Map<String, Object>) map.get(pathSegments[index]);
+				if (nMap == null) {
+					nMap = (Map<String, Object>) map.get(WILDCARD_PLACEHOLDER);
+				}
+				return nMap != null && isAllowed(pathSegments, index + 1, nMap, methodFlag);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,86 @@
+package com.softwareag.research.mini_api_gateway.routing;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+
+import com.softwareag.research.mini_api_gatway.model.RoutePath;
+import com.softwareag.research.mini_api_gatway.routing.CompiledPathTree;
+
+import io.swagger.v3.oas.models.PathItem;
+
+public class CompiledPathTreeTests {
+
+	private static final int GET = CompiledPathTree.methodFlag(HttpMethod.GET);
+	private static final int POST = CompiledPathTree.methodFlag(HttpMethod.POST);
+	private static final int DELETE = CompiledPathTree.methodFlag(HttpMethod.DELETE);
+
+	private static CompiledPathTree createTree() {
+		RoutePath inactive = new RoutePath("/store/order/{orderId}", PathItem.HttpMethod.DELETE, false);
+		return CompiledPathTree.compile(List.of(
+				new RoutePath("/pet", PathItem.HttpMethod.POST, true),
+				new RoutePath("/pet/findByStatus", PathItem.HttpMethod.GET, true),
+				new RoutePath("/pet/{petId}", PathItem.HttpMethod.GET, true),
+				new RoutePath("/pet/{petId}/uploadImage", PathItem.HttpMethod.POST, true),
+				new RoutePath("/store/order/{orderId}", PathItem.HttpMethod.GET, true),
+				new RoutePath("/user/login", PathItem.HttpMethod.GET, true),
+				new RoutePath("/", PathItem.HttpMethod.GET, true),
+				inactive));
+	}
+
+	@Test
+	public void matchesLiteralAndParameterSegments() {
+		CompiledPathTree tree = createTree();
+		assertTrue(tree.isAllowed("/pet", 0, POST));
+		assertTrue(tree.isAllowed("/pet/", 0, POST));
+		assertTrue(tree.isAllowed("/pet/findByStatus", 0, GET));
+		assertTrue(tree.isAllowed("/pet/42", 0, GET));
+		assertTrue(tree.isAllowed("/pet/42/uploadImage", 0, POST));
+		assertTrue(tree.isAllowed("/store/order/7", 0, GET));
+		assertTrue(tree.isAllowed("/user/login", 0, GET));
+		assertTrue(tree.isAllowed("/", 0, GET));
+		assertTrue(tree.isAllowed("", 0, GET));
+	}
+
+	@Test
+	public void respectsBasePathAndMethods() {
+		CompiledPathTree tree = createTree();
+		assertTrue(tree.isAllowed("/api/v3/pet/42", "/api/v3".length(), GET));
+		assertFalse(tree.isAllowed("/pet", 0, GET));
+		assertFalse(tree.isAllowed("/pet/42", 0, POST));
+		assertFalse(tree.isAllowed("/store/order/7", 0, DELETE));
+		assertFalse(tree.isAllowed("/pet/42", 0, CompiledPathTree.methodFlag(HttpMethod.valueOf("PROPFIND"))));
+	}
+
+	@Test
+	public void rejectsUnknownPaths() {
+		CompiledPathTree tree = createTree();
+		assertFalse(tree.isAllowed("/pets", 0, POST));
+		assertFalse(tree.isAllowed("/pet/42/uploadImage/x", 0, POST));
+		assertFalse(tree.isAllowed("/store/order", 0, GET));
+		assertFalse(tree.isAllowed("/store", 0, GET));
+		assertFalse(tree.isAllowed("/user/log", 0, GET));
+		assertFalse(tree.isAllowed("/user/loginx", 0, GET));
+	}
+
+	@Test
+	public void fallsBackToParameterIfLiteralPathDoesNotMatch() {
+		CompiledPathTree tree = createTree();
+		assertTrue(tree.isAllowed("/pet/findByStatus/uploadImage", 0, POST));
+	}
+
+	@Test
+	public void literalPathTakesPrecedenceOverParameter() {
+		CompiledPathTree tree = CompiledPathTree.compile(List.of(
+				new RoutePath("/{resource}", PathItem.HttpMethod.GET, true),
+				new RoutePath("/pet", PathItem.HttpMethod.POST, true)));
+		assertTrue(tree.isAllowed("/store", 0, GET));
+		assertTrue(tree.isAllowed("/pet", 0, POST));
+		assertFalse(tree.isAllowed("/pet", 0, GET));
+	}
+
+}
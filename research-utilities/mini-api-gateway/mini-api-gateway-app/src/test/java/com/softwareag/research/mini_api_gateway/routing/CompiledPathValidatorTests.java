@@ -0,0 +1,46 @@
+package com.softwareag.research.mini_api_gateway.routing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+import com.softwareag.research.mini_api_gatway.model.RoutePath;
+import com.softwareag.research.mini_api_gatway.model.RouteSettings;
+import com.softwareag.research.mini_api_gatway.routing.CompiledPathValidator;
+
+import io.swagger.v3.oas.models.PathItem;
+
+public class CompiledPathValidatorTests {
+
+	private static final RoutePath GET_PET = new RoutePath("/pet/{petId}", PathItem.HttpMethod.GET, true);
+	private static final RoutePath POST_PET = new RoutePath("/pet", PathItem.HttpMethod.POST, true);
+
+	@Test
+	public void sharesValidatorForSameSpecification() {
+		CompiledPathValidator validator = CompiledPathValidator.intern(new RoutePath[] { GET_PET, POST_PET },
+				new RouteSettings(), null);
+		RoutePath inactive = new RoutePath("/store", PathItem.HttpMethod.GET, false);
+		assertSame(validator, CompiledPathValidator.intern(new RoutePath[] { POST_PET, inactive, GET_PET },
+				new RouteSettings(), null));
+	}
+
+	@Test
+	public void separatesDifferentSpecificationsAndSettings() {
+		CompiledPathValidator validator = CompiledPathValidator.intern(new RoutePath[] { GET_PET, POST_PET },
+				new RouteSettings(), null);
+		assertNotSame(validator, CompiledPathValidator.intern(new RoutePath[] { GET_PET }, new RouteSettings(), null));
+		assertNotSame(validator, CompiledPathValidator.intern(new RoutePath[] { GET_PET, POST_PET },
+				new RouteSettings(false, true, false, false), null));
+	}
+
+	@Test
+	public void buildsAllowHeaders() {
+		CompiledPathValidator validator = CompiledPathValidator.intern(new RoutePath[] { GET_PET, POST_PET },
+				new RouteSettings(false, true, false, false), null);
+		int node = validator.getPathTree().find("/pet/42", 0);
+		assertEquals("GET, OPTIONS", validator.getAllowHeader(node));
+	}
+
+}
@@ -0,0 +1,140 @@
+package com.softwareag.research.mini_api_gateway.routing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpMethod;
+
+import com.softwareag.research.mini_api_gatway.exceptions.RequestBodyValidationException;
+import com.softwareag.research.mini_api_gatway.model.RoutePath;
+import com.softwareag.research.mini_api_gatway.model.RouteSettings;
+import com.softwareag.research.mini_api_gatway.routing.CompiledPathTree;
+import com.softwareag.research.mini_api_gatway.routing.CompiledPathValidator;
+import com.softwareag.research.mini_api_gatway.routing.JsonBodyValidator;
+
+import io.swagger.v3.oas.models.PathItem;
+
+public class JsonBodyValidatorTests {
+
+	private static final String PET = "{\"id\":10,\"name\":\"doggie\",\"category\":{\"id\":1,\"name\":\"Dogs\"},"
+			+ "\"photoUrls\":[\"a\",\"b\"],\"tags\":[{\"id\":1,\"name\":\"x\"}],\"status\":\"available\"}";
+
+	private static CompiledPathValidator createValidator() throws IOException {
+		InputStream stream = Thread.currentThread().getContextClassLoader()
+				.getResourceAsStream("petstore_openapi.yaml");
+		String specification = new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+		RoutePath[] paths = {
+				new RoutePath("/pet", PathItem.HttpMethod.POST, true),
+				new RoutePath("/store/order", PathItem.HttpMethod.POST, true) };
+		RouteSettings settings = new RouteSettings();
+		settings.setValidateRequestBody(true);
+		return CompiledPathValidator.intern(paths, settings, specification);
+	}
+
+	private static String validate(CompiledPathValidator validator, String path, String body, int chunkSize) {
+		return validate(validator, path, body, chunkSize, 65536);
+	}
+
+	/**
+	 * Feeds the body in chunks of the given size
+	 *
+	 * @return the validation error or null if the body is valid
+	 */
+	private static String validate(CompiledPathValidator validator, String path, String body, int chunkSize,
+			int maxTokenLength) {
+		int node = validator.getPathTree().find(path, 0);
+		JsonBodyValidator bodyValidator = validator.getBodyValidator().start(node,
+				CompiledPathTree.methodFlag(HttpMethod.POST), maxTokenLength);
+		assertNotNull(bodyValidator);
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		try {
+			for (int i = 0; i < bytes.length; i += chunkSize) {
+				bodyValidator.feed(DefaultDataBufferFactory.sharedInstance
+						.wrap(Arrays.copyOfRange(bytes, i, Math.min(bytes.length, i + chunkSize))));
+			}
+			bodyValidator.finish();
+			return null;
+		} catch (RequestBodyValidationException e) {
+			return e.getReason();
+		}
+	}
+
+	@Test
+	public void acceptsValidBodiesInAnyChunks() throws IOException {
+		CompiledPathValidator validator = createValidator();
+		assertNull(validate(validator, "/pet", PET, 1));
+		assertNull(validate(validator, "/pet", PET, 7));
+		assertNull(validate(validator, "/pet", PET, PET.length()));
+		assertNull(validate(validator, "/store/order",
+				"{\"id\":1,\"quantity\":2,\"complete\":true,\"extra\":{\"a\":[1,{}]}}", 3));
+	}
+
+	@Test
+	public void rejectsBodiesNotMatchingSchema() throws IOException {
+		CompiledPathValidator validator = createValidator();
+		assertEquals("Missing required property 'photoUrls'", validate(validator, "/pet", "{\"name\":\"doggie\"}", 4));
+		assertEquals("Unexpected integer at /photoUrls/0",
+				validate(validator, "/pet", "{\"name\":\"doggie\",\"photoUrls\":[1]}", 4));
+		assertEquals("Value not allowed at /status",
+				validate(validator, "/pet", "{\"name\":\"doggie\",\"photoUrls\":[],\"status\":\"lost\"}", 4));
+		assertEquals("Unexpected number at /quantity",
+				validate(validator, "/store/order", "{\"id\":1,\"quantity\":2.5}", 4));
+	}
+
+	@Test
+	public void rejectsMalformedBodies() throws IOException {
+		CompiledPathValidator validator = createValidator();
+		assertEquals("Missing request body", validate(validator, "/pet", "", 4));
+		assertEquals("Unexpected content after JSON value",
+				validate(validator, "/pet", "{\"name\":\"d\",\"photoUrls\":[]} {}", 4));
+		assertNotNull(validate(validator, "/pet", "{\"name\":\"doggie\",\"photoUrls\":[]", 4));
+		assertNotNull(validate(validator, "/pet", "{\"name\":\"doggie\",,}", 4));
+	}
+
+	@Test
+	public void rejectsTokensLongerThanMaximum() throws IOException {
+		CompiledPathValidator validator = createValidator();
+		String longName = "x".repeat(10000);
+		String expected = "Token exceeds the maximum length of 1000 bytes";
+		assertEquals(expected,
+				validate(validator, "/pet", "{\"name\":\"" + longName + "\",\"photoUrls\":[]}", 64, 1000));
+		assertEquals(expected,
+				validate(validator, "/pet", "{\"name\":\"" + longName + "\",\"photoUrls\":[]}", 20000, 1000));
+		assertEquals(expected, validate(validator, "/store/order", "{\"id\":" + "1".repeat(2000) + "}", 64, 1000));
+		assertEquals(expected, validate(validator, "/store/order",
+				"{\"extra\":{\"" + longName + "\":1}}", 64, 1000));
+		assertNull(validate(validator, "/pet", "{\"name\":\"" + "x".repeat(1000) + "\",\"photoUrls\":[]}", 64,
+				1000));
+	}
+
+	@Test
+	public void rejectsLongTokenWhileStreamed() throws IOException {
+		CompiledPathValidator validator = createValidator();
+		int node = validator.getPathTree().find("/pet", 0);
+		JsonBodyValidator bodyValidator = validator.getBodyValidator().start(node,
+				CompiledPathTree.methodFlag(HttpMethod.POST), 1000);
+		byte[] chunk = "x".repeat(64).getBytes(StandardCharsets.UTF_8);
+		bodyValidator.feed(DefaultDataBufferFactory.sharedInstance
+				.wrap("{\"name\":\"".getBytes(StandardCharsets.UTF_8)));
+		int fed = 0;
+		try {
+			while (fed < 1000000) {
+				bodyValidator.feed(DefaultDataBufferFactory.sharedInstance.wrap(chunk));
+				fed += chunk.length;
+			}
+		} catch (RequestBodyValidationException e) {
+			assertEquals(400, e.getStatusCode().value());
+		}
+		assertTrue(fed <= 1000);
+	}
+
+}
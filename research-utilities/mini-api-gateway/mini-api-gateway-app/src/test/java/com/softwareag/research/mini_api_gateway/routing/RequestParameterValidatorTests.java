@@ -0,0 +1,136 @@
+package com.softwareag.research.mini_api_gateway.routing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+import com.softwareag.research.mini_api_gatway.model.RoutePath;
+import com.softwareag.research.mini_api_gatway.model.RouteSettings;
+import com.softwareag.research.mini_api_gatway.routing.CompiledPathTree;
+import com.softwareag.research.mini_api_gatway.routing.CompiledPathValidator;
+
+import io.swagger.v3.oas.models.PathItem;
+
+public class RequestParameterValidatorTests {
+
+	private static final String BASE_PATH = "/api/v3";
+
+	private static CompiledPathValidator createValidator() throws IOException {
+		InputStream stream = Thread.currentThread().getContextClassLoader()
+				.getResourceAsStream("petstore_openapi.yaml");
+		String specification = new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+		RoutePath[] paths = {
+				new RoutePath("/pet/findByStatus", PathItem.HttpMethod.GET, true),
+				new RoutePath("/pet/findByTags", PathItem.HttpMethod.GET, true),
+				new RoutePath("/pet/{petId}", PathItem.HttpMethod.GET, true),
+				new RoutePath("/pet/{petId}", PathItem.HttpMethod.DELETE, true) };
+		return CompiledPathValidator.intern(paths, new RouteSettings(true, true, true, false), specification);
+	}
+
+	private static String validate(CompiledPathValidator validator, MockServerHttpRequest request) {
+		int node = validator.getPathTree().find(request.getPath().value(), BASE_PATH.length());
+		byte[] violation = validator.getParameterValidator().validate(request, node,
+				CompiledPathTree.methodFlag(request.getMethod()), BASE_PATH.length());
+		return violation == null ? null : new String(violation, StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void acceptsValidParameters() throws IOException {
+		CompiledPathValidator validator = createValidator();
+		assertNotNull(validator.getParameterValidator());
+		assertNull(validate(validator, MockServerHttpRequest.get(BASE_PATH + "/pet/42").build()));
+		assertNull(validate(validator, MockServerHttpRequest.get(BASE_PATH + "/pet/findByStatus").build()));
+		assertNull(validate(validator,
+				MockServerHttpRequest.get(BASE_PATH + "/pet/findByStatus?status=sold").build()));
+		assertNull(validate(validator,
+				MockServerHttpRequest.get(BASE_PATH + "/pet/findByTags?tags=a&tags=b").build()));
+		assertNull(validate(validator,
+				MockServerHttpRequest.method(HttpMethod.DELETE, BASE_PATH + "/pet/-7").header("api_key", "x").build()));
+	}
+
+	@Test
+	public void rejectsInvalidParameters() throws IOException {
+		CompiledPathValidator validator = createValidator();
+		assertEquals("Invalid value for path parameter 'petId'",
+				validate(validator, MockServerHttpRequest.get(BASE_PATH + "/pet/abc").build()));
+		assertEquals("Invalid value for path parameter 'petId'",
+				validate(validator, MockServerHttpRequest.get(BASE_PATH + "/pet/4.2").build()));
+		assertEquals("Invalid value for query parameter 'status'",
+				validate(validator, MockServerHttpRequest.get(BASE_PATH + "/pet/findByStatus?status=lost").build()));
+	}
+
+	@Test
+	public void validatesValueTypes() {
+		RouteSettings settings = new RouteSettings(true, true, true, false);
+		String specification = """
+				openapi: 3.0.2
+				info:
+				  title: Types
+				  version: '1'
+				paths:
+				  /items:
+				    parameters:
+				      - $ref: '#/components/parameters/limit'
+				    get:
+				      parameters:
+				        - name: price
+				          in: query
+				          schema:
+				            type: number
+				        - name: flag
+				          in: query
+				          schema:
+				            type: boolean
+				        - name: X-Code
+				          in: header
+				          required: true
+				          schema:
+				            $ref: '#/components/schemas/Code'
+				      responses:
+				        '200':
+				          description: OK
+				components:
+				  parameters:
+				    limit:
+				      name: limit
+				      in: query
+				      schema:
+				        type: integer
+				  schemas:
+				    Code:
+				      type: string
+				      pattern: '^[A-Z]{3}$'
+				""";
+		CompiledPathValidator validator = CompiledPathValidator.intern(
+				new RoutePath[] { new RoutePath("/items", PathItem.HttpMethod.GET, true) }, settings, specification);
+		assertNull(validate(validator, MockServerHttpRequest.get(BASE_PATH + "/items?limit=10&price=-1.5e3&flag=true")
+				.header("X-Code", "ABC").build()));
+		assertEquals("Missing required header parameter 'X-Code'",
+				validate(validator, MockServerHttpRequest.get(BASE_PATH + "/items").build()));
+		assertEquals("Invalid value for header parameter 'X-Code'", validate(validator,
+				MockServerHttpRequest.get(BASE_PATH + "/items").header("X-Code", "abc").build()));
+		assertEquals("Invalid value for query parameter 'limit'", validate(validator,
+				MockServerHttpRequest.get(BASE_PATH + "/items?limit=1x").header("X-Code", "ABC").build()));
+		assertEquals("Invalid value for query parameter 'price'", validate(validator,
+				MockServerHttpRequest.get(BASE_PATH + "/items?price=1.2.3").header("X-Code", "ABC").build()));
+		assertEquals("Invalid value for query parameter 'flag'", validate(validator,
+				MockServerHttpRequest.get(BASE_PATH + "/items?flag=yes").header("X-Code", "ABC").build()));
+	}
+
+	@Test
+	public void skipsParametersWhenDisabled() throws IOException {
+		CompiledPathValidator validator = CompiledPathValidator.intern(
+				new RoutePath[] { new RoutePath("/pet/{petId}", PathItem.HttpMethod.GET, true) }, new RouteSettings(),
+				"openapi: 3.0.2");
+		assertNull(validator.getParameterValidator());
+	}
+
+}
@@ -0,0 +1,85 @@
+package com.softwareag.research.mini_api_gateway.routing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import com.softwareag.research.mini_api_gatway.configuration.Constants;
+import com.softwareag.research.mini_api_gatway.routing.RouteDispatchIndex;
+
+/**
+ * Compares the dispatch index with the linear path predicate scan of Spring
+ * Cloud Gateway. Run with <code>main</code> from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteDispatchIndexBenchmark {
+
+	@Param({ "10", "1000", "100000" })
+	private int routes;
+
+	private RouteDispatchIndex<Integer> index;
+
+	private List<PathPattern> patterns;
+
+	private String path;
+
+	@Setup
+	public void setup() {
+		Map<String, Integer> keys = new HashMap<>();
+		patterns = new ArrayList<>(routes);
+		PathPatternParser parser = new PathPatternParser();
+		for (int i = 0; i < routes; i++) {
+			keys.put(RouteDispatchIndex.key("api" + i, "v1"), i);
+			patterns.add(parser.parse(Constants.GATEWAY_PROXY_PATH_FORMAT.formatted("api" + i, "v1")));
+		}
+		index = new RouteDispatchIndex<>(keys);
+		// Worst case for the linear scan
+		path = Constants.GATEWAY_PROXY_ENDPOINT_FORMAT.formatted("api" + (routes - 1), "v1") + "/pets/42";
+	}
+
+	@Benchmark
+	public Integer indexLookup() {
+		return index.lookup(path);
+	}
+
+	@Benchmark
+	public int linearPathPatternScan() {
+		PathContainer container = PathContainer.parsePath(path);
+		for (int i = 0; i < patterns.size(); i++) {
+			if (patterns.get(i).matches(container)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(RouteDispatchIndexBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
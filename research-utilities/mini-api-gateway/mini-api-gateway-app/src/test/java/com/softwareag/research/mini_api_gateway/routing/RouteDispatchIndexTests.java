@@ -0,0 +1,58 @@
+package com.softwareag.research.mini_api_gateway.routing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.softwareag.research.mini_api_gatway.routing.RouteDispatchIndex;
+
+public class RouteDispatchIndexTests {
+
+	private static RouteDispatchIndex<String> createIndex() {
+		Map<String, String> routes = new HashMap<>();
+		routes.put(RouteDispatchIndex.key("petstore", "v1"), "petstore-v1");
+		routes.put(RouteDispatchIndex.key("petstore", "v2"), "petstore-v2");
+		routes.put(RouteDispatchIndex.key("weather", "1.0"), "weather");
+		return new RouteDispatchIndex<>(routes);
+	}
+
+	@Test
+	public void resolvesNameAndVersion() {
+		RouteDispatchIndex<String> index = createIndex();
+		assertEquals(3, index.size());
+		assertEquals("petstore-v1", index.lookup("/gateway/petstore/v1/pets/42"));
+		assertEquals("petstore-v2", index.lookup("/gateway/petstore/v2"));
+		assertEquals("petstore-v2", index.lookup("/gateway/petstore/v2/"));
+		assertEquals("weather", index.lookup("/gateway/weather/1.0/forecast?days=3"));
+	}
+
+	@Test
+	public void rejectsUnknownPaths() {
+		RouteDispatchIndex<String> index = createIndex();
+		assertNull(index.lookup("/gateway/petstore/v3/pets"));
+		assertNull(index.lookup("/gateway/petstore"));
+		assertNull(index.lookup("/gateway/petstore/"));
+		assertNull(index.lookup("/gateway//v1/pets"));
+		assertNull(index.lookup("/gateway/petstor/ev1/pets"));
+		assertNull(index.lookup("/routes/petstore/v1"));
+		assertNull(new RouteDispatchIndex<String>(Map.of()).lookup("/gateway/petstore/v1"));
+	}
+
+	@Test
+	public void resolvesLargeCatalog() {
+		Map<String, String> routes = new HashMap<>();
+		for (int i = 0; i < 10000; i++) {
+			routes.put(RouteDispatchIndex.key("api" + i, "v1"), "api" + i);
+		}
+		RouteDispatchIndex<String> index = new RouteDispatchIndex<>(routes);
+		for (int i = 0; i < 10000; i++) {
+			assertEquals("api" + i, index.lookup("/gateway/api" + i + "/v1/resource"));
+		}
+		assertNull(index.lookup("/gateway/api10000/v1/resource"));
+	}
+
+}
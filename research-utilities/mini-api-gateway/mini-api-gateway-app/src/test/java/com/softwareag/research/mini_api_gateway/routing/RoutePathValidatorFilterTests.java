@@ -0,0 +1,90 @@
+package com.softwareag.research.mini_api_gateway.routing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import com.softwareag.research.mini_api_gatway.model.RouteEntity;
+import com.softwareag.research.mini_api_gatway.model.RoutePath;
+import com.softwareag.research.mini_api_gatway.model.RouteSettings;
+import com.softwareag.research.mini_api_gatway.model.filters.RoutePathValidatorFilter;
+import com.softwareag.research.mini_api_gatway.routing.RouteStatistics;
+
+import io.swagger.v3.oas.models.PathItem;
+import reactor.core.publisher.Mono;
+
+public class RoutePathValidatorFilterTests {
+
+	private final RouteStatistics statistics = new RouteStatistics();
+
+	private final AtomicInteger forwarded = new AtomicInteger();
+
+	private final GatewayFilterChain chain = exchange -> {
+		forwarded.incrementAndGet();
+		return Mono.empty();
+	};
+
+	private RoutePathValidatorFilter createFilter() {
+		RouteEntity route = new RouteEntity();
+		route.setEndpoint("http://localhost:8080/api/v3");
+		route.setSettings(new RouteSettings());
+		route.setPaths(new RoutePath[] {
+				new RoutePath("/pet", PathItem.HttpMethod.POST, true),
+				new RoutePath("/pet/{petId}", PathItem.HttpMethod.GET, true),
+				new RoutePath("/pet/{petId}", PathItem.HttpMethod.DELETE, false) });
+		return new RoutePathValidatorFilter(route, statistics, 65536);
+	}
+
+	private MockServerWebExchange filter(MockServerHttpRequest.BaseBuilder<?> request) {
+		MockServerWebExchange exchange = MockServerWebExchange.from(request);
+		createFilter().filter(exchange, chain).block();
+		return exchange;
+	}
+
+	@Test
+	public void passesSpecifiedPathsAndMethods() {
+		MockServerWebExchange exchange = filter(MockServerHttpRequest.get("/api/v3/pet/42"));
+		assertNull(exchange.getResponse().getStatusCode());
+		filter(MockServerHttpRequest.post("/api/v3/pet"));
+		// HEAD and OPTIONS are always allowed by default
+		filter(MockServerHttpRequest.head("/api/v3/pets"));
+		filter(MockServerHttpRequest.options("/api/v3/pets"));
+		assertEquals(4, forwarded.get());
+		assertEquals(0, statistics.getRejectedNotFound());
+		assertEquals(0, statistics.getRejectedMethodNotAllowed());
+	}
+
+	@Test
+	public void rejectsUnknownPaths() {
+		MockServerWebExchange exchange = filter(MockServerHttpRequest.get("/api/v3/pets"));
+		assertEquals(HttpStatus.NOT_FOUND, exchange.getResponse().getStatusCode());
+		assertNull(exchange.getResponse().getHeaders().getFirst(HttpHeaders.ALLOW));
+		filter(MockServerHttpRequest.get("/api/v3/pet/42/uploadImage"));
+		assertEquals(0, forwarded.get());
+		assertEquals(2, statistics.getRejectedNotFound());
+		assertEquals(0, statistics.getRejectedMethodNotAllowed());
+	}
+
+	@Test
+	public void rejectsUnknownMethodsWithAllowHeader() {
+		// The method of the inactive path is not allowed either
+		MockServerWebExchange exchange = filter(MockServerHttpRequest.delete("/api/v3/pet/42"));
+		assertEquals(HttpStatus.METHOD_NOT_ALLOWED, exchange.getResponse().getStatusCode());
+		assertEquals("GET, HEAD, OPTIONS", exchange.getResponse().getHeaders().getFirst(HttpHeaders.ALLOW));
+		exchange = filter(MockServerHttpRequest.get("/api/v3/pet"));
+		assertEquals(HttpStatus.METHOD_NOT_ALLOWED, exchange.getResponse().getStatusCode());
+		assertEquals("HEAD, POST, OPTIONS", exchange.getResponse().getHeaders().getFirst(HttpHeaders.ALLOW));
+		assertEquals(0, forwarded.get());
+		assertEquals(0, statistics.getRejectedNotFound());
+		assertEquals(2, statistics.getRejectedMethodNotAllowed());
+	}
+
+}
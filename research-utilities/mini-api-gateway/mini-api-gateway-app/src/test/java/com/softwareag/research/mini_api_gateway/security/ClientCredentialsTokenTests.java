@@ -0,0 +1,69 @@
+package com.softwareag.research.mini_api_gateway.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.softwareag.research.mini_api_gatway.MiniAPIGWApplication;
+import com.softwareag.research.mini_api_gatway.security.ClientCredentialsTokenManager;
+import com.softwareag.research.mini_api_gatway.utils.SideCallClient;
+
+import reactor.core.publisher.Mono;
+
+@SpringBootTest(classes = { MiniAPIGWApplication.class,
+		MockOIDCServer.class }, webEnvironment = WebEnvironment.DEFINED_PORT)
+public class ClientCredentialsTokenTests {
+
+	private static final String ISSUER = "http://localhost:8080/apimgmt/issuer";
+
+	@Autowired
+	private ClientCredentialsTokenManager tokenManager;
+
+	@Autowired
+	private MockOIDCServer mockOIDCServer;
+
+	@Test
+	public void usesPooledSideCallClient() {
+		Object tokenResponseClient = ReflectionTestUtils.getField(tokenManager, "tokenResponseClient");
+		assertSame(SideCallClient.get(), ReflectionTestUtils.getField(tokenResponseClient, "webClient"));
+	}
+
+	@Test
+	public void coalescesTokenRequests() {
+		int requests = mockOIDCServer.getTokenRequests().get();
+		Mono<String> first = tokenManager.getToken(ISSUER, "coalescing-client", "secret", List.of("long-lived"));
+		Mono<String> second = tokenManager.getToken(ISSUER, "coalescing-client", "secret", List.of("long-lived"));
+		String token = Mono.zip(first, second).map(tokens -> {
+			assertEquals(tokens.getT1(), tokens.getT2());
+			return tokens.getT1();
+		}).block();
+		assertEquals(token, tokenManager.getToken(ISSUER, "coalescing-client", "secret", List.of("long-lived")).block());
+		assertEquals(requests + 1, mockOIDCServer.getTokenRequests().get());
+	}
+
+	@Test
+	public void refreshesTokensBeforeExpiry() throws InterruptedException {
+		String expiring = tokenManager.getToken(ISSUER, "refreshing-client", "secret", null).block();
+		String longLived = tokenManager.getToken(ISSUER, "refreshing-client", "secret", List.of("long-lived")).block();
+
+		ReflectionTestUtils.invokeMethod(tokenManager, "refreshExpiring");
+		String refreshed = expiring;
+		for (int i = 0; i < 50 && refreshed.equals(expiring); i++) {
+			Thread.sleep(100);
+			refreshed = tokenManager.getToken(ISSUER, "refreshing-client", "secret", null).block();
+		}
+		assertNotEquals(expiring, refreshed);
+		// Not refreshed, it is valid beyond the refresh margin
+		assertEquals(longLived,
+				tokenManager.getToken(ISSUER, "refreshing-client", "secret", List.of("long-lived")).block());
+	}
+
+}
@@ -0,0 +1,162 @@
+package com.softwareag.research.mini_api_gateway.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.softwareag.research.mini_api_gatway.security.CryptoScheduler;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+public class CryptoSchedulerTests {
+
+	private CryptoScheduler scheduler;
+
+	private CryptoScheduler createScheduler(int threads, int queueSize) {
+		scheduler = new CryptoScheduler();
+		ReflectionTestUtils.setField(scheduler, "threads", threads);
+		ReflectionTestUtils.setField(scheduler, "queueSize", queueSize);
+		ReflectionTestUtils.invokeMethod(scheduler, "initialize");
+		return scheduler;
+	}
+
+	@AfterEach
+	public void dispose() {
+		ReflectionTestUtils.invokeMethod(scheduler, "dispose");
+	}
+
+	/**
+	 * Starts a task that blocks until released
+	 *
+	 * @param inline whether the task runs inline, on another thread than the test
+	 * @return the result, cached
+	 */
+	private Mono<String> startBlocking(CountDownLatch release, String result, boolean inline)
+			throws InterruptedException {
+		CountDownLatch running = new CountDownLatch(1);
+		Mono<String> blocking = scheduler.execute(() -> {
+			running.countDown();
+			release.await();
+			return result;
+		});
+		if (inline) {
+			blocking = blocking.subscribeOn(Schedulers.boundedElastic());
+		}
+		blocking = blocking.cache();
+		blocking.subscribe();
+		running.await();
+		return blocking;
+	}
+
+	@Test
+	public void runsInlineWhenIdle() {
+		CryptoScheduler scheduler = createScheduler(2, 10);
+		String caller = Thread.currentThread().getName();
+		assertEquals(caller, scheduler.execute(() -> Thread.currentThread().getName()).block());
+		assertEquals(caller, scheduler.execute(() -> Thread.currentThread().getName()).block());
+		assertEquals(2, scheduler.getThreads());
+		assertEquals(2, scheduler.getInline());
+		assertEquals(0, scheduler.getOffloaded());
+		assertEquals(0, scheduler.getInFlight());
+	}
+
+	@Test
+	public void offloadsWhileBusyAndEmitsOffPool() throws InterruptedException {
+		CryptoScheduler scheduler = createScheduler(2, 10);
+		CountDownLatch release = new CountDownLatch(1);
+		Mono<String> inline = startBlocking(release, "inline", true);
+
+		AtomicReference<String> emittedOn = new AtomicReference<>();
+		String ranOn = scheduler.execute(() -> Thread.currentThread().getName())
+				.doOnNext(name -> emittedOn.set(Thread.currentThread().getName()))
+				.block();
+		assertTrue(ranOn.startsWith("crypto-"));
+		assertFalse(emittedOn.get().startsWith("crypto-"));
+
+		// Busy pool, the inline slot is free again but the task is offloaded
+		CountDownLatch releaseOffloaded = new CountDownLatch(1);
+		Mono<String> offloaded = startBlocking(releaseOffloaded, "offloaded", false);
+		release.countDown();
+		assertEquals("inline", inline.block(Duration.ofSeconds(5)));
+		assertTrue(scheduler.execute(() -> Thread.currentThread().getName()).block().startsWith("crypto-"));
+		releaseOffloaded.countDown();
+		assertEquals("offloaded", offloaded.block(Duration.ofSeconds(5)));
+		assertEquals(1, scheduler.getInline());
+		assertEquals(3, scheduler.getOffloaded());
+		assertEquals(0, scheduler.getRejected());
+		assertEquals(0, scheduler.getInFlight());
+	}
+
+	@Test
+	public void rejectsWhenQueueIsFull() throws InterruptedException {
+		CryptoScheduler scheduler = createScheduler(1, 1);
+		CountDownLatch release = new CountDownLatch(1);
+		Mono<String> inline = startBlocking(release, "inline", true);
+		Mono<String> blocking = startBlocking(release, "first", false);
+		Mono<String> queued = scheduler.execute(() -> "second").cache();
+		queued.subscribe();
+		assertEquals(1, scheduler.getQueueDepth());
+		assertEquals(2, scheduler.getInFlight());
+
+		Object error = scheduler.execute(() -> "third").map(Object.class::cast)
+				.onErrorResume(e -> Mono.just(e)).block();
+		assertTrue(error instanceof RejectedExecutionException);
+		assertEquals(1, scheduler.getRejected());
+		assertEquals(2, scheduler.getInFlight());
+
+		release.countDown();
+		assertEquals("inline", inline.block(Duration.ofSeconds(5)));
+		assertEquals("first", blocking.block(Duration.ofSeconds(5)));
+		assertEquals("second", queued.block(Duration.ofSeconds(5)));
+		assertEquals(2, scheduler.getOffloaded());
+		assertEquals(0, scheduler.getInFlight());
+		assertTrue(scheduler.getMaxWaitNanos() > 0);
+		assertTrue(scheduler.getTotalWaitNanos() >= scheduler.getMaxWaitNanos());
+	}
+
+	@Test
+	public void propagatesTaskErrors() throws InterruptedException {
+		CryptoScheduler scheduler = createScheduler(1, 10);
+		Object error = scheduler.execute(() -> {
+			throw new IllegalStateException("invalid signature");
+		}).map(Object.class::cast).onErrorResume(e -> Mono.just(e)).block();
+		assertTrue(error instanceof IllegalStateException);
+
+		CountDownLatch release = new CountDownLatch(1);
+		Mono<String> inline = startBlocking(release, "inline", true);
+		error = scheduler.execute(() -> {
+			throw new IllegalStateException("invalid signature");
+		}).map(Object.class::cast).onErrorResume(e -> Mono.just(e)).block();
+		assertTrue(error instanceof IllegalStateException);
+		release.countDown();
+		assertEquals("inline", inline.block(Duration.ofSeconds(5)));
+		assertEquals(1, scheduler.getOffloaded());
+		assertEquals(0, scheduler.getInFlight());
+	}
+
+	@Test
+	public void dropsQueuedTasksOnCancel() throws InterruptedException {
+		CryptoScheduler scheduler = createScheduler(1, 10);
+		CountDownLatch release = new CountDownLatch(1);
+		Mono<String> inline = startBlocking(release, "inline", true);
+		Mono<String> blocking = startBlocking(release, "first", false);
+		scheduler.execute(() -> "second").subscribe().dispose();
+		assertEquals(0, scheduler.getQueueDepth());
+		assertEquals(1, scheduler.getInFlight());
+		release.countDown();
+		assertEquals("inline", inline.block(Duration.ofSeconds(5)));
+		assertEquals("first", blocking.block(Duration.ofSeconds(5)));
+		assertEquals(0, scheduler.getInFlight());
+	}
+
+}
@@ -0,0 +1,157 @@
+package com.softwareag.research.mini_api_gateway.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
+
+import java.net.URI;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.oauth2.sdk.auth.PrivateKeyJWT;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.id.Issuer;
+import com.softwareag.research.mini_api_gatway.MiniAPIGWApplication;
+import com.softwareag.research.mini_api_gatway.model.OpenIDConnectIssuer;
+import com.softwareag.research.mini_api_gatway.model.OpenIDConnectIssuer.IssuerMatchMode;
+import com.softwareag.research.mini_api_gatway.model.OpenIDConnectIssuerRepository;
+import com.softwareag.research.mini_api_gatway.security.IssuerValidationService;
+import com.softwareag.research.mini_api_gatway.security.JwtDecoder;
+import com.softwareag.research.mini_api_gatway.security.JwtIntrospector;
+import com.softwareag.research.mini_api_gatway.security.RevocationChecker;
+import com.softwareag.research.mini_api_gatway.utils.ExpiringCache;
+import com.softwareag.research.mini_api_gatway.utils.JwtUtils;
+
+@SpringBootTest(classes = { MiniAPIGWApplication.class,
+		MockOIDCServer.class }, webEnvironment = WebEnvironment.DEFINED_PORT)
+public class HybridValidationTests {
+
+	private static final String ISSUER = "http://localhost:8080/apimgmt/issuer";
+
+	private static final String INTROSPECTION_ENDPOINT = ISSUER + "/protocol/openid-connect/token/introspect";
+
+	@Autowired
+	private OpenIDConnectIssuerRepository oidcRepo;
+
+	@Autowired
+	private IssuerValidationService issuerValidationService;
+
+	@Autowired
+	private JwtDecoder jwtDecoder;
+
+	@Autowired
+	private JwtIntrospector jwtIntrospector;
+
+	@Autowired
+	private RevocationChecker revocationChecker;
+
+	@Autowired
+	private MockOIDCServer mockOIDCServer;
+
+	@BeforeEach
+	public void enableHybridMode() {
+		ReflectionTestUtils.setField(jwtDecoder, "tokenValidationMode", "HYBRID");
+		ReflectionTestUtils.setField(revocationChecker, "sampleRate", 0.0);
+		oidcRepo.deleteAll().block();
+	}
+
+	@AfterEach
+	public void restoreSignatureMode() {
+		ReflectionTestUtils.setField(jwtDecoder, "tokenValidationMode", "SIGNATURE");
+		ReflectionTestUtils.setField(revocationChecker, "sampleRate", 0.01);
+	}
+
+	private void registerIssuer(String introspectionEndpoint) {
+		oidcRepo.save(new OpenIDConnectIssuer(null, ISSUER, introspectionEndpoint, IssuerMatchMode.FULL_MATCH, null,
+				null)).block();
+		issuerValidationService.refreshIssuerCache().block();
+	}
+
+	private String createToken() throws JOSEException {
+		return new PrivateKeyJWT(new Issuer(ISSUER), new ClientID("my-client"), URI.create(ISSUER + "/token"),
+				JWSAlgorithm.RS256, mockOIDCServer.getRsaKey().toRSAPrivateKey(), mockOIDCServer.getRsaKey().getKeyID(),
+				null).getClientAssertion().serialize();
+	}
+
+	/**
+	 * @return number of calls to the introspector, answered from its cache or not
+	 */
+	private long introspectorCalls() {
+		ExpiringCache<?, ?> cache = jwtIntrospector.getResultCache();
+		return cache.getHits() + cache.getMisses() + cache.getCoalesced();
+	}
+
+	private void awaitIntrospections(int expected) throws InterruptedException {
+		for (int i = 0; i < 50 && mockOIDCServer.getIntrospections().get() < expected; i++) {
+			Thread.sleep(100);
+		}
+		assertEquals(expected, mockOIDCServer.getIntrospections().get());
+	}
+
+	@Test
+	public void introspectsFirstSeenTokenInBackground() throws JOSEException, InterruptedException {
+		registerIssuer(INTROSPECTION_ENDPOINT);
+		int introspections = mockOIDCServer.getIntrospections().get();
+		String token = createToken();
+		assertNotNull(jwtDecoder.decode(token).block());
+		awaitIntrospections(introspections + 1);
+		assertNotNull(jwtDecoder.decode(token).block());
+		Thread.sleep(200);
+		assertEquals(introspections + 1, mockOIDCServer.getIntrospections().get());
+	}
+
+	@Test
+	public void rejectsInactiveTokenOnNextUse() throws JOSEException, InterruptedException {
+		registerIssuer(INTROSPECTION_ENDPOINT + "?active=false");
+		int introspections = mockOIDCServer.getIntrospections().get();
+		String token = createToken();
+		// Requests do not wait for the introspection
+		assertNotNull(jwtDecoder.decode(token).block());
+		awaitIntrospections(introspections + 1);
+		for (int i = 0; i < 50 && !revocationChecker.isRevoked(JwtUtils.hashToken(token)); i++) {
+			Thread.sleep(100);
+		}
+		assertThrows(BadJwtException.class, () -> jwtDecoder.decode(token).block());
+	}
+
+	@Test
+	public void introspectsSampleOfKnownTokens() throws JOSEException {
+		registerIssuer(INTROSPECTION_ENDPOINT);
+		String token = createToken();
+		long calls = introspectorCalls();
+		jwtDecoder.decode(token).block();
+		assertEquals(calls + 1, introspectorCalls());
+		for (int i = 0; i < 10; i++) {
+			jwtDecoder.decode(token).block();
+		}
+		assertEquals(calls + 1, introspectorCalls());
+
+		ReflectionTestUtils.setField(revocationChecker, "sampleRate", 1.0);
+		for (int i = 0; i < 10; i++) {
+			jwtDecoder.decode(token).block();
+		}
+		assertEquals(calls + 11, introspectorCalls());
+	}
+
+	@Test
+	public void signatureModeDoesNotIntrospect() throws JOSEException {
+		ReflectionTestUtils.setField(jwtDecoder, "tokenValidationMode", "SIGNATURE");
+		ReflectionTestUtils.setField(revocationChecker, "sampleRate", 1.0);
+		registerIssuer(INTROSPECTION_ENDPOINT + "?active=false");
+		long calls = introspectorCalls();
+		String token = createToken();
+		assertNotNull(jwtDecoder.decode(token).block());
+		assertNotNull(jwtDecoder.decode(token).block());
+		assertEquals(calls, introspectorCalls());
+	}
+
+}
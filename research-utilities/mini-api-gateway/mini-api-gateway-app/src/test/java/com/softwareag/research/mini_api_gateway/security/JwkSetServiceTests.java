@@ -0,0 +1,173 @@
+package com.softwareag.research.mini_api_gateway.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.softwareag.research.mini_api_gatway.security.JwkSetService;
+import com.softwareag.research.mini_api_gatway.security.OidcMetadataService;
+import com.softwareag.research.mini_api_gatway.utils.LruMap;
+
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+public class JwkSetServiceTests {
+
+	@TempDir
+	private Path directory;
+
+	private DisposableServer server;
+
+	/** Keys served by the issuer **/
+	private final AtomicReference<JWKSet> jwkSet = new AtomicReference<>();
+
+	private final AtomicInteger jwkSetRequests = new AtomicInteger();
+
+	private final List<JwkSetService> services = new ArrayList<>();
+
+	/**
+	 * Starts an issuer serving its discovery document and, after a short delay,
+	 * its current keys
+	 */
+	@BeforeEach
+	public void startIssuer() throws JOSEException {
+		jwkSet.set(new JWKSet(key("first")));
+		server = HttpServer.create().port(0).route(routes -> routes
+				.get("/issuer/.well-known/openid-configuration", (request, response) -> response
+						.header("Content-Type", "application/json")
+						.sendString(Mono.just("{\"issuer\":\"%s\",\"jwks_uri\":\"%s\"}".formatted(issuer(), jwksUri()))))
+				.get("/certs", (request, response) -> {
+					jwkSetRequests.incrementAndGet();
+					return response.header("Content-Type", "application/json")
+							.sendString(Mono.delay(Duration.ofMillis(100)).map(delay -> jwkSet.get().toString(true)));
+				})).bindNow();
+	}
+
+	@AfterEach
+	public void stopIssuer() {
+		services.forEach(service -> ReflectionTestUtils.invokeMethod(service, "dispose"));
+		server.disposeNow();
+	}
+
+	private String issuer() {
+		return "http://localhost:%d/issuer".formatted(server.port());
+	}
+
+	private String jwksUri() {
+		return "http://localhost:%d/certs".formatted(server.port());
+	}
+
+	private static JWK key(String keyId) throws JOSEException {
+		return new RSAKeyGenerator(2048).keyID(keyId).generate();
+	}
+
+	private static JWSHeader header(String keyId) {
+		return new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(keyId).build();
+	}
+
+	private JwkSetService createService() {
+		JwkSetService service = new JwkSetService();
+		ReflectionTestUtils.setField(service, "oidcMetadataService", new OidcMetadataService());
+		ReflectionTestUtils.setField(service, "tokenValidationMode", "SIGNATURE");
+		ReflectionTestUtils.setField(service, "maxEntries", 10);
+		ReflectionTestUtils.setField(service, "directory", directory.toString());
+		ReflectionTestUtils.setField(service, "refreshInterval", 3600000);
+		ReflectionTestUtils.invokeMethod(service, "initialize");
+		services.add(service);
+		return service;
+	}
+
+	/**
+	 * Moves the last fetch of all sets back beyond the minimum fetch interval
+	 */
+	@SuppressWarnings("unchecked")
+	private static void expireFetchInterval(JwkSetService service) {
+		((LruMap<String, Object>) ReflectionTestUtils.getField(service, "entries")).forEach((jwksUri,
+				entry) -> ReflectionTestUtils.setField(entry, "fetchStarted", System.currentTimeMillis() - 10001));
+	}
+
+	private static void await(AtomicInteger counter, int expected) throws InterruptedException {
+		for (int i = 0; i < 50 && counter.get() < expected; i++) {
+			Thread.sleep(100);
+		}
+		assertEquals(expected, counter.get());
+	}
+
+	@Test
+	public void prefetchesKeysOfIssuer() throws InterruptedException {
+		JwkSetService service = createService();
+		service.prefetch(issuer());
+		await(jwkSetRequests, 1);
+		List<JWK> keys = service.getKeys(jwksUri(), header("first")).block();
+		assertEquals(1, keys.size());
+		assertEquals("first", keys.get(0).getKeyID());
+		assertEquals(1, jwkSetRequests.get());
+	}
+
+	@Test
+	public void reloadsPersistedKeys() throws InterruptedException {
+		JwkSetService service = createService();
+		assertEquals(1, service.getKeys(jwksUri(), header("first")).block().size());
+		Path snapshot = directory.resolve("jwks.json");
+		for (int i = 0; i < 50 && !Files.exists(snapshot); i++) {
+			Thread.sleep(100);
+		}
+		assertTrue(Files.exists(snapshot));
+
+		// Keys are available after a restart without fetching them
+		server.disposeNow();
+		List<JWK> keys = createService().getKeys(jwksUri(), header("first")).block();
+		assertEquals(1, keys.size());
+		assertEquals("first", keys.get(0).getKeyID());
+		// Only the public keys are persisted
+		assertFalse(keys.get(0).isPrivate());
+		assertEquals(1, jwkSetRequests.get());
+	}
+
+	@Test
+	public void refetchesForUnknownKeyAtMostOncePerInterval() throws JOSEException {
+		JwkSetService service = createService();
+		assertEquals(1, service.getKeys(jwksUri(), header("first")).block().size());
+		jwkSet.set(new JWKSet(List.of(key("first"), key("second"))));
+
+		// Fetched just now, the unknown key is not fetched again
+		assertTrue(service.getKeys(jwksUri(), header("second")).block().isEmpty());
+		assertEquals(1, jwkSetRequests.get());
+
+		// Concurrent requests share one fetch
+		expireFetchInterval(service);
+		Mono.zip(service.getKeys(jwksUri(), header("second")), service.getKeys(jwksUri(), header("second")))
+				.doOnNext(keys -> {
+					assertEquals(1, keys.getT1().size());
+					assertEquals(1, keys.getT2().size());
+				}).block();
+		assertEquals(2, jwkSetRequests.get());
+
+		// A key that is still unknown is not fetched again within the interval
+		assertTrue(service.getKeys(jwksUri(), header("third")).block().isEmpty());
+		assertTrue(service.getKeys(jwksUri(), header("third")).block().isEmpty());
+		assertEquals(2, jwkSetRequests.get());
+	}
+
+}
@@ -3,6 +3,7 @@ package com.softwareag.research.mini_api_gateway.security;
 import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -13,6 +14,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
 
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.jwk.JWKSet;
@@ -31,6 +33,12 @@ public class MockOIDCServer {
 
 	private HttpHeaders jsonHeaders;
 
+	@Getter
+	private final AtomicInteger tokenRequests = new AtomicInteger();
+
+	@Getter
+	private final AtomicInteger introspections = new AtomicInteger();
+
 	public MockOIDCServer() throws NoSuchAlgorithmException, JOSEException {
 		this.rsaKey = new RSAKeyGenerator(2048).generate();
 		jsonHeaders = new HttpHeaders();
@@ -57,8 +65,23 @@ public class MockOIDCServer {
 		return Mono.just(new JWKSet(rsaKey).toJSONObject(true));
 	}
 
+	/**
+	 * Issues client credentials tokens that expire within a minute, unless the
+	 * scope long-lived is requested
+	 */
+	@PostMapping("/issuer/protocol/openid-connect/token")
+	public Mono<ResponseEntity<String>> token(ServerWebExchange exchange) {
+		return exchange.getFormData().map(form -> {
+			String scope = form.getFirst("scope");
+			long expiresIn = scope != null && scope.contains("long-lived") ? 3600 : 30;
+			return new ResponseEntity<String>("{\"access_token\":\"token-%d\",\"token_type\":\"Bearer\",\"expires_in\":%d}"
+					.formatted(tokenRequests.incrementAndGet(), expiresIn), jsonHeaders, HttpStatus.OK);
+		});
+	}
+
 	@PostMapping("/issuer/protocol/openid-connect/token/introspect")
 	public Mono<Map<String, Boolean>> tokenIntrospection(@RequestParam(defaultValue = "true") boolean active) {
+		introspections.incrementAndGet();
 		return Mono.just(Map.of("active", active));
 	}
 
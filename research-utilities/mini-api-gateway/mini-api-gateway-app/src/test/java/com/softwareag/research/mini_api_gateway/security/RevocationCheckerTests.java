@@ -0,0 +1,106 @@
+package com.softwareag.research.mini_api_gateway.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.softwareag.research.mini_api_gatway.security.JwtIntrospector;
+import com.softwareag.research.mini_api_gatway.security.RevocationChecker;
+import com.softwareag.research.mini_api_gatway.utils.JwtUtils;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+public class RevocationCheckerTests {
+
+	/**
+	 * Answers each introspection when the test emits to its sink
+	 */
+	private static class PendingIntrospector extends JwtIntrospector {
+
+		private final List<Sinks.One<OAuth2AuthenticatedPrincipal>> pending = new ArrayList<>();
+
+		@Override
+		public Mono<OAuth2AuthenticatedPrincipal> introspect(String token, String hash) {
+			Sinks.One<OAuth2AuthenticatedPrincipal> result = Sinks.one();
+			pending.add(result);
+			return result.asMono();
+		}
+	}
+
+	private static RevocationChecker createChecker(JwtIntrospector introspector, int maxRevokedTokens,
+			int maxConcurrentIntrospections) {
+		RevocationChecker checker = new RevocationChecker();
+		ReflectionTestUtils.setField(checker, "jwtIntrospector", introspector);
+		ReflectionTestUtils.setField(checker, "maxRevokedTokens", maxRevokedTokens);
+		ReflectionTestUtils.setField(checker, "maxConcurrentIntrospections", maxConcurrentIntrospections);
+		ReflectionTestUtils.invokeMethod(checker, "initialize");
+		return checker;
+	}
+
+	private static Jwt createJwt(String token) {
+		Instant now = Instant.now();
+		return Jwt.withTokenValue(token).header("alg", "RS256").subject("user").issuedAt(now)
+				.expiresAt(now.plusSeconds(60)).build();
+	}
+
+	private static void introspect(RevocationChecker checker, String token) {
+		checker.introspect(createJwt(token), JwtUtils.hashToken(token));
+	}
+
+	@Test
+	public void boundsConcurrentIntrospections() {
+		PendingIntrospector introspector = new PendingIntrospector();
+		RevocationChecker checker = createChecker(introspector, 100, 2);
+		introspect(checker, "token-1");
+		introspect(checker, "token-2");
+		introspect(checker, "token-3");
+		assertEquals(2, introspector.pending.size());
+		assertEquals(1, checker.getSkippedIntrospections());
+
+		introspector.pending.get(0).tryEmitError(new BadOpaqueTokenException("inactive"));
+		assertTrue(checker.isRevoked(JwtUtils.hashToken("token-1")));
+		introspect(checker, "token-3");
+		assertEquals(3, introspector.pending.size());
+		assertEquals(1, checker.getSkippedIntrospections());
+	}
+
+	@Test
+	public void keepsRevokedTokensUntilExpiry() {
+		RevocationChecker checker = createChecker(new PendingIntrospector(), 2, 10);
+		Instant now = Instant.now();
+		ReflectionTestUtils.invokeMethod(checker, "revoke", "a", now.plusSeconds(60));
+		ReflectionTestUtils.invokeMethod(checker, "revoke", "b", now.plusSeconds(60));
+		// Stored revocations are never evicted for new ones
+		ReflectionTestUtils.invokeMethod(checker, "revoke", "c", now.plusSeconds(60));
+		assertTrue(checker.isRevoked("a"));
+		assertTrue(checker.isRevoked("b"));
+		assertFalse(checker.isRevoked("c"));
+		assertEquals(1, checker.getDroppedRevocations());
+	}
+
+	@Test
+	public void removesExpiredRevocations() {
+		RevocationChecker checker = createChecker(new PendingIntrospector(), 2, 10);
+		Instant now = Instant.now();
+		ReflectionTestUtils.invokeMethod(checker, "revoke", "expired", now.minusSeconds(1));
+		ReflectionTestUtils.invokeMethod(checker, "revoke", "a", now.plusSeconds(60));
+		ReflectionTestUtils.invokeMethod(checker, "revoke", "b", now.plusSeconds(60));
+		assertFalse(checker.isRevoked("expired"));
+		assertTrue(checker.isRevoked("a"));
+		assertTrue(checker.isRevoked("b"));
+		assertEquals(0, checker.getDroppedRevocations());
+		assertEquals(2, checker.getRevokedTokens());
+	}
+
+}
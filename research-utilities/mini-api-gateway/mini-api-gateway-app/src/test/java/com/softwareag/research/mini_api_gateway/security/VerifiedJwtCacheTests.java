@@ -0,0 +1,116 @@
+package com.softwareag.research.mini_api_gateway.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.softwareag.research.mini_api_gatway.security.VerifiedJwtCache;
+import com.softwareag.research.mini_api_gatway.security.VerifiedJwtCache.VerifiedJwt;
+import com.softwareag.research.mini_api_gatway.utils.JwtUtils;
+
+import reactor.core.publisher.Mono;
+
+public class VerifiedJwtCacheTests {
+
+	private final AtomicInteger verifications = new AtomicInteger();
+
+	private static VerifiedJwtCache createCache(int maxEntries) {
+		VerifiedJwtCache cache = new VerifiedJwtCache();
+		ReflectionTestUtils.setField(cache, "maxEntries", maxEntries);
+		ReflectionTestUtils.invokeMethod(cache, "initialize");
+		return cache;
+	}
+
+	/**
+	 * @return verifier of tokens expiring at the given time, null for no expiry
+	 */
+	private Function<String, Mono<Jwt>> verifier(Instant expiresAt) {
+		return token -> Mono.fromSupplier(() -> {
+			verifications.incrementAndGet();
+			return Jwt.withTokenValue(token).header("alg", "RS256").subject("user")
+					.issuedAt(Instant.now().minusSeconds(1)).expiresAt(expiresAt).build();
+		});
+	}
+
+	private static Jwt get(VerifiedJwtCache cache, String token, Function<String, Mono<Jwt>> verifier) {
+		return cache.get(JwtUtils.hashToken(token), token, verifier).block();
+	}
+
+	@Test
+	public void answersRepeatedRequestsFromCache() {
+		VerifiedJwtCache cache = createCache(10);
+		Function<String, Mono<Jwt>> verifier = verifier(Instant.now().plusSeconds(60));
+		Jwt first = get(cache, "token", verifier);
+		assertSame(first, get(cache, "token", verifier));
+		assertSame(first, get(cache, "token", verifier));
+		assertTrue(first instanceof VerifiedJwt);
+		assertEquals(JwtUtils.hashToken("token"), ((VerifiedJwt) first).getHash());
+		assertEquals(1, verifications.get());
+		assertEquals(1, cache.getCache().getMisses());
+		assertEquals(2, cache.getCache().getHits());
+	}
+
+	@Test
+	public void cachesTokensUntilTheyExpire() throws InterruptedException {
+		VerifiedJwtCache cache = createCache(10);
+		Function<String, Mono<Jwt>> verifier = verifier(Instant.now().plusMillis(300));
+		Jwt first = get(cache, "expiring", verifier);
+		assertSame(first, get(cache, "expiring", verifier));
+		Thread.sleep(400);
+		assertNotSame(first, get(cache, "expiring", verifier));
+		assertEquals(2, verifications.get());
+		assertEquals(1, cache.getCache().getEvictions());
+
+		// Tokens without expiry are verified for every request
+		get(cache, "unlimited", verifier(null));
+		get(cache, "unlimited", verifier(null));
+		assertEquals(4, verifications.get());
+	}
+
+	@Test
+	public void evictsWhenFull() {
+		VerifiedJwtCache cache = createCache(2);
+		Function<String, Mono<Jwt>> verifier = verifier(Instant.now().plusSeconds(60));
+		get(cache, "a", verifier);
+		get(cache, "b", verifier);
+		get(cache, "c", verifier);
+		assertEquals(2, cache.getCache().size());
+		assertEquals(1, cache.getCache().getEvictions());
+		assertEquals(3, cache.getCache().getMisses());
+	}
+
+	@Test
+	public void mapsAuthoritiesOnFirstUse() {
+		VerifiedJwtCache cache = createCache(10);
+		AtomicInteger mappings = new AtomicInteger();
+		Function<Jwt, Collection<GrantedAuthority>> mapper = jwt -> {
+			mappings.incrementAndGet();
+			return List.of(new SimpleGrantedAuthority("ROLE_USER"));
+		};
+		Jwt jwt = get(cache, "token", verifier(Instant.now().plusSeconds(60)));
+		assertEquals(0, mappings.get());
+		Collection<GrantedAuthority> authorities = cache.getAuthorities(jwt, mapper);
+		assertSame(authorities, cache.getAuthorities(get(cache, "token", null), mapper));
+		assertEquals(1, mappings.get());
+
+		// Tokens not returned by the cache are mapped every time
+		Jwt other = verifier(Instant.now().plusSeconds(60)).apply("other").block();
+		cache.getAuthorities(other, mapper);
+		cache.getAuthorities(other, mapper);
+		assertEquals(3, mappings.get());
+	}
+
+}
@@ -0,0 +1,154 @@
+package com.softwareag.research.mini_api_gateway.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.softwareag.research.mini_api_gatway.utils.ExpiringCache;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+public class ExpiringCacheTests {
+
+	@Test
+	public void coalescesConcurrentLoads() {
+		ExpiringCache<String, String> cache = new ExpiringCache<>(8);
+		AtomicInteger loads = new AtomicInteger();
+		Supplier<Mono<String>> loader = () -> {
+			loads.incrementAndGet();
+			return Mono.just("value").delayElement(Duration.ofMillis(50));
+		};
+		Mono<String> first = cache.get("key", loader, value -> Duration.ofMinutes(1));
+		Mono<String> second = cache.get("key", loader, value -> Duration.ofMinutes(1));
+		assertEquals("value", Mono.zip(first, second, (a, b) -> b).block());
+		assertEquals("value", cache.get("key", loader, value -> Duration.ofMinutes(1)).block());
+		assertEquals(1, loads.get());
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getCoalesced());
+		assertEquals(1, cache.getHits());
+	}
+
+	@Test
+	public void reloadsExpiredAndUncachedValues() throws InterruptedException {
+		ExpiringCache<String, String> cache = new ExpiringCache<>(8);
+		AtomicInteger loads = new AtomicInteger();
+		Supplier<Mono<String>> loader = () -> Mono.just("value" + loads.incrementAndGet());
+		assertEquals("value1", cache.get("key", loader, value -> Duration.ofMillis(20)).block());
+		Thread.sleep(40);
+		assertNull(cache.getIfPresent("key"));
+		assertEquals("value2", cache.get("key", loader, value -> Duration.ZERO).block());
+		assertEquals("value3", cache.get("key", loader, value -> Duration.ZERO).block());
+	}
+
+	@Test
+	public void doesNotCacheErrors() {
+		ExpiringCache<String, String> cache = new ExpiringCache<>(8);
+		AtomicInteger loads = new AtomicInteger();
+		Supplier<Mono<String>> loader = () -> loads.incrementAndGet() == 1 ? Mono.error(new IllegalStateException())
+				: Mono.just("value");
+		assertEquals("fallback", cache.get("key", loader, value -> Duration.ofMinutes(1))
+				.onErrorReturn("fallback").block());
+		assertEquals("value", cache.get("key", loader, value -> Duration.ofMinutes(1)).block());
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	public void boundsNumberOfEntries() {
+		ExpiringCache<String, String> cache = new ExpiringCache<>(1);
+		cache.put("a", "1", Duration.ofMinutes(1));
+		cache.put("b", "2", Duration.ofMinutes(1));
+		assertEquals(1, cache.size());
+		assertNull(cache.getIfPresent("a"));
+		assertEquals("2", cache.getIfPresent("b"));
+		assertEquals(1, cache.getEvictions());
+	}
+
+	@Test
+	public void admitsNewKeysWhenFull() {
+		ExpiringCache<String, String> cache = new ExpiringCache<>(10);
+		for (int i = 0; i < 1000; i++) {
+			cache.put("key" + i, "value" + i, Duration.ofMinutes(1));
+			assertEquals("value" + i, cache.getIfPresent("key" + i));
+			assertTrue(cache.size() <= 10);
+		}
+		assertEquals(990, cache.getEvictions());
+		assertEquals("loaded", cache.get("new", () -> Mono.just("loaded"), value -> Duration.ofMinutes(1)).block());
+		assertEquals("loaded", cache.getIfPresent("new"));
+	}
+
+	@Test
+	public void givesReadEntriesSecondChance() {
+		ExpiringCache<String, String> cache = new ExpiringCache<>(2);
+		cache.put("a", "1", Duration.ofMinutes(1));
+		cache.put("b", "2", Duration.ofMinutes(1));
+		assertEquals("1", cache.getIfPresent("a"));
+		cache.put("c", "3", Duration.ofMinutes(1));
+		assertEquals("1", cache.getIfPresent("a"));
+		assertNull(cache.getIfPresent("b"));
+		assertEquals("3", cache.getIfPresent("c"));
+	}
+
+	@Test
+	public void doesNotStoreLoadsStartedBeforeInvalidation() {
+		ExpiringCache<String, String> cache = new ExpiringCache<>(8);
+		AtomicInteger loads = new AtomicInteger();
+		Sinks.One<String> stale = Sinks.one();
+		Supplier<Mono<String>> loader = () -> loads.incrementAndGet() == 1 ? stale.asMono() : Mono.just("fresh");
+		Mono<String> first = cache.get("key", loader, value -> Duration.ofMinutes(1));
+		first.subscribe();
+		cache.invalidateAll();
+		assertEquals("fresh", cache.get("key", loader, value -> Duration.ofMinutes(1)).block());
+		stale.tryEmitValue("stale");
+		assertEquals("stale", first.block());
+		assertEquals("fresh", cache.getIfPresent("key"));
+		assertEquals(2, loads.get());
+
+		Sinks.One<String> invalidated = Sinks.one();
+		Mono<String> second = cache.get("other", () -> invalidated.asMono(), value -> Duration.ofMinutes(1));
+		second.subscribe();
+		cache.invalidate("other");
+		invalidated.tryEmitValue("stale");
+		assertEquals("stale", second.block());
+		assertNull(cache.getIfPresent("other"));
+	}
+
+	@Test
+	public void keepsLoadsOfOtherKeysOnInvalidation() {
+		ExpiringCache<String, String> cache = new ExpiringCache<>(8);
+		Sinks.One<String> invalidated = Sinks.one();
+		Sinks.One<String> other = Sinks.one();
+		Mono<String> first = cache.get("key", () -> invalidated.asMono(), value -> Duration.ofMinutes(1));
+		Mono<String> second = cache.get("other", () -> other.asMono(), value -> Duration.ofMinutes(1));
+		first.subscribe();
+		second.subscribe();
+		cache.invalidate("key");
+		// Later requests for the other key still join its load
+		assertSame(second, cache.get("other", () -> Mono.just("unused"), value -> Duration.ofMinutes(1)));
+		invalidated.tryEmitValue("stale");
+		other.tryEmitValue("value");
+		assertEquals("value", second.block());
+		assertNull(cache.getIfPresent("key"));
+		assertEquals("value", cache.getIfPresent("other"));
+		assertEquals(2, cache.getMisses());
+		assertEquals(1, cache.getCoalesced());
+	}
+
+	@Test
+	public void countsEvictionsOfExpiredEntries() throws InterruptedException {
+		ExpiringCache<String, String> cache = new ExpiringCache<>(1);
+		cache.put("a", "1", Duration.ofMillis(20));
+		Thread.sleep(40);
+		cache.put("b", "2", Duration.ofMinutes(1));
+		assertEquals("2", cache.getIfPresent("b"));
+		assertEquals(1, cache.getEvictions());
+	}
+
+}
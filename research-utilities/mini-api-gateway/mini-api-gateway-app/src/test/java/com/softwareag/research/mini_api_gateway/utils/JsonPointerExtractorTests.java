@@ -0,0 +1,62 @@
+package com.softwareag.research.mini_api_gateway.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.softwareag.research.mini_api_gatway.utils.JsonPointerExtractor;
+import com.softwareag.research.mini_api_gatway.utils.VariableExpressionResolver;
+
+public class JsonPointerExtractorTests {
+
+	private static final String DOCUMENT = "{\"skip\":[1,{\"x\":[]}],\"auth\":{\"token\":\"abc\",\"scope\":\"read\"},"
+			+ "\"items\":[{\"id\":1},{\"id\":2}],\"inner\":\"{\\\"x\\\":5}\"}";
+
+	private static final JsonPointerExtractor extractor = new JsonPointerExtractor(List.of(
+			new String[] { "auth", "token" },
+			new String[] { "items", "1", "id" },
+			new String[] { "inner", "x" }));
+
+	private static JsonNode extract(String document, int chunkSize) {
+		JsonPointerExtractor.Extraction extraction = extractor.start();
+		byte[] bytes = document.getBytes(StandardCharsets.UTF_8);
+		for (int i = 0; i < bytes.length; i += chunkSize) {
+			extraction.feed(DefaultDataBufferFactory.sharedInstance
+					.wrap(Arrays.copyOfRange(bytes, i, Math.min(bytes.length, i + chunkSize))));
+		}
+		return extraction.finish();
+	}
+
+	@Test
+	public void keepsOnlyValuesOnPaths() {
+		String expected = "{\"auth\":{\"token\":\"abc\"},\"items\":{\"1\":{\"id\":2}},\"inner\":\"{\\\"x\\\":5}\"}";
+		assertEquals(expected, extract(DOCUMENT, 1).toString());
+		assertEquals(expected, extract(DOCUMENT, 5).toString());
+		assertEquals(expected, extract(DOCUMENT, DOCUMENT.length()).toString());
+	}
+
+	@Test
+	public void extractedValuesResolveLikeTheDocument() {
+		Map<String, Object> parameters = Map.of("response", Map.of("payload", extract(DOCUMENT, 7)));
+		assertEquals("abc 2 5 undefined", new VariableExpressionResolver().format(
+				"${response.payload.auth.token} ${response.payload.items.1.id} ${response.payload.inner.x} "
+						+ "${response.payload.auth.scope}",
+				parameters));
+	}
+
+	@Test
+	public void returnsNullForMalformedDocuments() {
+		assertNull(extract("{\"auth\":{\"token\":", 4));
+		assertNull(extract("{\"auth\",}", 4));
+		assertNull(extract("", 4));
+	}
+
+}
@@ -0,0 +1,50 @@
+package com.softwareag.research.mini_api_gateway.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.softwareag.research.mini_api_gatway.utils.LruMap;
+
+public class LruMapTests {
+
+	private static Set<String> keys(LruMap<String, String> map) {
+		Set<String> keys = new HashSet<>();
+		map.forEach((key, value) -> keys.add(key));
+		return keys;
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsed() throws InterruptedException {
+		LruMap<String, String> map = new LruMap<>(() -> 2);
+		map.get("a", key -> key.toUpperCase());
+		Thread.sleep(1);
+		map.get("b", key -> key.toUpperCase());
+		Thread.sleep(1);
+		assertEquals("A", map.get("a", key -> "unused"));
+		map.get("c", key -> key.toUpperCase());
+		assertEquals(Set.of("a", "c"), keys(map));
+	}
+
+	@Test
+	public void boundsNumberOfEntries() {
+		AtomicInteger maxEntries = new AtomicInteger(10);
+		LruMap<String, String> map = new LruMap<>(maxEntries::get);
+		for (int i = 0; i < 100; i++) {
+			String key = "key" + i;
+			assertEquals(key, map.get(key, created -> created));
+			assertTrue(map.size() <= 10);
+			assertTrue(keys(map).contains(key));
+		}
+		maxEntries.set(3);
+		map.get("new", key -> key);
+		assertEquals(3, map.size());
+		assertTrue(keys(map).contains("new"));
+	}
+
+}
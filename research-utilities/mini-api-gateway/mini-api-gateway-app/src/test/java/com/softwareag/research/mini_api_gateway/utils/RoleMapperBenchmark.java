@@ -0,0 +1,150 @@
+package com.softwareag.research.mini_api_gateway.utils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import com.softwareag.research.mini_api_gatway.utils.RoleMapper;
+
+/**
+ * Compares the compiled role mapper with the previous role parsing and
+ * authority creation of JwtUtils. Run with <code>main</code> from the test
+ * classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoleMapperBenchmark {
+
+	private static final String USER_ROLE = "gateway-user";
+	private static final String ADMIN_ROLE = "gateway-admin";
+
+	@Param({ "scope", "realm_access.roles" })
+	private String rolePath;
+
+	private Jwt jwt;
+
+	private RoleMapper roleMapper;
+
+	@Setup
+	public void setup() {
+		jwt = Jwt.withTokenValue("token")
+				.header("alg", "RS256")
+				.issuer("https://keycloak.example/realms/master")
+				.subject("client")
+				.issuedAt(Instant.now())
+				.expiresAt(Instant.now().plusSeconds(300))
+				.claim("scope", "openid profile email " + USER_ROLE)
+				.claim("realm_access", Map.of("roles", List.of("offline_access", "uma_authorization", USER_ROLE,
+						ADMIN_ROLE)))
+				.build();
+		roleMapper = RoleMapper.compile(rolePath, USER_ROLE, ADMIN_ROLE);
+	}
+
+	@Benchmark
+	public Collection<GrantedAuthority> roleMapper() {
+		return roleMapper.map(jwt.getClaims());
+	}
+
+	@Benchmark
+	public Collection<GrantedAuthority> parseAndCreateAuthorities() {
+		return PreviousRoleMapping.createAuthoritiesFromRoles(PreviousRoleMapping.parseRoles(jwt, rolePath),
+				USER_ROLE, ADMIN_ROLE);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(RoleMapperBenchmark.class.getSimpleName()).build()).run();
+	}
+
+	/**
+	 * Previous implementation of JwtUtils
+	 */
+	@SuppressWarnings("unchecked")
+	static class PreviousRoleMapping {
+
+		static Collection<String> parseRoles(Jwt jwt, String rolePath) {
+			String[] pathItems = rolePath.split("\\.");
+			int index = 0;
+			Map<String, Object> currentMap = null;
+			while (index < pathItems.length - 1) {
+				if (currentMap == null) {
+					try {
+						currentMap = jwt.getClaimAsMap(pathItems[index]);
+					} catch (IllegalArgumentException e) {
+						return Collections.emptyList();
+					}
+				} else {
+					currentMap = (Map<String, Object>) currentMap.getOrDefault(pathItems[index], null);
+				}
+				index++;
+			}
+			if (currentMap == null) {
+				try {
+					return jwt.getClaimAsStringList(pathItems[index]);
+				} catch (IllegalArgumentException e) {
+					return new ArrayList<>(Arrays.asList((jwt.getClaimAsString(pathItems[index]).split(" "))));
+				} catch (NullPointerException e) {
+					return Collections.emptyList();
+				}
+			} else {
+				Object leafEntry = currentMap.getOrDefault(pathItems[index], null);
+				if (leafEntry instanceof Collection) {
+					return (Collection<String>) leafEntry;
+				} else if (leafEntry instanceof String && leafEntry != null) {
+					return new ArrayList<>(Arrays.asList(((String) leafEntry).split(" ")));
+				} else {
+					return Collections.emptyList();
+				}
+			}
+		}
+
+		static Collection<GrantedAuthority> createAuthoritiesFromRoles(Collection<String> roles, String userRole,
+				String adminRole) {
+			HashSet<GrantedAuthority> set;
+			if (roles == null) {
+				set = new HashSet<>(1);
+			} else {
+				set = roles.stream().<SimpleGrantedAuthority>mapMulti((role, c) -> {
+					if (role.equals(userRole)) {
+						c.accept(new SimpleGrantedAuthority("ROLE_USER"));
+					}
+					if (role.equals(adminRole)) {
+						c.accept(new SimpleGrantedAuthority("ROLE_ADMIN"));
+					}
+					c.accept(new SimpleGrantedAuthority(role));
+				}).collect(Collectors.toCollection(HashSet::new));
+			}
+			set.add(new SimpleGrantedAuthority("ROLE_USER"));
+			return set;
+		}
+	}
+
+}
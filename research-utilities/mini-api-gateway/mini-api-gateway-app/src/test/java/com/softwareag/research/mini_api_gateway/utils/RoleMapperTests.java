@@ -0,0 +1,53 @@
+package com.softwareag.research.mini_api_gateway.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import com.softwareag.research.mini_api_gatway.utils.RoleMapper;
+
+public class RoleMapperTests {
+
+	private static Set<String> names(Set<GrantedAuthority> authorities) {
+		return authorities.stream().map(GrantedAuthority::getAuthority).collect(Collectors.toSet());
+	}
+
+	@Test
+	public void mapsWhitespaceSeparatedRoles() {
+		RoleMapper mapper = RoleMapper.compile("scope", "gateway-user", "gateway-admin");
+		Set<GrantedAuthority> authorities = mapper.map(Map.of("scope", "openid  gateway-admin\tprofile"));
+		assertEquals(Set.of("openid", "gateway-admin", "profile", "ROLE_ADMIN", "ROLE_USER"), names(authorities));
+	}
+
+	@Test
+	public void mapsNestedRoleList() {
+		RoleMapper mapper = RoleMapper.compile("realm_access.roles", "gateway-user", "gateway-admin");
+		Set<GrantedAuthority> authorities = mapper
+				.map(Map.of("realm_access", Map.of("roles", List.of("gateway-user", "offline_access"))));
+		assertEquals(Set.of("gateway-user", "offline_access", "ROLE_USER"), names(authorities));
+	}
+
+	@Test
+	public void grantsUserRoleWithoutRoles() {
+		RoleMapper mapper = RoleMapper.compile("realm_access.roles", "gateway-user", "gateway-admin");
+		assertEquals(Set.of("ROLE_USER"), names(mapper.map(Map.of())));
+		assertEquals(Set.of("ROLE_USER"), names(mapper.map(Map.of("realm_access", "roles"))));
+		assertEquals(Set.of("ROLE_USER"), names(mapper.map(Map.of("realm_access", Map.of("roles", 42)))));
+	}
+
+	@Test
+	public void sharesAuthoritiesOfSameRoles() {
+		RoleMapper mapper = RoleMapper.compile("scope", "gateway-user", "gateway-admin");
+		Set<GrantedAuthority> first = mapper.map(Map.of("scope", "openid profile"));
+		assertSame(first, mapper.map(Map.of("scope", new String("openid profile"))));
+		assertSame(RoleMapper.authority("openid"), RoleMapper.authority(new String("openid")));
+	}
+
+}
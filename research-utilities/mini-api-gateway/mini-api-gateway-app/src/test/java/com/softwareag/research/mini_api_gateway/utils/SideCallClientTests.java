@@ -0,0 +1,141 @@
+package com.softwareag.research.mini_api_gateway.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.softwareag.research.mini_api_gatway.utils.SideCallClient;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionPoolMetrics;
+
+public class SideCallClientTests {
+
+	private static final Duration DELAY = Duration.ofMillis(500);
+
+	private DisposableServer server;
+
+	/** Client of a running application context, restored after each test **/
+	private WebClient previousClient;
+
+	private SideCallClient sideCallClient;
+
+	/**
+	 * Starts a service answering /slow after a delay and /fast immediately
+	 */
+	@BeforeEach
+	public void startServer() {
+		previousClient = (WebClient) ReflectionTestUtils.getField(SideCallClient.class, "client");
+		server = HttpServer.create().port(0).route(routes -> routes
+				.get("/slow", (request, response) -> response.sendString(Mono.delay(DELAY).map(delay -> "slow")))
+				.get("/fast", (request, response) -> response.sendString(Mono.just("fast")))).bindNow();
+	}
+
+	@AfterEach
+	public void stopServer() {
+		if (sideCallClient != null) {
+			ReflectionTestUtils.invokeMethod(sideCallClient, "dispose");
+		}
+		ReflectionTestUtils.setField(SideCallClient.class, "client", previousClient);
+		server.disposeNow();
+	}
+
+	private void initialize(int maxConnections, int pendingAcquireMax, long responseTimeout) {
+		sideCallClient = new SideCallClient();
+		ReflectionTestUtils.setField(sideCallClient, "maxConnections", maxConnections);
+		ReflectionTestUtils.setField(sideCallClient, "pendingAcquireMax", pendingAcquireMax);
+		ReflectionTestUtils.setField(sideCallClient, "pendingAcquireTimeout", 5000);
+		ReflectionTestUtils.setField(sideCallClient, "maxIdleTime", 30000);
+		ReflectionTestUtils.setField(sideCallClient, "connectTimeout", 5000);
+		ReflectionTestUtils.setField(sideCallClient, "responseTimeout", responseTimeout);
+		ReflectionTestUtils.invokeMethod(sideCallClient, "initialize");
+	}
+
+	/**
+	 * @return the body, or the simple class name of the root cause if the call
+	 *         failed
+	 */
+	private Mono<String> call(String path) {
+		return SideCallClient.get().get().uri("http://localhost:%d%s".formatted(server.port(), path)).retrieve()
+				.bodyToMono(String.class)
+				.onErrorResume(error -> {
+					Throwable cause = error;
+					while (cause.getCause() != null) {
+						cause = cause.getCause();
+					}
+					return Mono.just(cause.getClass().getSimpleName());
+				});
+	}
+
+	/**
+	 * @return metrics of the pool to the test service, null if not registered.
+	 *         Pools of running application contexts are registered as well.
+	 */
+	private ConnectionPoolMetrics poolMetrics() {
+		return SideCallClient.getPools().entrySet().stream()
+				.filter(pool -> pool.getKey() instanceof InetSocketAddress address
+						&& address.getPort() == server.port())
+				.map(pool -> pool.getValue()).findFirst().orElse(null);
+	}
+
+	@Test
+	public void usesFallbackUntilInitialized() {
+		ReflectionTestUtils.setField(SideCallClient.class, "client", null);
+		WebClient fallback = SideCallClient.get();
+		assertSame(ReflectionTestUtils.getField(SideCallClient.class, "fallbackClient"), fallback);
+		assertEquals("fast", call("/fast").block());
+
+		initialize(10, 10, 5000);
+		assertNotSame(fallback, SideCallClient.get());
+		assertSame(SideCallClient.get(), SideCallClient.get());
+	}
+
+	@Test
+	public void limitsConnectionsAndPendingAcquires() {
+		initialize(1, 1, 5000);
+		// One call holds the connection, one waits for it, the third is rejected
+		List<String> results = Flux.merge(call("/slow"), call("/slow"), call("/slow")).collectList().block();
+		assertEquals(2, results.stream().filter("slow"::equals).count());
+		assertEquals(1, results.stream().filter("PoolAcquirePendingLimitException"::equals).count());
+
+		// The pool of the host is registered with its limit
+		ConnectionPoolMetrics metrics = poolMetrics();
+		assertNotNull(metrics);
+		assertEquals(1, metrics.maxAllocatedSize());
+		assertEquals(1, metrics.maxPendingAcquireSize());
+		assertEquals(0, metrics.acquiredSize());
+	}
+
+	@Test
+	public void appliesResponseTimeout() {
+		initialize(10, 10, 100);
+		assertEquals("ReadTimeoutException", call("/slow").block());
+		assertEquals("fast", call("/fast").block());
+	}
+
+	@Test
+	public void deregistersPoolsOnDispose() {
+		initialize(10, 10, 5000);
+		assertEquals("fast", call("/fast").block());
+		assertNotNull(poolMetrics());
+		ReflectionTestUtils.invokeMethod(sideCallClient, "dispose");
+		sideCallClient = null;
+		assertNull(poolMetrics());
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.softwareag.research.mini_api_gateway.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.softwareag.research.mini_api_gatway.utils.VariableExpressionResolver;
+
+public class VariableExpressionResolverTests {
+
+	private static Map<String, Object> parameters() {
+		Map<String, Object> parameters = new HashMap<>();
+		parameters.put("response", Map.of(
+				"payload", "{\"token\":\"abc\",\"items\":[{\"id\":1},{\"id\":2}],\"inner\":\"{\\\"x\\\":5}\"}",
+				"headers", Map.of("Content-Type", "application/json")));
+		parameters.put("plain", "value");
+		parameters.put("list", List.of("a", "b"));
+		return parameters;
+	}
+
+	@Test
+	public void resolvesPathsIntoObjectsAndEmbeddedJson() {
+		VariableExpressionResolver resolver = new VariableExpressionResolver();
+		Map<String, Object> parameters = parameters();
+		assertEquals("Bearer abc", resolver.format("Bearer ${response.payload.token}", parameters));
+		assertEquals("2", resolver.format("${response.payload.items.1.id}", parameters));
+		assertEquals("5", resolver.format("${response.payload.inner.x}", parameters));
+		assertEquals("application/json", resolver.format("${response.headers.Content-Type}", parameters));
+		assertEquals("b-value", resolver.format("${list.1}-${plain}", parameters));
+	}
+
+	@Test
+	public void replacesUnresolvableExpressionsWithUndefined() {
+		VariableExpressionResolver resolver = new VariableExpressionResolver();
+		Map<String, Object> parameters = parameters();
+		assertEquals("undefined", resolver.format("${missing.value}", parameters));
+		assertEquals("undefined", resolver.format("${response.payload.items}", parameters));
+		assertEquals("undefined", resolver.format("${list.5}", parameters));
+	}
+
+	@Test
+	public void keepsLiteralsAsIs() {
+		VariableExpressionResolver.Template template = new VariableExpressionResolver()
+				.compile("100% ${plain} ${} ${unterminated");
+		assertEquals("100% value ${} ${unterminated", template.format(parameters()));
+		assertEquals("100% undefined ${} ${unterminated", template.format(Map.of()));
+	}
+
+}
@@ -4,7 +4,7 @@
  */
 import { Component, EventEmitter, Input, OnInit, Output } from '@angular/core';
 import { AbstractControl, FormArray, FormBuilder, FormControl, FormGroup, FormsModule, ReactiveFormsModule, Validators } from '@angular/forms';
-import { ExternalCall_HTTPMethod, ExternalCall_RouteFilter, OAuth2Client_RouteFilter, RemoveRequestHeaders_RouteFilter, RouteFilter, RouteFilterType, SetHeaders_RouteFilter } from '../../models/route-filter.interface';
+import { ExternalCall_HTTPMethod, ExternalCall_RouteFilter, OAuth2Client_RouteFilter, ParallelExternalCall_RouteFilter, RemoveRequestHeaders_RouteFilter, RouteFilter, RouteFilterType, SetHeaders_RouteFilter } from '../../models/route-filter.interface';
 import { NonEmptyArrayValidator, urlValidator } from '../../utils/validators';
 import { MatInputModule } from '@angular/material/input';
 import { CommonModule } from '@angular/common';
@@ -46,6 +46,9 @@ export class FilterFormComponent implements OnInit {
       case RouteFilterType.EXTERNAL_CALL:
         this.initExternalCall();
         break;
+      case RouteFilterType.PARALLEL_EXTERNAL_CALL:
+        this.initParallelExternalCall();
+        break;
       case RouteFilterType.SET_HEADERS:
         this.initSetHeaders();
         break;
@@ -63,6 +66,7 @@ export class FilterFormComponent implements OnInit {
     this.form.addControl("uri", new FormControl<string>(input?.uri || '', [Validators.required, urlValidator]));
     this.form.addControl("method", new FormControl<ExternalCall_HTTPMethod|string>(input?.method || ExternalCall_HTTPMethod.GET ,Validators.required))
     this.form.addControl("body", new FormControl<string>(input?.body || ''));
+    this.form.addControl("cacheTtl", new FormControl<number>(input?.cacheTtl || 0, [Validators.min(0)]));
     this.form.addControl("headers", new FormArray<FormGroup>([]));
     if(input?.headers){
       for(let entry of Object.entries(input.headers)){
@@ -95,11 +99,64 @@ export class FilterFormComponent implements OnInit {
     }
   }
 
+  private initParallelExternalCall(){
+    const input = this.value ? this.value as ParallelExternalCall_RouteFilter : undefined;
+    this.form.addControl("calls", new FormArray<FormGroup>([], Validators.required));
+    if(input?.calls){
+      for(let entry of Object.entries(input.calls)){
+        const headers = new FormArray<FormGroup>([]);
+        for(let header of Object.entries(entry[1].headers || {})){
+          for(let val of (header[1] instanceof Array ? header[1] : [header[1]])){
+            headers.push(this.fb.group({
+              key: new FormControl(header[0], [Validators.required]),
+              value: new FormControl(val, [Validators.required])
+            }));
+          }
+        }
+        this.getFormArrayWithGroups("calls").push(this.createCallGroup(entry[0], entry[1].method, entry[1].uri,
+          entry[1].body, entry[1].cacheTtl, headers));
+      }
+    }
+    this.form.addControl("responseMappings", new FormArray<FormGroup>([]));
+    if(input?.responseMappings){
+      for(let entry of Object.entries(input.responseMappings)){
+        this.getFormArrayWithGroups("responseMappings").push(
+          this.fb.group({
+            key: new FormControl(entry[0], [Validators.required]),
+            value: new FormControl(entry[1], [Validators.required])
+        }));
+      };
+    }
+  }
+
+  private createCallGroup(name: string, method: string, uri: string, body: string | undefined,
+      cacheTtl: number | undefined, headers: FormArray<FormGroup>): FormGroup {
+    return this.fb.group({
+      name: new FormControl(name, [Validators.required, Validators.pattern(/^[A-Za-z_][A-Za-z0-9_]*$/)]),
+      method: new FormControl(method, [Validators.required]),
+      uri: new FormControl(uri, [Validators.required, urlValidator]),
+      body: new FormControl(body || ''),
+      cacheTtl: new FormControl(cacheTtl || 0, [Validators.min(0)]),
+      headers: headers
+    });
+  }
+
+  addCall(){
+    this.getFormArrayWithGroups("calls").push(this.createCallGroup("", ExternalCall_HTTPMethod.GET, "", undefined,
+      undefined, new FormArray<FormGroup>([])));
+    this.onChange();
+  }
+
+  getCallHeaders(call: FormGroup){
+    return call.get("headers") as FormArray<FormGroup>;
+  }
+
   private initOAuth2Client(){
     const input = this.value ? this.value as OAuth2Client_RouteFilter : undefined;
     this.form.addControl("clientId", new FormControl<string>(input?.clientId || '', [Validators.required]));
     this.form.addControl("clientSecret", new FormControl<string>(input?.clientSecret || '', [Validators.required]));
     this.form.addControl("issuerUrl", new FormControl<string>(input?.issuerUrl || '', [Validators.required, urlValidator]));
+    this.form.addControl("scopes", new FormControl<string>(input?.scopes?.join(' ') || ''));
   }
 
   private initSetHeaders(){
@@ -160,6 +217,9 @@ export class FilterFormComponent implements OnInit {
         case RouteFilterType.EXTERNAL_CALL:
           output = this.outputExternalCall();
           break;
+        case RouteFilterType.PARALLEL_EXTERNAL_CALL:
+          output = this.outputParallelExternalCall();
+          break;
         case RouteFilterType.SET_HEADERS:
           output = this.outputSetHeaders();
           break;
@@ -225,17 +285,42 @@ export class FilterFormComponent implements OnInit {
       method: this.getFormValue("method"),
       uri: this.getFormValue("uri"),
       body: this.getFormValue("body"),
+      cacheTtl: this.getFormValue("cacheTtl") || undefined,
       headers: this.getFormValueAsMap("headers", true),
       responseMapping: this.getFormValueAsMap("responseMapping", false)
     }
   }
 
+  private outputParallelExternalCall(): ParallelExternalCall_RouteFilter {
+    let calls: ParallelExternalCall_RouteFilter["calls"] = {};
+    for(let call of this.getFormArrayWithGroups("calls").controls){
+      let headers: {[key: string]: string[]} = {};
+      for(let header of this.getCallHeaders(call).controls){
+        (headers[header.controls["key"].value] ||= []).push(header.controls["value"].value);
+      }
+      const body: string = call.controls["body"].value;
+      calls[call.controls["name"].value] = {
+        method: call.controls["method"].value,
+        uri: call.controls["uri"].value,
+        body: body && body.trim().length > 0 ? body : undefined,
+        cacheTtl: call.controls["cacheTtl"].value || undefined,
+        headers: Object.keys(headers).length > 0 ? headers : undefined
+      };
+    }
+    return {
+      type: RouteFilterType.PARALLEL_EXTERNAL_CALL,
+      calls: calls,
+      responseMappings: this.getFormValueAsMap("responseMappings", false)
+    }
+  }
+
   private outputOAuth2Client(): OAuth2Client_RouteFilter {
     return {
       type: RouteFilterType.OAUTH2_CLIENT,
       clientId: this.getFormValue("clientId"),
       clientSecret: this.getFormValue("clientSecret"),
-      issuerUrl: this.getFormValue("issuerUrl")
+      issuerUrl: this.getFormValue("issuerUrl"),
+      scopes: this.getFormValue("scopes")?.trim().split(/\s+/)
     }
   }
 
@@ -66,6 +66,7 @@ export class FilterSelectComponent {
     this.dataSource.data = [
       {name: "Pre-Request Action", children: [
         {name: RouteFilterTypeNameMapping.get(RouteFilterType.EXTERNAL_CALL)!, value: RouteFilterType.EXTERNAL_CALL},
+        {name: RouteFilterTypeNameMapping.get(RouteFilterType.PARALLEL_EXTERNAL_CALL)!, value: RouteFilterType.PARALLEL_EXTERNAL_CALL},
       ]},
       {name: "Request Transformation", children: [
         {name: RouteFilterTypeNameMapping.get(RouteFilterType.SET_HEADERS)!, value: RouteFilterType.SET_HEADERS},
@@ -72,7 +72,9 @@ export class RouteEditorComponent implements OnInit{
     paths: new FormArray<FormControl<boolean|null>>([]),
     settings: new FormGroup({
       alwaysAllowHEAD: new FormControl<boolean>(true, {nonNullable: true}),
-      alwaysAllowOPTIONS: new FormControl<boolean>(true, {nonNullable: true})
+      alwaysAllowOPTIONS: new FormControl<boolean>(true, {nonNullable: true}),
+      validateParameters: new FormControl<boolean>(false, {nonNullable: true}),
+      validateRequestBody: new FormControl<boolean>(false, {nonNullable: true})
     })
   });
 
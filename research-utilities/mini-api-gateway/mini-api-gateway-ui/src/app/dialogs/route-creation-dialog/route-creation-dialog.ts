@@ -63,7 +63,9 @@ export class RouteCreationDialogComponent {
             active: false,
             settings: {
                 alwaysAllowHEAD: true,
-                alwaysAllowOPTIONS: true
+                alwaysAllowOPTIONS: true,
+                validateParameters: false,
+                validateRequestBody: false
             }
         }
     }
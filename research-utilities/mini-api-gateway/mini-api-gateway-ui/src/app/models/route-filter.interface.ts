@@ -4,6 +4,7 @@
  */
 export enum RouteFilterType {
     EXTERNAL_CALL = "EXTERNAL_CALL",
+    PARALLEL_EXTERNAL_CALL = "PARALLEL_EXTERNAL_CALL",
     SET_HEADERS = "SET_HEADERS",
     OAUTH2_CLIENT = "OAUTH2_CLIENT",
     REMOVE_REQUEST_HEADERS = "REMOVE_REQUEST_HEADERS"
@@ -30,15 +31,31 @@ export interface ExternalCall_RouteFilter extends RouteFilter {
     uri: string;
     method: ExternalCall_HTTPMethod | string;
     body?: string;
+    cacheTtl?: number;
     headers?: {[key: string]: string | string[]};
     responseMapping?: {[key: string]: string};
 }
 
+export interface SideCall {
+    uri: string;
+    method: ExternalCall_HTTPMethod | string;
+    body?: string;
+    cacheTtl?: number;
+    headers?: {[key: string]: string | string[]};
+}
+
+export interface ParallelExternalCall_RouteFilter extends RouteFilter {
+    type: RouteFilterType.PARALLEL_EXTERNAL_CALL;
+    calls: {[name: string]: SideCall};
+    responseMappings?: {[key: string]: string};
+}
+
 export interface OAuth2Client_RouteFilter extends RouteFilter {
     type: RouteFilterType.OAUTH2_CLIENT;
     clientId: string;
     clientSecret: string;
     issuerUrl: string;
+    scopes?: string[];
 }
 
 export interface SetHeaders_RouteFilter extends RouteFilter {
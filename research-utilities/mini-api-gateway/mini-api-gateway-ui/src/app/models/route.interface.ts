@@ -25,4 +25,6 @@ export interface RoutePath {
 export interface RouteSettings {
     alwaysAllowHEAD: boolean;
     alwaysAllowOPTIONS: boolean;
+    validateParameters: boolean;
+    validateRequestBody: boolean;
 }
\ No newline at end of file
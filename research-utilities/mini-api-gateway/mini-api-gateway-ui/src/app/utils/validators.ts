@@ -16,6 +16,7 @@ export const urlValidator: ValidatorFn = (control) => {
 
 export const RouteFilterTypeNameMapping: Map<RouteFilterType, string> = new Map([
     [RouteFilterType.EXTERNAL_CALL, "External Call"],
+    [RouteFilterType.PARALLEL_EXTERNAL_CALL, "Parallel External Calls"],
     [RouteFilterType.OAUTH2_CLIENT, "OAuth 2.0 Client Authorization"],
     [RouteFilterType.SET_HEADERS, "Set Headers"],
     [RouteFilterType.REMOVE_REQUEST_HEADERS, "Remove Incoming Headers"]
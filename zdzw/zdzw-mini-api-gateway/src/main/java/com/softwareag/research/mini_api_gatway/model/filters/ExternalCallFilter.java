@@ -13,11 +13,11 @@ import org.springframework.http.HttpMethod;
 import org.springframework.http.server.reactive.ServerHttpRequest.Builder;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.server.ServerWebExchange;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.softwareag.research.mini_api_gatway.utils.SideCallClient;
 import com.softwareag.research.mini_api_gatway.utils.VariableExpressionResolver;
 
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -72,12 +72,10 @@ public class ExternalCallFilter implements RouteFilter {
 
 	@JsonIgnore
 	private VariableExpressionResolver expressionResolver = new VariableExpressionResolver();
-	@JsonIgnore
-	private WebClient client = WebClient.create();
 
 	@Override
 	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-		return client
+		return SideCallClient.get()
 			.method(HttpMethod.valueOf(method))
 			.uri(uri, exchange.getAttributes())
 			.headers((headers) -> headers.addAll(this.headers))
@@ -4,32 +4,31 @@
  */
 package com.softwareag.research.mini_api_gatway.model.filters;
 
+import java.util.List;
+
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
-import org.springframework.http.server.reactive.ServerHttpRequest.Builder;
-import org.springframework.security.oauth2.client.OAuth2AuthorizationContext;
-import org.springframework.security.oauth2.client.ReactiveOAuth2AuthorizedClientProvider;
-import org.springframework.security.oauth2.client.ReactiveOAuth2AuthorizedClientProviderBuilder;
-import org.springframework.security.oauth2.client.registration.ClientRegistration;
-import org.springframework.security.oauth2.client.registration.ClientRegistrations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.server.ServerWebExchange;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.softwareag.research.mini_api_gatway.security.ClientCredentialsTokenManager;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
-import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
 
-//TODO: Finish and test
 @Schema(description = "Authorize outgoing route request with an OAuth 2 token of grant type \"client_credentials\"."
 		+ " The token will be acquired prior to the outgoing request using the supplied credentials and set as the"
 		+ " Authorization header of the outgoing request using Bearer scheme.")
 @Data
 @AllArgsConstructor
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Slf4j
 public class OAuth2ClientCredentialsFilter implements RouteFilter {
 
 	private final RouteFilterType type = RouteFilterType.OAUTH2_CLIENT;
@@ -41,24 +40,21 @@ public class OAuth2ClientCredentialsFilter implements RouteFilter {
 	private String clientSecret;
 	/** Token Acquisition URL (Authorization Server) **/
 	private String issuerUrl;
-
-	@JsonIgnore
-	@Getter(value = AccessLevel.NONE)
-	private final ReactiveOAuth2AuthorizedClientProvider clientProvider = ReactiveOAuth2AuthorizedClientProviderBuilder
-			.builder().clientCredentials().build();
+	/** Requested scopes, optional **/
+	private List<String> scopes;
 
 	@Override
 	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-		ClientRegistration clientRegistration = ClientRegistrations.fromIssuerLocation(issuerUrl)
-				.clientId(clientId)
-				.clientSecret(clientSecret)
-				.build();
-		OAuth2AuthorizationContext context = OAuth2AuthorizationContext.withClientRegistration(clientRegistration)
-				.build();
-		return clientProvider.authorize(context).flatMap(authorizedClient -> {
-			Builder request = exchange.getRequest().mutate();
-			request.header("Authorization", "Bearer " + authorizedClient.getAccessToken().getTokenValue());
-			return chain.filter(exchange.mutate().request(request.build()).build());
-		});
+		// Tokens are shared by all filters of the same client and refreshed before they expire
+		return ClientCredentialsTokenManager.get()
+				.getToken(issuerUrl, clientId, clientSecret, scopes)
+				.onErrorMap(error -> {
+					log.warn("Acquiring token for client {} at {} failed: {}", clientId, issuerUrl, error.getMessage());
+					return new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+							"Authorization with downstream server failed.");
+				})
+				.flatMap(token -> chain.filter(exchange.mutate().request(request -> {
+					request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+				}).build()));
 	}
 }
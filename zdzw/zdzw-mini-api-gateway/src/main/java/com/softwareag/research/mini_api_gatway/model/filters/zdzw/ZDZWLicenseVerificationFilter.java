@@ -7,17 +7,16 @@ package com.softwareag.research.mini_api_gatway.model.filters.zdzw;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.server.ServerWebExchange;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.softwareag.research.mini_api_gatway.model.filters.RouteFilter;
 import com.softwareag.research.mini_api_gatway.model.filters.RouteFilterStage;
 import com.softwareag.research.mini_api_gatway.model.filters.RouteFilterType;
 import com.softwareag.research.mini_api_gatway.utils.PropertiesValueUtil;
+import com.softwareag.research.mini_api_gatway.utils.SideCallClient;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AccessLevel;
@@ -43,9 +42,6 @@ public class ZDZWLicenseVerificationFilter implements RouteFilter{
 	@NonNull
 	private String appId;
 
-	@JsonIgnore
-	private WebClient client = WebClient.create();
-
 	@Override
 	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
 		String authHeader = exchange.getRequest().getHeaders().getFirst("Authorization");
@@ -56,7 +52,7 @@ public class ZDZWLicenseVerificationFilter implements RouteFilter{
 
 		String licenseManagerUrl = PropertiesValueUtil.getPropertyValue("zdzw.license-manager.url");
 
-		return client.get().uri(licenseManagerUrl + "/api/v1/licenses/licensesByRealm")
+		return SideCallClient.get().get().uri(licenseManagerUrl + "/api/v1/licenses/licensesByRealm")
 				.accept(MediaType.APPLICATION_JSON).header("Authorization", authHeader).exchangeToMono(response -> {
 					if (response.statusCode().is2xxSuccessful()) {
 						return response.bodyToMono(ZDZWLicenseResponse[].class).flatMap(body -> {
@@ -14,11 +14,9 @@ import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.server.ServerWebExchange;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -26,6 +24,7 @@ import com.softwareag.research.mini_api_gatway.model.filters.RouteFilter;
 import com.softwareag.research.mini_api_gatway.model.filters.RouteFilterStage;
 import com.softwareag.research.mini_api_gatway.model.filters.RouteFilterType;
 import com.softwareag.research.mini_api_gatway.utils.PropertiesValueUtil;
+import com.softwareag.research.mini_api_gatway.utils.SideCallClient;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.annotation.Nullable;
@@ -47,9 +46,6 @@ public class ZDZWSmartContractVerificationFilter implements RouteFilter{
 	private final RouteFilterType type = RouteFilterType.ZDZW_SMARTCONTRACT_VERIFICATION;
 	private final RouteFilterStage stage = RouteFilterStage.INCOMING;
 
-	@JsonIgnore
-	private WebClient client = WebClient.create();
-
 	@Override
 	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
 		if (!exchange.getRequest().getMethod().equals(HttpMethod.POST)) {
@@ -84,7 +80,7 @@ public class ZDZWSmartContractVerificationFilter implements RouteFilter{
 
 				String licenseManagerUrl = PropertiesValueUtil.getPropertyValue("zdzw.license-manager.url");
 
-				return client.get().uri(licenseManagerUrl + "/api/v1/licenses/smartContractsByOrg")
+				return SideCallClient.get().get().uri(licenseManagerUrl + "/api/v1/licenses/smartContractsByOrg")
 						.accept(MediaType.APPLICATION_JSON).header("Authorization", authHeader)
 						.exchangeToMono(response -> {
 							if (response.statusCode().is2xxSuccessful()) {
@@ -10,14 +10,15 @@ import java.util.concurrent.ConcurrentHashMap;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
 import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtException;
 import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
 import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
 import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
-import org.springframework.security.oauth2.jwt.ReactiveJwtDecoders;
 import org.springframework.stereotype.Component;
 
+import com.softwareag.research.mini_api_gatway.security.OidcMetadataService.OidcMetadata;
 import com.softwareag.research.mini_api_gatway.utils.JwtUtils;
 
 import reactor.core.publisher.Mono;
@@ -32,6 +33,7 @@ import reactor.core.publisher.Mono;
 @Component
 public class JwtDecoder implements ReactiveJwtDecoder {
 
+	/** Decoder by JWK set URL **/
 	private final ConcurrentHashMap<String, NimbusReactiveJwtDecoder> decoderCache = new ConcurrentHashMap<>();
 
 	private final OAuth2TokenValidator<Jwt> withClockSkew = new DelegatingOAuth2TokenValidator<>(new JwtTimestampValidator(Duration.ofSeconds(60)));
@@ -39,20 +41,38 @@ public class JwtDecoder implements ReactiveJwtDecoder {
 	@Autowired
 	private IssuerValidationService issuerValidationService;
 
+	@Autowired
+	private OidcMetadataService oidcMetadataService;
+
 	@Override
 	public Mono<Jwt> decode(String token) throws JwtException {
 		String issuer = JwtUtils.getTokenIssuer(token);
 		issuerValidationService.validateOidcIssuer(issuer);
 
-		NimbusReactiveJwtDecoder decoder = null;
-		if(decoderCache.containsKey(issuer)) {
-			decoder = decoderCache.get(issuer);
-		}else {
-			decoder = (NimbusReactiveJwtDecoder) ReactiveJwtDecoders.fromOidcIssuerLocation(issuer);
-			decoder.setJwtValidator(withClockSkew);
-			decoderCache.put(issuer, decoder);
+		return oidcMetadataService.getMetadata(issuer)
+				.onErrorMap(error -> new JwtException("Discovery of issuer " + issuer + " failed", error))
+				.flatMap(metadata -> decoder(metadata).decode(token));
+	}
+
+	private NimbusReactiveJwtDecoder decoder(OidcMetadata metadata) {
+		if (metadata.jwksUri() == null) {
+			throw new JwtException("Issuer " + metadata.issuer() + " has no JWK set");
 		}
-	    return decoder.decode(token);
+		return decoderCache.computeIfAbsent(metadata.jwksUri(), jwksUri -> {
+			NimbusReactiveJwtDecoder decoder = NimbusReactiveJwtDecoder.withJwkSetUri(jwksUri)
+					.jwsAlgorithms(algorithms -> {
+						for (String name : metadata.signingAlgorithms()) {
+							// Symmetric algorithms are not supported with JWK sets
+							SignatureAlgorithm algorithm = SignatureAlgorithm.from(name);
+							if (algorithm != null) {
+								algorithms.add(algorithm);
+							}
+						}
+					})
+					.build();
+			decoder.setJwtValidator(withClockSkew);
+			return decoder;
+		});
 	}
 
 }
@@ -16,7 +16,9 @@ import org.springframework.security.oauth2.server.resource.introspection.Reactiv
 import org.springframework.stereotype.Component;
 
 import com.softwareag.research.mini_api_gatway.model.OpenIDConnectIssuer;
+import com.softwareag.research.mini_api_gatway.security.OidcMetadataService.OidcMetadata;
 import com.softwareag.research.mini_api_gatway.utils.JwtUtils;
+import com.softwareag.research.mini_api_gatway.utils.RoleMapper;
 
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
@@ -45,7 +47,7 @@ public class JwtIntrospector implements ReactiveOpaqueTokenIntrospector {
 	@Value("${security.token-validation.mode}")
 	private String tokenValidationMode;
 
-	@Value("${security.token-validation.rolePath:scope}")
+	@Value("${security.token-validation.rolesPath:scope}")
 	private String rolePath;
 
 	@Value("${security.token-validation.userRole}")
@@ -54,8 +56,11 @@ public class JwtIntrospector implements ReactiveOpaqueTokenIntrospector {
 	@Value("${security.token-validation.adminRole}")
 	private String adminRole;
 
+	private RoleMapper roleMapper;
+
 	@PostConstruct
-	private void validateConfiguration() {
+	private void initialize() {
+		roleMapper = RoleMapper.compile(rolePath, userRole, adminRole);
 		if (tokenValidationMode.equals("INTROSPECTION")) {
 			if (defaultClientId == null || defaultClientId.isBlank() || defaultClientSecret == null
 					|| defaultClientSecret.isBlank()) {
@@ -69,20 +74,40 @@ public class JwtIntrospector implements ReactiveOpaqueTokenIntrospector {
 	@Autowired
 	private IssuerValidationService issuerValidationService;
 
+	@Autowired
+	private OidcMetadataService oidcMetadataService;
+
 	@Override
 	public Mono<OAuth2AuthenticatedPrincipal> introspect(String token) throws JwtException {
 		String issuer = JwtUtils.getTokenIssuer(token);
 		OpenIDConnectIssuer oidcIssuer = issuerValidationService.validateOidcIssuer(issuer);
 
-		String introspectionUrl = oidcIssuer.getTokenIntrospectionEndpoint();
-		if (introspectionUrl == null) {
-			introspectionUrl = issuer + KEYLOAK_INTROSPECTION_ENDPOINT;
+		return introspectionUrl(issuer, oidcIssuer)
+				.flatMap(introspectionUrl -> introspector(introspectionUrl, oidcIssuer).introspect(token))
+				.map(p -> new OAuth2IntrospectionAuthenticatedPrincipal(p.getAttributes(),
+						roleMapper.map(p.getAttributes())));
+	}
+
+	/**
+	 * @return the configured introspection endpoint, the discovered one or the
+	 *         Keycloak default
+	 */
+	private Mono<String> introspectionUrl(String issuer, OpenIDConnectIssuer oidcIssuer) {
+		if (oidcIssuer.getTokenIntrospectionEndpoint() != null) {
+			return Mono.just(oidcIssuer.getTokenIntrospectionEndpoint());
 		}
+		return oidcMetadataService.getMetadata(issuer)
+				.mapNotNull(OidcMetadata::introspectionEndpoint)
+				.onErrorResume(error -> {
+					log.debug("Discovery of issuer {} failed, using default introspection endpoint", issuer, error);
+					return Mono.empty();
+				})
+				.defaultIfEmpty(issuer + KEYLOAK_INTROSPECTION_ENDPOINT);
+	}
 
-		NimbusReactiveOpaqueTokenIntrospector introspector = null;
-		if (introspectorCache.containsKey(introspectionUrl)) {
-			introspector = introspectorCache.get(introspectionUrl);
-		}else {
+	private NimbusReactiveOpaqueTokenIntrospector introspector(String introspectionUrl, OpenIDConnectIssuer oidcIssuer) {
+		NimbusReactiveOpaqueTokenIntrospector introspector = introspectorCache.get(introspectionUrl);
+		if (introspector == null) {
 			String clientId = this.defaultClientId;
 			if (oidcIssuer.getClientId() != null) {
 				clientId = oidcIssuer.getClientId();
@@ -94,11 +119,7 @@ public class JwtIntrospector implements ReactiveOpaqueTokenIntrospector {
 			introspector = new NimbusReactiveOpaqueTokenIntrospector(introspectionUrl, clientId, clientSecret);
 			introspectorCache.put(introspectionUrl, introspector);
 		}
-		return introspector.introspect(token).map(p -> {
-			return new OAuth2IntrospectionAuthenticatedPrincipal(p.getAttributes(),
-					JwtUtils.createAuthoritiesFromRoles(JwtUtils.parseRoles(p.getAttributes(), rolePath), userRole,
-							adminRole));
-		});
+		return introspector;
 	}
 
 }
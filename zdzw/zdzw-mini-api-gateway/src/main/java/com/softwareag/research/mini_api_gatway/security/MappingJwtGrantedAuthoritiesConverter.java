@@ -4,21 +4,18 @@
  */
 package com.softwareag.research.mini_api_gatway.security;
 
-import java.util.Collection;
-
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Component;
 
-import com.softwareag.research.mini_api_gatway.utils.JwtUtils;
+import com.softwareag.research.mini_api_gatway.utils.RoleMapper;
 
+import jakarta.annotation.PostConstruct;
 import lombok.NoArgsConstructor;
-import lombok.extern.log4j.Log4j2;
 import reactor.core.publisher.Flux;
 
-@Log4j2
 @NoArgsConstructor
 @Component
 public class MappingJwtGrantedAuthoritiesConverter implements Converter<Jwt, Flux<GrantedAuthority>> {
@@ -32,15 +29,16 @@ public class MappingJwtGrantedAuthoritiesConverter implements Converter<Jwt, Flu
 	@Value("${security.token-validation.adminRole}")
 	private String adminRole;
 
-    @Override
-	public Flux<GrantedAuthority> convert(Jwt jwt) {
-
-		Collection<String> roles = JwtUtils.parseRoles(jwt, rolePath);
+	private RoleMapper roleMapper;
 
-		log.info("{}", roles);
-
-		return Flux.fromIterable(JwtUtils.createAuthoritiesFromRoles(roles, userRole, adminRole));
-    }
+	@PostConstruct
+	private void initialize() {
+		roleMapper = RoleMapper.compile(rolePath, userRole, adminRole);
+	}
 
+	@Override
+	public Flux<GrantedAuthority> convert(Jwt jwt) {
+		return Flux.fromIterable(roleMapper.map(jwt.getClaims()));
+	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,196 @@
+/*
+ * SPDX-FileCopyrightText: Copyright 2025 Software GmbH
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.softwareag.research.mini_api_gatway.security;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+
+import com.softwareag.research.mini_api_gatway.utils.SideCallClient;
+import com.softwareag.research.mini_api_gatway.utils.SingleFlight;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Gateway-wide cache of the OpenID Connect discovery documents
+ * (<code>.well-known/openid-configuration</code>) of token issuers, shared by
+ * the {@link JwtDecoder}, the {@link JwtIntrospector} and the
+ * {@link ClientCredentialsTokenManager}. Each issuer is discovered once,
+ * concurrent requests share one discovery. Metadata older than the TTL is
+ * still served while it is refreshed in the background, so only the first
+ * request of an issuer waits for its discovery. Registered issuers are
+ * discovered in advance with {@link #prefetch(String)}.
+ *
+ * @author jonsch
+ *
+ */
+@Component
+@Slf4j
+public class OidcMetadataService {
+
+	private static final String DISCOVERY_PATH = "/.well-known/openid-configuration";
+
+	/** Milliseconds until a failed refresh is retried **/
+	private static final long RETRY_DELAY = 30000;
+
+	/** Used until the component is initialized, e.g. in unit tests **/
+	private static final OidcMetadataService fallbackService = new OidcMetadataService();
+
+	private static volatile OidcMetadataService instance;
+
+	/** Metadata by issuer **/
+	private final Map<String, MetadataEntry> entries = new ConcurrentHashMap<>();
+
+	@Value("${security.oidc-metadata.ttl-ms}")
+	private long ttl = 3600000;
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @return the shared metadata service
+	 */
+	public static OidcMetadataService get() {
+		OidcMetadataService current = instance;
+		return current != null ? current : fallbackService;
+	}
+
+	@PostConstruct
+	private void initialize() {
+		instance = this;
+	}
+
+	@PreDestroy
+	private void dispose() {
+		instance = null;
+	}
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param issuer the issuer URL
+	 * @return the metadata of the issuer, an error if the discovery failed and no
+	 *         earlier metadata is available
+	 */
+	public Mono<OidcMetadata> getMetadata(String issuer) {
+		MetadataEntry entry = entries.computeIfAbsent(issuer, MetadataEntry::new);
+		OidcMetadata metadata = entry.metadata;
+		if (metadata == null) {
+			return entry.fetch();
+		}
+		if (System.currentTimeMillis() - entry.fetchedAt > ttl) {
+			entry.refresh();
+		}
+		return Mono.just(metadata);
+	}
+
+	/**
+	 * Discovers the issuer in the background unless it is known already
+	 *
+	 * Runs at setup (low time-critical)
+	 *
+	 * @param issuer the issuer URL
+	 */
+	public void prefetch(String issuer) {
+		MetadataEntry entry = entries.computeIfAbsent(issuer, MetadataEntry::new);
+		if (entry.metadata == null) {
+			entry.refresh();
+		}
+	}
+
+	/**
+	 * Endpoints and capabilities of an issuer
+	 *
+	 * @param issuer                the issuer as stated by itself
+	 * @param jwksUri               URL of the signing keys
+	 * @param tokenEndpoint         URL of the token endpoint, may be null
+	 * @param introspectionEndpoint URL of the token introspection endpoint, may be
+	 *                              null
+	 * @param signingAlgorithms     names of the supported token signing
+	 *                              algorithms, empty if not stated
+	 */
+	public record OidcMetadata(String issuer, String jwksUri, String tokenEndpoint, String introspectionEndpoint,
+			List<String> signingAlgorithms) {
+
+		private static OidcMetadata of(String issuer, Map<String, Object> document) {
+			Object statedIssuer = document.get("issuer");
+			if (!issuer.equals(statedIssuer)) {
+				throw new IllegalStateException(
+						"Issuer " + statedIssuer + " of the discovery document does not match " + issuer);
+			}
+			Object introspectionEndpoint = document.get("introspection_endpoint");
+			if (introspectionEndpoint == null) {
+				introspectionEndpoint = document.get("token_introspection_endpoint");
+			}
+			List<String> signingAlgorithms = new ArrayList<>();
+			if (document.get("id_token_signing_alg_values_supported") instanceof Collection<?> algorithms) {
+				algorithms.forEach(algorithm -> signingAlgorithms.add(algorithm.toString()));
+			}
+			return new OidcMetadata(issuer, text(document.get("jwks_uri")), text(document.get("token_endpoint")),
+					text(introspectionEndpoint), List.copyOf(signingAlgorithms));
+		}
+
+		private static String text(Object value) {
+			return value == null ? null : value.toString();
+		}
+	}
+
+	/**
+	 * Current metadata and pending discovery of an issuer
+	 */
+	private final class MetadataEntry {
+
+		private final String issuer;
+
+		private volatile OidcMetadata metadata;
+
+		/** Time of the last discovery, including failed refreshes **/
+		private volatile long fetchedAt;
+
+		private final SingleFlight<OidcMetadata> discovery = new SingleFlight<>();
+
+		private MetadataEntry(String issuer) {
+			this.issuer = issuer;
+		}
+
+		private void refresh() {
+			if (discovery.isRunning()) {
+				return;
+			}
+			fetch().subscribe(refreshed -> {
+			}, error -> log.warn("Discovery of issuer {} failed: {}", issuer, error.getMessage()));
+		}
+
+		private Mono<OidcMetadata> fetch() {
+			return discovery.run(() -> SideCallClient.get()
+					.get()
+					.uri(issuer.endsWith("/") ? issuer.substring(0, issuer.length() - 1) + DISCOVERY_PATH
+							: issuer + DISCOVERY_PATH)
+					.retrieve()
+					.bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {
+					})
+					.map(document -> OidcMetadata.of(issuer, document))
+					.doOnNext(discovered -> {
+						metadata = discovered;
+						fetchedAt = System.currentTimeMillis();
+					})
+					.doOnError(error -> {
+						// Keep serving earlier metadata, retry after a delay
+						fetchedAt = System.currentTimeMillis() - ttl + RETRY_DELAY;
+					}));
+		}
+	}
+
+}
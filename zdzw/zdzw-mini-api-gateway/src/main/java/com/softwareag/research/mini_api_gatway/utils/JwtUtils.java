@@ -5,119 +5,111 @@
 package com.softwareag.research.mini_api_gatway.utils;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Base64;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.stream.Collectors;
 
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.BadJwtException;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtException;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 
 public class JwtUtils {
 
-	private final static ObjectMapper objectMapper = new ObjectMapper();
+	private final static JsonFactory jsonFactory = new JsonFactory();
 
-	public static String getTokenIssuer(String token) throws JwtException {
-		String payload = token.split("[.]")[1];
-		JsonNode tokenJson;
-		try {
-			tokenJson = objectMapper.readTree(Base64.getDecoder().decode(payload));
-		} catch (IOException e) {
-			throw new JwtException(e.getMessage(), e);
-		}
-		return tokenJson.get("iss").asText();
-	}
+	/** Payloads up to this size are decoded into a buffer of the thread **/
+	private final static int MAX_BUFFER_SIZE = 16384;
 
-	public static Jwt parseJwt(String token) {
-		return Jwt.withTokenValue(token).build();
+	private final static ThreadLocal<byte[]> payloadBuffers = ThreadLocal.withInitial(() -> new byte[1024]);
+
+	/** Value of each character of base64url and base64, -1 if invalid **/
+	private final static int[] base64Values = new int[128];
+
+	static {
+		Arrays.fill(base64Values, -1);
+		String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+		for (int i = 0; i < alphabet.length(); i++) {
+			base64Values[alphabet.charAt(i)] = i;
+		}
+		base64Values['+'] = 62;
+		base64Values['/'] = 63;
 	}
 
-	public static Collection<String> parseRoles(Jwt jwt, String rolePath) {
-		String[] pathItems = rolePath.split("\\.");
-		int index = 0;
-		Map<String, Object> currentMap = null;
-		while (index < pathItems.length - 1) {
-			if (currentMap == null) {
-				try {
-					currentMap = jwt.getClaimAsMap(pathItems[index]);
-				} catch (IllegalArgumentException e) {
-					return Collections.emptyList();
-				}
-			} else {
-				currentMap = (Map<String, Object>) currentMap.getOrDefault(pathItems[index], null);
+	/**
+	 * Reads the issuer from the payload of a JWT without verifying it. The
+	 * payload is decoded into a buffer of the thread and only parsed until the
+	 * issuer is found.
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @param token the encoded token
+	 * @return the issuer
+	 * @throws JwtException if the token is malformed or has no issuer
+	 */
+	public static String getTokenIssuer(String token) throws JwtException {
+		int start = token.indexOf('.') + 1;
+		int end = start == 0 ? -1 : token.indexOf('.', start);
+		if (end == -1) {
+			throw new BadJwtException("Token is not a JWT");
+		}
+		int maxLength = (end - start) * 3 / 4 + 3;
+		byte[] payload = payloadBuffers.get();
+		if (payload.length < maxLength) {
+			payload = new byte[maxLength];
+			if (maxLength <= MAX_BUFFER_SIZE) {
+				payloadBuffers.set(payload);
 			}
-			index++;
 		}
-		if (currentMap == null) {
-			try {
-				return jwt.getClaimAsStringList(pathItems[index]);
-			} catch (IllegalArgumentException e) {
-				return new ArrayList<>(Arrays.asList((jwt.getClaimAsString(pathItems[index]).split(" "))));
-			} catch (NullPointerException e) {
-				return Collections.emptyList();
+		int length = decodeBase64(token, start, end, payload);
+		try (JsonParser parser = jsonFactory.createParser(payload, 0, length)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				throw new BadJwtException("Token payload is not a JSON object");
 			}
-		} else {
-			Object leafEntry = currentMap.getOrDefault(pathItems[index], null);
-			if (leafEntry instanceof Collection) {
-				return (Collection<String>) leafEntry;
-			} else if (leafEntry instanceof String && leafEntry != null) {
-				return new ArrayList<>(Arrays.asList(((String) leafEntry).split(" ")));
-			} else {
-				return Collections.emptyList();
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				boolean issuer = "iss".equals(parser.currentName());
+				if (parser.nextToken() == JsonToken.VALUE_STRING && issuer) {
+					return parser.getText();
+				}
+				parser.skipChildren();
 			}
+		} catch (IOException e) {
+			throw new BadJwtException(e.getMessage(), e);
 		}
+		throw new BadJwtException("Token has no issuer");
 	}
 
-	public static Collection<String> parseRoles(Map<String, Object> map, String rolePath) {
-		String[] pathItems = rolePath.split("\\.");
-		int index = 0;
-		Map<String, Object> currentMap = map;
-		while (index < pathItems.length - 1) {
-			if (currentMap == null)
-				return Collections.emptyList();
-			currentMap = (Map<String, Object>) currentMap.getOrDefault(pathItems[index], null);
-			index++;
-		}
-		if (currentMap == null)
-			return Collections.emptyList();
-		Object leafEntry = currentMap.getOrDefault(pathItems[index], null);
-		if (leafEntry instanceof Collection) {
-			return (Collection<String>) leafEntry;
-		} else if (leafEntry instanceof String && leafEntry != null) {
-			return new ArrayList<>(Arrays.asList(((String) leafEntry).split(" ")));
-		} else {
-			return Collections.emptyList();
+	/**
+	 * Decodes base64url (or base64) text, padding is optional
+	 *
+	 * @return number of bytes written to the target
+	 */
+	private static int decodeBase64(String text, int start, int end, byte[] target) {
+		int length = 0;
+		int bits = 0;
+		int bitCount = 0;
+		for (int i = start; i < end; i++) {
+			char c = text.charAt(i);
+			if (c == '=') {
+				break;
+			}
+			int value = c < 128 ? base64Values[c] : -1;
+			if (value == -1) {
+				throw new BadJwtException("Token payload is not base64url encoded");
+			}
+			bits = (bits << 6) | value;
+			bitCount += 6;
+			if (bitCount >= 8) {
+				bitCount -= 8;
+				target[length++] = (byte) (bits >> bitCount);
+			}
 		}
+		return length;
 	}
 
-	public static Collection<GrantedAuthority> createAuthoritiesFromRoles(Collection<String> roles, String userRole,
-			String adminRole) {
-
-		HashSet<GrantedAuthority> set;
-		if (roles == null) {
-			set = new HashSet<>(1);
-		} else {
-			set = roles.stream().<SimpleGrantedAuthority>mapMulti((role, c) -> {
-				if (role.equals(userRole)) {
-					c.accept(new SimpleGrantedAuthority("ROLE_USER"));
-				}
-				if (role.equals(adminRole)) {
-					c.accept(new SimpleGrantedAuthority("ROLE_ADMIN"));
-				}
-				c.accept(new SimpleGrantedAuthority(role));
-			}).collect(Collectors.toCollection(HashSet::new));
-		}
-
-		set.add(new SimpleGrantedAuthority("ROLE_USER"));
-		return set;
+	public static Jwt parseJwt(String token) {
+		return Jwt.withTokenValue(token).build();
 	}
+
 }
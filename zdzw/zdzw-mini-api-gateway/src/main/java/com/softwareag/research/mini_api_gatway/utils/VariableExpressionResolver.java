@@ -4,16 +4,17 @@
  */
 package com.softwareag.research.mini_api_gatway.utils;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.NoSuchElementException;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
 
 /**
  * Replaces JSON-Path style expressions with values from maps containing any
@@ -21,80 +22,229 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  * Example: The expression <code>${response.headers.Authorization}</code> is
  * replaced with the value from the map key <code>response</code>'s child
  * attribute <code>headers</code>' child attribute <code>Authorization</code>.
- *
+ * Strings on the path are parsed as JSON, e.g. a response payload.
+ * <br>
+ * Templates are compiled once with {@link #compile(String)} into literals and
+ * variable accessors. Only the referenced values are looked up on evaluation,
+ * objects are not converted as a whole.
  *
  * @author jonsch
  *
  */
 public class VariableExpressionResolver {
 
-	private static final Pattern VAR_PATTERN = Pattern.compile("[$][{]([^}]+)}");
-	private static final Pattern DOT_PATTERN = Pattern.compile("\\.");
 	private static final String UNDEFINED = "undefined";
-	private static final char SLASH = '/';
+	private static final String START = "${";
+	private static final char END = '}';
+	private static final char DOT = '.';
+
+	/** Properties of the classes of resolved objects, by JSON name **/
+	private static final Map<Class<?>, Map<String, AnnotatedMember>> beanProperties = new ConcurrentHashMap<>();
+
 	private ObjectMapper mapper;
 
 	public VariableExpressionResolver() {
 		mapper = new ObjectMapper();
 	}
 
+	/**
+	 * Compiles and evaluates the template. Use {@link #compile(String)} for
+	 * templates that are evaluated repeatedly.
+	 *
+	 * @param template   the template
+	 * @param parameters the variables
+	 * @return the template with all expressions replaced, <code>undefined</code>
+	 *         for expressions that can not be resolved
+	 */
 	public String format(String template, Map<String, Object> parameters) {
-		StringBuilder newTemplate = new StringBuilder(template);
-		LinkedList<String> valueList = new LinkedList<>();
-
-		Matcher matcher = VAR_PATTERN.matcher(template);
-
-		while (matcher.find()) {
-			String key = matcher.group(1);
-
-			String paramName = "${" + key + "}";
-			int index = newTemplate.indexOf(paramName);
-			if (index != -1) {
-				newTemplate.replace(index, index + paramName.length(), "%s");
-				try {
-					String[] splitPath = DOT_PATTERN.split(key, 2);
-					JsonNode tree = mapper.valueToTree(parameters.get(splitPath[0]));
-					JsonNode node = tree.at(SLASH + splitPath[1].replace('.', SLASH));
-					if (node.isValueNode()) {
-						valueList.add(node.asText());
-					} else if (node.isMissingNode() && splitPath.length > 1) {
-						splitPath = DOT_PATTERN.split(splitPath[1], 2);
-						String nodeValue;
-						if (tree.isArray()) {
-							nodeValue = tree.get(Integer.parseInt(splitPath[0])).asText();
-						} else {
-							nodeValue = tree.get(splitPath[0]).asText();
-						}
-						valueList.add(resolvePath(nodeValue, splitPath[1]));
-					} else {
-						throw new NoSuchElementException();
-					}
-				} catch (RuntimeException | JsonProcessingException e) {
-					valueList.add(UNDEFINED);
+		return compile(template).format(parameters);
+	}
+
+	/**
+	 *
+	 * Runs at setup (low time-critical)
+	 *
+	 * @param template the template
+	 * @return the compiled template
+	 */
+	public Template compile(String template) {
+		List<String> literals = new ArrayList<>();
+		List<Variable> variables = new ArrayList<>();
+		int literalStart = 0;
+		int start = template.indexOf(START);
+		while (start != -1) {
+			int end = template.indexOf(END, start + START.length());
+			if (end == -1) {
+				break;
+			}
+			if (end == start + START.length()) {
+				// Empty expression stays literal
+				start = template.indexOf(START, end);
+				continue;
+			}
+			literals.add(template.substring(literalStart, start));
+			variables.add(Variable.parse(template.substring(start + START.length(), end)));
+			literalStart = end + 1;
+			start = template.indexOf(START, literalStart);
+		}
+		literals.add(template.substring(literalStart));
+		return new Template(literals.toArray(new String[0]), variables.toArray(new Variable[0]));
+	}
+
+	/**
+	 *
+	 * Runs on request (high time-critical)
+	 *
+	 * @return the text of the value the variable refers to, <code>undefined</code>
+	 *         if it does not exist or is not a simple value
+	 */
+	private String resolve(Variable variable, Map<String, Object> parameters) {
+		Object value = parameters.get(variable.name);
+		for (int i = 0; i < variable.path.length && value != null; i++) {
+			value = child(value, variable.path[i], variable.indexes[i]);
+		}
+		return text(value);
+	}
+
+	private Object child(Object parent, String name, int index) {
+		if (parent instanceof JsonNode node && !node.isTextual()) {
+			return index >= 0 && node.isArray() ? node.get(index) : node.get(name);
+		} else if (parent instanceof Map<?, ?> map) {
+			return map.get(name);
+		} else if (parent instanceof List<?> list) {
+			return index >= 0 && index < list.size() ? list.get(index) : null;
+		} else if (parent instanceof Object[] array) {
+			return index >= 0 && index < array.length ? array[index] : null;
+		} else if (parent instanceof CharSequence || parent instanceof JsonNode) {
+			// Embedded JSON document
+			String text = parent instanceof JsonNode node ? node.textValue() : parent.toString();
+			try {
+				return child(mapper.readTree(text), name, index);
+			} catch (JsonProcessingException e) {
+				return null;
+			}
+		} else {
+			AnnotatedMember property = properties(parent.getClass()).get(name);
+			return property == null ? null : property.getValue(parent);
+		}
+	}
+
+	private Map<String, AnnotatedMember> properties(Class<?> type) {
+		Map<String, AnnotatedMember> properties = beanProperties.get(type);
+		if (properties == null) {
+			properties = new HashMap<>();
+			for (BeanPropertyDefinition property : mapper.getSerializationConfig()
+					.introspect(mapper.constructType(type)).findProperties()) {
+				AnnotatedMember accessor = property.getAccessor();
+				if (accessor != null) {
+					accessor.fixAccess(true);
+					properties.put(property.getName(), accessor);
 				}
 			}
+			beanProperties.put(type, properties);
 		}
+		return properties;
+	}
 
-		return String.format(newTemplate.toString(), valueList.toArray());
+	private static String text(Object value) {
+		if (value instanceof JsonNode node) {
+			return node.isValueNode() ? node.asText() : UNDEFINED;
+		} else if (value instanceof CharSequence || value instanceof Number || value instanceof Boolean
+				|| value instanceof Character || value instanceof Enum) {
+			return value.toString();
+		}
+		return UNDEFINED;
 	}
 
-	private String resolvePath(String input, String path) throws JsonMappingException, JsonProcessingException {
-		if (input.isEmpty()) {
-			throw new NoSuchElementException();
+	/**
+	 * Template compiled into literals and the variables between them. Immutable
+	 * and thread-safe.
+	 */
+	public final class Template {
+
+		/** Literal before each variable and after the last one **/
+		private final String[] literals;
+
+		private final Variable[] variables;
+
+		private final int literalLength;
+
+		private Template(String[] literals, Variable[] variables) {
+			this.literals = literals;
+			this.variables = variables;
+			int length = 0;
+			for (String literal : literals) {
+				length += literal.length();
+			}
+			literalLength = length;
 		}
-		JsonNode tree = mapper.readTree(input);
-		JsonNode node = tree.at(SLASH + path.replace('.', SLASH));
-		if (node.isValueNode()) {
-			return node.asText();
-		} else if (node.isMissingNode()) {
-			String[] splitPath = DOT_PATTERN.split(path, 2);
-			if (tree.isArray()) {
-				return resolvePath(tree.get(Integer.parseInt(splitPath[0])).asText(), splitPath[1]);
-			} else {
-				return resolvePath(tree.get(splitPath[0]).asText(), splitPath[1]);
+
+		/**
+		 *
+		 * Runs on request (high time-critical)
+		 *
+		 * @param parameters the variables
+		 * @return the template with all expressions replaced, <code>undefined</code>
+		 *         for expressions that can not be resolved
+		 */
+		public String format(Map<String, Object> parameters) {
+			if (variables.length == 0) {
+				return literals[0];
 			}
-		} else {
-			throw new NoSuchElementException();
+			StringBuilder result = new StringBuilder(literalLength + 16 * variables.length);
+			for (int i = 0; i < variables.length; i++) {
+				result.append(literals[i]).append(resolve(variables[i], parameters));
+			}
+			return result.append(literals[variables.length]).toString();
+		}
+
+	}
+
+	/**
+	 * Variable expression, e.g. <code>response.payload.items.0.id</code>
+	 */
+	private static final class Variable {
+
+		/** Name of the parameter **/
+		private final String name;
+
+		/** Names of the children on the path **/
+		private final String[] path;
+
+		/** Children as array index, -1 if the name is not a number **/
+		private final int[] indexes;
+
+		private Variable(String name, String[] path) {
+			this.name = name;
+			this.path = path;
+			indexes = new int[path.length];
+			for (int i = 0; i < path.length; i++) {
+				indexes[i] = index(path[i]);
+			}
+		}
+
+		private static Variable parse(String expression) {
+			List<String> segments = new ArrayList<>();
+			int start = 0;
+			int dot;
+			while ((dot = expression.indexOf(DOT, start)) != -1) {
+				segments.add(expression.substring(start, dot));
+				start = dot + 1;
+			}
+			segments.add(expression.substring(start));
+			return new Variable(segments.get(0), segments.subList(1, segments.size()).toArray(new String[0]));
+		}
+
+		private static int index(String segment) {
+			if (segment.isEmpty() || segment.length() > 9) {
+				return -1;
+			}
+			for (int i = 0; i < segment.length(); i++) {
+				if (segment.charAt(i) < '0' || segment.charAt(i) > '9') {
+					return -1;
+				}
+			}
+			return Integer.parseInt(segment);
 		}
 	}
 
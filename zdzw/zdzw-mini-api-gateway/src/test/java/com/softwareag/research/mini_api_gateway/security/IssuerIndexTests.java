@@ -0,0 +1,86 @@
+package com.softwareag.research.mini_api_gateway.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.softwareag.research.mini_api_gatway.model.OpenIDConnectIssuer;
+import com.softwareag.research.mini_api_gatway.model.OpenIDConnectIssuer.IssuerMatchMode;
+import com.softwareag.research.mini_api_gatway.security.IssuerIndex;
+
+public class IssuerIndexTests {
+
+	private static final OpenIDConnectIssuer KEYCLOAK = issuer("https://keycloak.example/realms/",
+			IssuerMatchMode.PREFIX_MATCH);
+	private static final OpenIDConnectIssuer MASTER = issuer("https://keycloak.example/realms/master",
+			IssuerMatchMode.FULL_MATCH);
+	private static final OpenIDConnectIssuer TENANTS = issuer("https://keycloak.example/realms/tenant",
+			IssuerMatchMode.PREFIX_MATCH);
+	private static final OpenIDConnectIssuer HOST = issuer("https://idp.example", IssuerMatchMode.PREFIX_MATCH);
+	private static final OpenIDConnectIssuer LOCAL = issuer("http://localhost:8180/realms/test",
+			IssuerMatchMode.FULL_MATCH);
+
+	private static OpenIDConnectIssuer issuer(String url, IssuerMatchMode matchMode) {
+		return new OpenIDConnectIssuer(null, url, null, matchMode, null, null);
+	}
+
+	private static IssuerIndex createIndex() {
+		return IssuerIndex.compile(List.of(KEYCLOAK, MASTER, TENANTS, HOST, LOCAL));
+	}
+
+	@Test
+	public void matchesFullAndPrefixIssuers() {
+		IssuerIndex index = createIndex();
+		assertSame(MASTER, index.find("https://keycloak.example/realms/master"));
+		assertSame(KEYCLOAK, index.find("https://keycloak.example/realms/other"));
+		assertSame(KEYCLOAK, index.find("https://keycloak.example/realms/master2"));
+		assertSame(LOCAL, index.find("http://localhost:8180/realms/test"));
+	}
+
+	@Test
+	public void prefersLongestPrefix() {
+		IssuerIndex index = createIndex();
+		assertSame(TENANTS, index.find("https://keycloak.example/realms/tenant-a"));
+		assertSame(TENANTS, index.find("https://keycloak.example/realms/tenant"));
+		assertSame(KEYCLOAK, index.find("https://keycloak.example/realms/tenan"));
+	}
+
+	@Test
+	public void keepsHostAndPortOfPrefixWithoutPath() {
+		IssuerIndex index = createIndex();
+		assertSame(HOST, index.find("https://idp.example"));
+		assertSame(HOST, index.find("https://idp.example/realms/a"));
+		assertNull(index.find("https://idp.example.org/realms/a"));
+		assertNull(index.find("https://idp.example:8443/realms/a"));
+	}
+
+	@Test
+	public void rejectsUnknownIssuers() {
+		IssuerIndex index = createIndex();
+		assertNull(index.find("http://localhost:8180/realms/test2"));
+		assertNull(index.find("http://localhost:8180/realms"));
+		assertNull(index.find("https://keycloak.example/realms"));
+		assertNull(index.find("http://keycloak.example/realms/master"));
+		assertNull(index.find(""));
+		assertNull(IssuerIndex.compile(List.of()).find("https://idp.example"));
+	}
+
+	@Test
+	public void scalesToManyTenants() {
+		List<OpenIDConnectIssuer> issuers = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			issuers.add(issuer("https://tenant" + i + ".example/realms/main", IssuerMatchMode.FULL_MATCH));
+		}
+		IssuerIndex index = IssuerIndex.compile(issuers);
+		for (int i = 0; i < 5000; i += 97) {
+			assertEquals(issuers.get(i), index.find("https://tenant" + i + ".example/realms/main"));
+		}
+		assertNull(index.find("https://tenant5000.example/realms/main"));
+	}
+
+}
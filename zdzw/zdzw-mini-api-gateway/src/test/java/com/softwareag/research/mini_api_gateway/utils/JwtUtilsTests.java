@@ -5,8 +5,13 @@
 package com.softwareag.research.mini_api_gateway.utils;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.JwtException;
 
 import com.softwareag.research.mini_api_gatway.utils.JwtUtils;
 
@@ -18,4 +23,22 @@ public class JwtUtilsTests {
 		String issuer = JwtUtils.getTokenIssuer(token);
 		assertEquals(issuer, "https://jwt.io");
 	}
+
+	@Test
+	public void issuerAfterNestedClaimsTest() {
+		// ">?" encodes to characters that differ between base64 and base64url
+		String payload = "{\"realm_access\":{\"roles\":[\"a\",{\"iss\":\"nested\"}]},\"x\":\">?>?\",\"iss\":\"https://issuer\"}";
+		String token = "e30." + Base64.getUrlEncoder().withoutPadding()
+				.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + ".c2ln";
+		assertEquals("https://issuer", JwtUtils.getTokenIssuer(token));
+	}
+
+	@Test
+	public void malformedTokenTest() {
+		String noIssuer = "e30." + Base64.getUrlEncoder().withoutPadding()
+				.encodeToString("{\"sub\":\"me\"}".getBytes(StandardCharsets.UTF_8)) + ".c2ln";
+		assertThrows(JwtException.class, () -> JwtUtils.getTokenIssuer(noIssuer));
+		assertThrows(JwtException.class, () -> JwtUtils.getTokenIssuer("no-jwt"));
+		assertThrows(JwtException.class, () -> JwtUtils.getTokenIssuer("e30.!!!.c2ln"));
+	}
 }
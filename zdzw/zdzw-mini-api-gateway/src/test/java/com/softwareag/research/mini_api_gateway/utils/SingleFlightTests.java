@@ -0,0 +1,53 @@
+package com.softwareag.research.mini_api_gateway.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.softwareag.research.mini_api_gatway.utils.SingleFlight;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+public class SingleFlightTests {
+
+	@Test
+	public void coalescesConcurrentCalls() {
+		SingleFlight<String> flight = new SingleFlight<>();
+		AtomicInteger loads = new AtomicInteger();
+		Sinks.One<String> result = Sinks.one();
+		Supplier<Mono<String>> loader = () -> {
+			loads.incrementAndGet();
+			return result.asMono();
+		};
+		Mono<String> first = flight.run(loader);
+		Mono<String> second = flight.run(loader);
+		assertSame(first, second);
+		first.subscribe();
+		second.subscribe();
+		assertTrue(flight.isRunning());
+		result.tryEmitValue("value");
+		assertEquals("value", second.block());
+		assertEquals(1, loads.get());
+		assertFalse(flight.isRunning());
+	}
+
+	@Test
+	public void startsNewLoadAfterCompletionOrError() {
+		SingleFlight<String> flight = new SingleFlight<>();
+		AtomicInteger loads = new AtomicInteger();
+		Supplier<Mono<String>> loader = () -> loads.incrementAndGet() == 1 ? Mono.error(new IllegalStateException())
+				: Mono.just("value" + loads.get());
+		assertEquals("fallback", flight.run(loader).onErrorReturn("fallback").block());
+		assertEquals("value2", flight.run(loader).block());
+		assertEquals("value3", flight.run(loader).block());
+		assertFalse(flight.isRunning());
+	}
+
+}